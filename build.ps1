@@ -38,7 +38,8 @@ if ($LASTEXITCODE -eq 0) {
     
     # Copy Resources
     Write-Host "Copying resources..."
-    Copy-Item "src\main\resources\schema.sql" "target\classes\" -Force
+    New-Item -ItemType Directory -Path "target\classes\db\migration" -Force | Out-Null
+    Copy-Item "src\main\resources\db\migration\*" "target\classes\db\migration\" -Force
     Copy-Item "src\main\resources\fxml\*.fxml" "target\classes\fxml\" -Force
     
     Write-Host "Build complete."
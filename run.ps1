@@ -18,5 +18,11 @@ if ($jfxJars.Count -lt 4) {
 }
 $modulePath = $jfxJars -join ";"
 
+# Arguments run a maintenance command instead of the UI, e.g. .\run.ps1 --restore latest
+if ($args.Count -gt 0) {
+    & $javaExe --module-path "$modulePath" --add-modules "javafx.controls,javafx.fxml" -cp "$cp" com.florist.AdminCommand @args
+    exit $LASTEXITCODE
+}
+
 Write-Host "Starting PetalSuite..." -ForegroundColor Cyan
 & $javaExe --module-path "$modulePath" --add-modules "javafx.controls,javafx.fxml" -cp "$cp" com.florist.MainApp
@@ -0,0 +1,136 @@
+package com.florist;
+
+import com.florist.application.service.BackupService;
+import com.florist.application.service.ImportPipeline.ImportResult;
+import com.florist.config.AppConfig;
+import com.florist.config.ServiceFactory;
+import com.florist.infrastructure.persistence.ConnectionPool;
+import com.florist.infrastructure.persistence.DatabaseConnection;
+import com.florist.infrastructure.persistence.SchemaMigrator;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maintenance commands run from the command line instead of the UI, e.g.
+ * {@code run.ps1 --restore latest}. The command runs once against the
+ * configured database, then the process exits.
+ * <p>
+ * A main class of its own: launching {@link MainApp} starts the JavaFX
+ * toolkit before its main method runs, which needs a display.
+ * <p>
+ * Restoring replaces the shared database: close PetalSuite on the other
+ * terminals first. Imports can run while they are open.
+ */
+public final class AdminCommand {
+
+    private static final String USAGE = "Usage:\n" +
+            "  --restore <backup suffix | latest>   replace the database with a backup\n" +
+            "  --import <suppliers> <flowers> <sales>\n" +
+            "                                       add the rows of CSV files, '-' skips a file\n" +
+            "  --merge-import <source> <suppliers> <flowers> <sales>\n" +
+            "                                       merge CSV files into the rows imported before\n" +
+            "                                       from the same source, '-' skips a file";
+
+    private AdminCommand() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @return process exit code
+     */
+    public static int run(String[] args) {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        try {
+            AppConfig.getInstance();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        try {
+            DatabaseConnection.getConnection();
+            new SchemaMigrator().migrate();
+            return execute(args[0], Arrays.copyOfRange(args, 1, args.length));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (Exception e) {
+            System.err.println("[COMMAND] " + args[0] + " failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            ConnectionPool.shutdown();
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static int execute(String command, String[] operands) throws Exception {
+        ServiceFactory factory = ServiceFactory.getInstance();
+        switch (command) {
+            case "--restore" -> {
+                expectOperands(command, operands, 1);
+                BackupService backupService = factory.getBackupService();
+                long start = System.nanoTime();
+                long rows = "latest".equals(operands[0])
+                        ? backupService.restoreLatest()
+                        : backupService.bulkRestore(operands[0]);
+                System.out.printf("[COMMAND] Restored %d rows in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+                return 0;
+            }
+            case "--import" -> {
+                expectOperands(command, operands, 3);
+                return report(factory.getImportService().importFiles(file(operands[0]), file(operands[1]),
+                        file(operands[2])));
+            }
+            case "--merge-import" -> {
+                expectOperands(command, operands, 4);
+                return report(factory.getImportService().mergeFiles(operands[0], file(operands[1]),
+                        file(operands[2]), file(operands[3])));
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    /**
+     * The named CSV file, or null for "-".
+     */
+    private static File file(String operand) {
+        if ("-".equals(operand)) {
+            return null;
+        }
+        File file = new File(operand);
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("No such file: " + operand);
+        }
+        return file;
+    }
+
+    /**
+     * Exit code of an import: 0 when every row was taken, 3 when some were rejected.
+     */
+    private static int report(List<ImportResult> results) {
+        boolean rejected = false;
+        for (ImportResult result : results) {
+            rejected |= result.rowsRejected() > 0;
+        }
+        return rejected ? 3 : 0;
+    }
+
+    private static void expectOperands(String command, String[] operands, int count) {
+        if (operands.length != count) {
+            throw new IllegalArgumentException(command + " takes " + count + " argument(s), got "
+                    + operands.length);
+        }
+    }
+}
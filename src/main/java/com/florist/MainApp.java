@@ -1,9 +1,17 @@
 package com.florist;
 
+import com.florist.infrastructure.persistence.ConnectionPool;
 import com.florist.infrastructure.persistence.DatabaseConnection;
-import com.florist.infrastructure.persistence.DatabaseInitializer;
+import com.florist.infrastructure.persistence.SchemaMigrator;
+import com.florist.config.AppConfig;
 import com.florist.config.ServiceFactory;
 import com.florist.threads.BackgroundTaskManager;
+import com.florist.config.TerminalIdentity;
+import com.florist.threads.ChangeSyncService;
+import com.florist.threads.DeliveryInboxWatcher;
+import com.florist.threads.LanInvalidationService;
+import com.florist.threads.LeaderElection;
+import com.florist.threads.RemoteChangeFilter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -17,10 +25,22 @@ import javafx.stage.Stage;
 public class MainApp extends Application {
 
     private BackgroundTaskManager backgroundTaskManager;
+    private LeaderElection leaderElection;
+    private ChangeSyncService changeSyncService;
+    private LanInvalidationService lanInvalidationService;
+    private DeliveryInboxWatcher deliveryInboxWatcher;
 
     @Override
     public void start(Stage primaryStage) {
         try {
+            // Read the settings before anything depends on them
+            try {
+                AppConfig.getInstance().startWatching();
+            } catch (IllegalStateException e) {
+                showConfigurationError(e.getMessage());
+                return;
+            }
+
             // Attempt to establish database connection
             try {
                 DatabaseConnection.getConnection();
@@ -29,19 +49,27 @@ public class MainApp extends Application {
                 return;
             }
 
-            // Initialize database schema
-            DatabaseInitializer.initializeDatabase();
-
-            // Run database migration for severity column
-            runDatabaseMigration();
+            // Bring the database schema up to date
+            new SchemaMigrator().migrate();
 
             // Run inventory checks
             ServiceFactory.getInstance().getInventoryService().checkAllAlerts();
 
             // Start background tasks (Phase 6: Threads & Concurrence)
-            backgroundTaskManager = new BackgroundTaskManager();
+            // Only the elected terminal runs them when several tills share the database
+            leaderElection = new LeaderElection("background-jobs");
+            leaderElection.start();
+            backgroundTaskManager = new BackgroundTaskManager(leaderElection);
             backgroundTaskManager.startAutoBackup();
             backgroundTaskManager.startAlertMonitoring();
+            backgroundTaskManager.startTombstonePruning();
+            backgroundTaskManager.startMetricsReport();
+
+            // Pick up changes made by other terminals
+            startTerminalSync();
+
+            // Receive supplier delivery files dropped into the inbox
+            startDeliveryInbox();
 
             // Load main UI
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainView.fxml"));
@@ -65,6 +93,51 @@ public class MainApp extends Application {
         }
     }
 
+    /**
+     * Starts cross-terminal change propagation: LAN broadcast for low
+     * latency, database polling as the safety net.
+     */
+    private void startTerminalSync() {
+        ServiceFactory factory = ServiceFactory.getInstance();
+        RemoteChangeFilter changeFilter = new RemoteChangeFilter();
+
+        changeSyncService = new ChangeSyncService(factory.getChangeTrackingRepository(),
+                factory.getEventBus(), changeFilter, AppConfig.SYNC_INTERVAL_MILLIS.get());
+        changeSyncService.start();
+
+        if (AppConfig.LAN_ENABLED.get()) {
+            lanInvalidationService = new LanInvalidationService(factory.getEventBus(),
+                    factory.getChangeTrackingRepository(), changeFilter, TerminalIdentity.getUuid());
+            try {
+                lanInvalidationService.start(AppConfig.LAN_GROUP.get(), AppConfig.LAN_PORT.get(), null);
+            } catch (Exception e) {
+                // Polling still propagates changes, only slower
+                System.err.println("⚠ LAN invalidation unavailable: " + e.getMessage());
+                lanInvalidationService.shutdown();
+                lanInvalidationService = null;
+            }
+        }
+    }
+
+    /**
+     * Starts watching the delivery inbox. The shop runs without it if the
+     * directory cannot be watched.
+     */
+    private void startDeliveryInbox() {
+        if (!AppConfig.DELIVERIES_ENABLED.get()) {
+            return;
+        }
+        deliveryInboxWatcher = new DeliveryInboxWatcher(ServiceFactory.getInstance().getDeliveryService(),
+                java.nio.file.Paths.get(AppConfig.DELIVERIES_INBOX.get()), AppConfig.DELIVERIES_SETTLE_MILLIS.get());
+        try {
+            deliveryInboxWatcher.start();
+        } catch (Exception e) {
+            System.err.println("⚠ Delivery inbox unavailable: " + e.getMessage());
+            deliveryInboxWatcher.shutdown();
+            deliveryInboxWatcher = null;
+        }
+    }
+
     /**
      * Shows a database error dialog.
      */
@@ -77,43 +150,49 @@ public class MainApp extends Application {
                 "Please check:\n" +
                         "1. MySQL is running\n" +
                         "2. Database 'florist_db' exists\n" +
-                        "3. Credentials in DatabaseConnection.java are correct\n" +
-                        "4. Schema.sql script has been executed\n\n" +
-                        "Command: mysql -u root -p florist_db < src/main/resources/schema.sql");
+                        "3. The db.* settings in " + AppConfig.FILE_NAME + " are correct\n\n" +
+                        "Command: mysql -u root -p -e \"CREATE DATABASE florist_db CHARACTER SET utf8mb4\"\n" +
+                        "Tables are created on the next launch.");
         alert.showAndWait();
         System.exit(1);
     }
 
     /**
-     * Runs database migration to add severity column if it doesn't exist.
+     * Shows the invalid settings and exits.
      */
-    private void runDatabaseMigration() {
-        try {
-            java.sql.Connection conn = DatabaseConnection.getConnection();
-            java.sql.Statement stmt = conn.createStatement();
-
-            String sql = "ALTER TABLE stock_alerts " +
-                    "ADD COLUMN IF NOT EXISTS severity VARCHAR(10) DEFAULT 'WARNING' " +
-                    "COMMENT 'DANGER or WARNING' AFTER alert_type";
-
-            stmt.executeUpdate(sql);
-            System.out.println("✓ Database migration: severity column added/verified");
-
-            stmt.close();
-        } catch (Exception e) {
-            System.err.println("⚠ Database migration warning: " + e.getMessage());
-            // Don't fail the app if migration fails - column might already exist
-        }
+    private void showConfigurationError(String message) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
+                javafx.scene.control.Alert.AlertType.ERROR);
+        alert.setTitle("Configuration Error");
+        alert.setHeaderText("Invalid settings in " + AppConfig.FILE_NAME);
+        alert.setContentText(message);
+        alert.showAndWait();
+        System.exit(1);
     }
 
     /**
      * Gracefully shutdown the application.
      */
     private void shutdown() {
+        if (deliveryInboxWatcher != null) {
+            deliveryInboxWatcher.shutdown();
+        }
+        if (lanInvalidationService != null) {
+            lanInvalidationService.shutdown();
+        }
+        if (changeSyncService != null) {
+            changeSyncService.shutdown();
+        }
         if (backgroundTaskManager != null) {
             backgroundTaskManager.shutdown();
         }
+        if (leaderElection != null) {
+            leaderElection.shutdown();
+        }
+        ServiceFactory.getInstance().getEventBus().shutdown();
+        ConnectionPool.shutdown();
         DatabaseConnection.closeConnection();
+        AppConfig.getInstance().shutdown();
     }
 
     @Override
@@ -0,0 +1,12 @@
+package com.florist.application.event;
+
+/**
+ * Published when unresolved alerts of a flower are resolved or cleared
+ * during reconciliation.
+ */
+public record AlertClearedEvent(int flowerId, String alertType, int count, boolean remote) implements DomainEvent {
+
+    public AlertClearedEvent(int flowerId, String alertType, int count) {
+        this(flowerId, alertType, count, false);
+    }
+}
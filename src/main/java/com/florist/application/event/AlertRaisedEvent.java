@@ -0,0 +1,13 @@
+package com.florist.application.event;
+
+import com.florist.model.StockAlert;
+
+/**
+ * Published when a new stock alert has been generated.
+ */
+public record AlertRaisedEvent(StockAlert alert, boolean remote) implements DomainEvent {
+
+    public AlertRaisedEvent(StockAlert alert) {
+        this(alert, false);
+    }
+}
@@ -0,0 +1,15 @@
+package com.florist.application.event;
+
+/**
+ * Marker interface for domain events published on the {@link DomainEventBus}.
+ */
+public interface DomainEvent {
+
+    /**
+     * Tells whether the change was made by another terminal and picked up
+     * by synchronization, rather than by this instance.
+     *
+     * @return true for changes made elsewhere
+     */
+    boolean remote();
+}
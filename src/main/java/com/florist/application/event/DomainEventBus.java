@@ -0,0 +1,216 @@
+package com.florist.application.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-process bus for domain events.
+ * Events are written into a lock-free, multi-producer ring buffer. Every
+ * subscriber runs on its own daemon thread with its own read sequence and
+ * receives events in batches, so side effects (alert reconciliation, UI
+ * updates, ...) stay off the publisher's critical path.
+ */
+public class DomainEventBus {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final DomainEvent[] entries;
+    // Sequence last published into each slot; a slot is readable once it holds the expected sequence
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public DomainEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus with the given ring buffer capacity.
+     *
+     * @param capacity number of slots, must be a power of two
+     */
+    public DomainEventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.entries = new DomainEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publishes an event to all current subscribers.
+     * Blocks only if the slowest subscriber is a full ring behind.
+     *
+     * @param event the event to publish
+     */
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            return;
+        }
+
+        long sequence = cursor.incrementAndGet();
+        awaitCapacity(sequence);
+
+        int index = (int) (sequence & mask);
+        entries[index] = event;
+        published.set(index, sequence);
+
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+        }
+    }
+
+    /**
+     * Subscribes to every event.
+     *
+     * @param name    subscriber name, used for the consumer thread
+     * @param handler receives non-empty batches of events in publish order
+     * @return handle to cancel the subscription
+     */
+    public Subscription subscribe(String name, Consumer<List<DomainEvent>> handler) {
+        return subscribe(name, event -> true, handler);
+    }
+
+    /**
+     * Subscribes to the events accepted by a filter.
+     *
+     * @param name    subscriber name, used for the consumer thread
+     * @param filter  selects the events to deliver
+     * @param handler receives non-empty batches of events in publish order
+     * @return handle to cancel the subscription
+     */
+    public Subscription subscribe(String name, Predicate<DomainEvent> filter,
+            Consumer<List<DomainEvent>> handler) {
+        Subscriber subscriber = new Subscriber(name, filter, handler, cursor.get());
+        subscribers.add(subscriber);
+        subscriber.thread.start();
+        return subscriber;
+    }
+
+    /**
+     * Stops all subscribers after they have drained the events already published.
+     */
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.cancel();
+        }
+    }
+
+    private void awaitCapacity(long sequence) {
+        long wrapPoint = sequence - entries.length;
+        int spins = 0;
+        while (wrapPoint > minimumProcessed(sequence)) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+    }
+
+    private long minimumProcessed(long defaultValue) {
+        long minimum = defaultValue;
+        for (Subscriber subscriber : subscribers) {
+            minimum = Math.min(minimum, subscriber.processed.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Handle returned by {@link #subscribe}.
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final class Subscriber implements Subscription, Runnable {
+
+        private final String name;
+        private final Predicate<DomainEvent> filter;
+        private final Consumer<List<DomainEvent>> handler;
+        private final AtomicLong processed;
+        private final Thread thread;
+        private volatile boolean active = true;
+
+        Subscriber(String name, Predicate<DomainEvent> filter, Consumer<List<DomainEvent>> handler, long start) {
+            this.name = name;
+            this.filter = filter;
+            this.handler = handler;
+            this.processed = new AtomicLong(start);
+            this.thread = new Thread(this, "event-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                consume();
+            } finally {
+                // A stopped or dead consumer must never hold producers back
+                subscribers.remove(this);
+            }
+        }
+
+        private void consume() {
+            List<DomainEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            while (true) {
+                long next = processed.get() + 1;
+                long available = next - 1;
+                while (available - next + 1 < MAX_BATCH_SIZE
+                        && published.get((int) ((available + 1) & mask)) == available + 1) {
+                    available++;
+                }
+
+                if (available < next) {
+                    if (!active) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                for (long sequence = next; sequence <= available; sequence++) {
+                    DomainEvent event = entries[(int) (sequence & mask)];
+                    try {
+                        if (filter.test(event)) {
+                            batch.add(event);
+                        }
+                    } catch (Throwable t) {
+                        System.err.println("[EVENT-BUS] Subscriber '" + name + "' filter failed: " + t);
+                    }
+                }
+                // Slots are copied out, release them to producers before handling
+                processed.set(available);
+
+                if (!batch.isEmpty()) {
+                    try {
+                        handler.accept(batch);
+                    } catch (Throwable t) {
+                        System.err.println("[EVENT-BUS] Subscriber '" + name + "' failed: " + t);
+                    }
+                    batch.clear();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.florist.application.event;
+
+import com.florist.model.Flower;
+
+/**
+ * Published when a flower is created, updated or deleted.
+ * For deletions only the flower ID is meaningful.
+ */
+public record FlowerUpdatedEvent(int flowerId, Flower flower, ChangeType changeType, boolean remote)
+        implements DomainEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static FlowerUpdatedEvent created(Flower flower) {
+        return new FlowerUpdatedEvent(flower.getId(), flower, ChangeType.CREATED, false);
+    }
+
+    public static FlowerUpdatedEvent updated(Flower flower) {
+        return new FlowerUpdatedEvent(flower.getId(), flower, ChangeType.UPDATED, false);
+    }
+
+    public static FlowerUpdatedEvent deleted(int flowerId) {
+        return new FlowerUpdatedEvent(flowerId, null, ChangeType.DELETED, false);
+    }
+}
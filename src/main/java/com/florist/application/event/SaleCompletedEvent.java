@@ -0,0 +1,13 @@
+package com.florist.application.event;
+
+import com.florist.model.Sale;
+
+/**
+ * Published after a sale has been recorded and its stock decremented.
+ */
+public record SaleCompletedEvent(Sale sale, boolean remote) implements DomainEvent {
+
+    public SaleCompletedEvent(Sale sale) {
+        this(sale, false);
+    }
+}
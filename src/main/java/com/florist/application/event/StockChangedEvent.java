@@ -0,0 +1,11 @@
+package com.florist.application.event;
+
+/**
+ * Published when the stock quantity of a flower changes.
+ */
+public record StockChangedEvent(int flowerId, int newQuantity, boolean remote) implements DomainEvent {
+
+    public StockChangedEvent(int flowerId, int newQuantity) {
+        this(flowerId, newQuantity, false);
+    }
+}
@@ -1,5 +1,7 @@
 package com.florist.application.service;
 
+import com.florist.application.event.AlertClearedEvent;
+import com.florist.application.event.DomainEventBus;
 import com.florist.domain.repository.StockAlertRepository;
 import com.florist.model.StockAlert;
 
@@ -11,9 +13,11 @@ import java.util.List;
 public class AlertService {
 
     private final StockAlertRepository alertRepository;
+    private final DomainEventBus eventBus;
 
-    public AlertService(StockAlertRepository repository) {
+    public AlertService(StockAlertRepository repository, DomainEventBus eventBus) {
         this.alertRepository = repository;
+        this.eventBus = eventBus;
     }
 
     public List<StockAlert> getAllAlerts() {
@@ -25,7 +29,12 @@ public class AlertService {
     }
 
     public boolean resolveAlert(int id) {
-        return alertRepository.markResolved(id);
+        StockAlert alert = alertRepository.findById(id).orElse(null);
+        boolean resolved = alertRepository.markResolved(id);
+        if (resolved && alert != null) {
+            eventBus.publish(new AlertClearedEvent(alert.getFlowerId(), alert.getAlertType(), 1));
+        }
+        return resolved;
     }
 
     public int getUnresolvedCount() {
@@ -0,0 +1,309 @@
+package com.florist.application.service;
+
+import com.florist.domain.repository.ChangeTrackingRepository.Watermark;
+import com.florist.infrastructure.persistence.BackupRestorer;
+import com.florist.infrastructure.persistence.StreamingBackupWriter;
+import com.florist.infrastructure.persistence.StreamingBackupWriter.BackupResult;
+import com.florist.io.BackupManifest;
+import com.florist.io.BackupManifest.BackupType;
+import com.florist.io.BackupManifest.Entry;
+import com.florist.io.ExportFormat;
+import com.florist.io.SnapshotFormat;
+import com.florist.io.StandardExportFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Application service for backup chains.
+ * A chain starts with a full backup, written as a binary snapshot of all
+ * tables, and continues with CSV incremental backups of the rows changed
+ * since the previous one. Every few backups a differential backup of all
+ * changes since the full one is taken instead, so a restore replays at most
+ * a handful of files. A new chain is started once a day and old chains are
+ * removed as a whole. Each backup can also be written in further formats
+ * as feeds for other tools.
+ */
+public class BackupService {
+
+    public static final String DEFAULT_DIRECTORY = "backups";
+
+    /** A new full backup is taken once the chain is this old */
+    public static final Duration FULL_BACKUP_INTERVAL = Duration.ofDays(1);
+    /** Every n-th backup of a chain is differential */
+    public static final int DIFFERENTIAL_EVERY = 8;
+    /** Number of chains kept by the retention policy unless configured otherwise */
+    public static final int DEFAULT_CHAINS_TO_KEEP = 7;
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final StreamingBackupWriter backupWriter;
+    private final BackupRestorer restorer;
+    private final BackupManifest manifest;
+    private final File directory;
+    private final boolean compressSnapshots;
+    private final List<ExportFormat> feedFormats;
+    private final IntSupplier chainsToKeep;
+
+    /**
+     * @param feedFormats  extra formats every backup is also written in, for
+     *                     other tools to pick up; these files are not restored
+     * @param chainsToKeep number of chains kept, read at every backup
+     */
+    public BackupService(StreamingBackupWriter backupWriter, BackupRestorer restorer, File directory,
+            boolean compressSnapshots, List<ExportFormat> feedFormats, IntSupplier chainsToKeep) {
+        this.backupWriter = backupWriter;
+        this.restorer = restorer;
+        this.directory = directory;
+        this.compressSnapshots = compressSnapshots;
+        this.feedFormats = List.copyOf(feedFormats);
+        this.chainsToKeep = chainsToKeep;
+        this.manifest = new BackupManifest(directory);
+    }
+
+    /**
+     * Takes the next backup of the current chain, or starts a new chain,
+     * then applies the retention policy.
+     *
+     * @return manifest entry of the backup taken
+     */
+    public synchronized Entry runScheduledBackup() throws SQLException, IOException {
+        directory.mkdirs();
+        List<Entry> entries = manifest.load();
+        List<Entry> chain = currentChain(entries);
+
+        BackupType type;
+        Entry base;
+        if (needsFullBackup(chain)) {
+            type = BackupType.FULL;
+            base = null;
+        } else if (chain.size() % DIFFERENTIAL_EVERY == 0) {
+            type = BackupType.DIFFERENTIAL;
+            base = chain.get(0);
+        } else {
+            type = BackupType.INCREMENTAL;
+            base = chain.get(chain.size() - 1);
+        }
+
+        String suffix = LocalDateTime.now().format(SUFFIX_FORMAT);
+        BackupResult result;
+        if (base == null) {
+            String extension = compressSnapshots ? SnapshotFormat.GZIP_EXTENSION : SnapshotFormat.EXTENSION;
+            result = backupWriter.snapshot(new File(directory, BackupManifest.SNAPSHOT_PREFIX + suffix + extension),
+                    compressSnapshots);
+            if (!feedFormats.isEmpty()) {
+                // Snapshots are binary, feeds of a full backup need a pass of their own
+                backupWriter.backup(directory, suffix, null, feedFormats);
+            }
+        } else {
+            Watermark since = new Watermark(base.watermarkTime(), base.saleId(), base.tombstoneId());
+            List<ExportFormat> formats = new ArrayList<>();
+            formats.add(StandardExportFormat.CSV);
+            for (ExportFormat format : feedFormats) {
+                if (format != StandardExportFormat.CSV) {
+                    formats.add(format);
+                }
+            }
+            result = backupWriter.backup(directory, suffix, since, formats);
+        }
+
+        Watermark watermark = result.watermark();
+        Entry entry = new Entry(suffix, type, type == BackupType.FULL ? suffix : chain.get(0).suffix(),
+                watermark.time(), watermark.saleId(), watermark.tombstoneId(), result.rows());
+        entries.add(entry);
+        applyRetention(entries);
+        manifest.save(entries);
+        return entry;
+    }
+
+    /**
+     * Restores the database to the most recent backup, through the bulk loader.
+     *
+     * @return number of rows applied
+     * @see #bulkRestore
+     */
+    public long restoreLatest() throws SQLException, IOException {
+        List<Entry> entries = manifest.load();
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("No backup to restore");
+        }
+        return bulkRestore(entries.get(entries.size() - 1).suffix());
+    }
+
+    /**
+     * Restores the database to the state captured by the given backup.
+     * Replays the chain's full backup, its latest differential backup up to
+     * the target, then the incremental backups after it.
+     *
+     * @param suffix suffix of the target backup
+     * @return number of rows applied
+     */
+    public synchronized long restore(String suffix) throws SQLException, IOException {
+        List<String> plan = restorePlan(manifest.load(), suffix);
+        long rows = restorer.restore(directory, plan);
+        System.out.println("[BACKUP] Restored " + rows + " rows from " + plan);
+        return rows;
+    }
+
+    /**
+     * Restores the database to the state captured by the given backup,
+     * feeding the full backup to MySQL's bulk loader. Much faster than
+     * {@link #restore} for large backups, but a failed bulk restore leaves
+     * the tables partly loaded.
+     *
+     * @param suffix suffix of the target backup
+     * @return number of rows applied
+     */
+    public synchronized long bulkRestore(String suffix) throws SQLException, IOException {
+        List<String> plan = restorePlan(manifest.load(), suffix);
+        long rows = restorer.bulkRestore(directory, plan);
+        System.out.println("[BACKUP] Bulk restored " + rows + " rows from " + plan);
+        return rows;
+    }
+
+    /**
+     * Lists the backups to replay to reach the target, full backup first.
+     */
+    static List<String> restorePlan(List<Entry> entries, String suffix) {
+        Entry target = null;
+        for (Entry entry : entries) {
+            if (entry.suffix().equals(suffix)) {
+                target = entry;
+            }
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown backup: " + suffix);
+        }
+
+        List<Entry> chain = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.chain().equals(target.chain())) {
+                chain.add(entry);
+            }
+            if (entry == target) {
+                break;
+            }
+        }
+        if (chain.get(0).type() != BackupType.FULL) {
+            throw new IllegalStateException("Full backup of chain " + target.chain() + " is missing");
+        }
+
+        // Incrementals before the latest differential are already contained in it
+        int start = 1;
+        for (int i = 1; i < chain.size(); i++) {
+            if (chain.get(i).type() == BackupType.DIFFERENTIAL) {
+                start = i;
+            }
+        }
+
+        List<String> plan = new ArrayList<>();
+        plan.add(chain.get(0).suffix());
+        for (int i = start; i < chain.size(); i++) {
+            plan.add(chain.get(i).suffix());
+        }
+        return plan;
+    }
+
+    private List<Entry> currentChain(List<Entry> entries) {
+        List<Entry> chain = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.type() == BackupType.FULL) {
+                chain.clear();
+            }
+            chain.add(entry);
+        }
+        return chain;
+    }
+
+    private boolean needsFullBackup(List<Entry> chain) {
+        if (chain.isEmpty() || chain.get(0).type() != BackupType.FULL) {
+            return true;
+        }
+        Entry full = chain.get(0);
+        if (full.files(directory).isEmpty()) {
+            // Chain is broken, it cannot be restored any more
+            return true;
+        }
+        return full.watermarkTime().plus(FULL_BACKUP_INTERVAL).isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Drops whole chains beyond the number to keep, together with their
+     * files and any stray backup files older than the oldest kept chain.
+     * Manual exports are never touched.
+     */
+    private void applyRetention(List<Entry> entries) {
+        List<String> chains = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.type() == BackupType.FULL) {
+                chains.add(entry.suffix());
+            }
+        }
+        if (chains.isEmpty()) {
+            return;
+        }
+
+        int firstKept = Math.max(0, chains.size() - chainsToKeep.getAsInt());
+        Set<String> kept = new HashSet<>(chains.subList(firstKept, chains.size()));
+        Set<String> keptFiles = new HashSet<>();
+        List<Entry> dropped = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (kept.contains(entry.chain())) {
+                for (File file : entry.files(directory)) {
+                    keptFiles.add(file.getName());
+                }
+            } else {
+                dropped.add(entry);
+            }
+        }
+        entries.removeAll(dropped);
+
+        for (Entry entry : dropped) {
+            for (File file : entry.files(directory)) {
+                if (file.delete()) {
+                    System.out.println("[AUTO-BACKUP] Deleted old backup: " + file.getName());
+                }
+            }
+        }
+
+        // Files of failed runs and of the old count-based backups
+        long oldestKept = Long.MAX_VALUE;
+        String oldestChain = chains.get(firstKept);
+        for (Entry entry : entries) {
+            if (entry.suffix().equals(oldestChain)) {
+                for (File file : entry.files(directory)) {
+                    oldestKept = Math.min(oldestKept, file.lastModified());
+                }
+            }
+        }
+        File[] strays = directory.listFiles((dir, name) -> (isExportFile(name) || name.contains(".psnap"))
+                && !name.startsWith("manual_") && !name.equals(BackupManifest.FILE_NAME)
+                && !keptFiles.contains(name));
+        if (strays == null || oldestKept == Long.MAX_VALUE) {
+            return;
+        }
+        for (File file : strays) {
+            if (file.lastModified() < oldestKept && file.delete()) {
+                System.out.println("[AUTO-BACKUP] Deleted stray backup: " + file.getName());
+            }
+        }
+    }
+
+    private static boolean isExportFile(String name) {
+        for (StandardExportFormat format : StandardExportFormat.values()) {
+            if (name.endsWith(format.getExtension())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.florist.application.service;
+
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.validation.FlowerValidator;
+import com.florist.application.validation.ValidationResult;
+import com.florist.domain.repository.FlowerRepository;
+import com.florist.domain.repository.FlowerRepository.DeliveryReceipt;
+import com.florist.io.FileImportService;
+import com.florist.model.Flower;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application service receiving supplier deliveries into stock.
+ * A delivery file lists flowers in the flower CSV format read by
+ * {@link FileImportService}; its ID column is ignored and may be left
+ * empty. Each file is received in one transaction.
+ */
+public class DeliveryService {
+
+    /**
+     * Outcome of receiving a delivery file.
+     *
+     * @param file      the delivery file
+     * @param lines     flower lines read from the file
+     * @param skipped   lines that failed validation
+     * @param created   flowers added to the catalogue
+     * @param restocked existing flowers whose stock was increased
+     * @param nanos     time taken
+     */
+    public record DeliveryResult(File file, int lines, int skipped, int created, int restocked, long nanos) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d lines, %d new flowers, %d restocked, %d skipped in %d ms",
+                    file.getName(), lines, created, restocked, skipped, nanos / 1_000_000);
+        }
+    }
+
+    private final FlowerRepository flowerRepository;
+    private final FlowerValidator validator;
+    private final FileImportService fileImportService;
+    private final DomainEventBus eventBus;
+
+    public DeliveryService(FlowerRepository flowerRepository, FlowerValidator validator,
+            FileImportService fileImportService, DomainEventBus eventBus) {
+        this.flowerRepository = flowerRepository;
+        this.validator = validator;
+        this.fileImportService = fileImportService;
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Reads a delivery file and adds its flowers to stock.
+     *
+     * @param file the delivery file
+     * @return what the delivery changed
+     * @throws IOException if the file cannot be read
+     */
+    public DeliveryResult receiveDelivery(File file) throws IOException {
+        long start = System.nanoTime();
+        // Lines that cannot be parsed are logged and left out by the import service
+        List<Flower> parsed = fileImportService.importFlowersFromCsv(file.getPath());
+
+        List<Flower> valid = new ArrayList<>(parsed.size());
+        for (Flower flower : parsed) {
+            ValidationResult result = validator.validate(flower);
+            if (result.isValid()) {
+                flower.setId(0);
+                valid.add(flower);
+            } else {
+                System.err.println("[DELIVERY] Skipped " + flower.getName() + " in " + file.getName() + ": "
+                        + result.getErrorMessage());
+            }
+        }
+
+        DeliveryReceipt receipt = flowerRepository.receiveDelivery(valid);
+
+        // Alerts and open views catch up asynchronously
+        for (Flower flower : receipt.created()) {
+            eventBus.publish(FlowerUpdatedEvent.created(flower));
+        }
+        for (Flower flower : receipt.restocked()) {
+            eventBus.publish(FlowerUpdatedEvent.updated(flower));
+        }
+
+        return new DeliveryResult(file, parsed.size(), parsed.size() - valid.size(), receipt.created().size(),
+                receipt.restocked().size(), System.nanoTime() - start);
+    }
+}
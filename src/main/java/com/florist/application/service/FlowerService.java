@@ -1,5 +1,8 @@
 package com.florist.application.service;
 
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.event.StockChangedEvent;
 import com.florist.application.validation.FlowerValidator;
 import com.florist.application.validation.ValidationResult;
 import com.florist.domain.repository.FlowerRepository;
@@ -15,12 +18,12 @@ public class FlowerService {
 
     private final FlowerRepository flowerRepository;
     private final FlowerValidator validator;
-    private final InventoryService inventoryService;
+    private final DomainEventBus eventBus;
 
-    public FlowerService(FlowerRepository repository, FlowerValidator validator, InventoryService inventoryService) {
+    public FlowerService(FlowerRepository repository, FlowerValidator validator, DomainEventBus eventBus) {
         this.flowerRepository = repository;
         this.validator = validator;
-        this.inventoryService = inventoryService;
+        this.eventBus = eventBus;
     }
 
     /**
@@ -40,8 +43,8 @@ public class FlowerService {
         // Save
         Flower saved = flowerRepository.save(flower);
 
-        // Check for alerts after creation
-        inventoryService.checkAndAlertAfterSale(saved, InventoryService.DEFAULT_LOW_STOCK_THRESHOLD);
+        // Alerts are checked asynchronously by InventoryService
+        eventBus.publish(FlowerUpdatedEvent.created(saved));
 
         return saved;
     }
@@ -63,8 +66,8 @@ public class FlowerService {
         // Update
         Flower updated = flowerRepository.save(flower);
 
-        // Check for alerts after update
-        inventoryService.checkAndAlertAfterSale(updated, InventoryService.DEFAULT_LOW_STOCK_THRESHOLD);
+        // Alerts are checked asynchronously by InventoryService
+        eventBus.publish(FlowerUpdatedEvent.updated(updated));
 
         return updated;
     }
@@ -76,7 +79,11 @@ public class FlowerService {
      * @return true if deleted successfully
      */
     public boolean deleteFlower(int id) {
-        return flowerRepository.delete(id);
+        boolean deleted = flowerRepository.delete(id);
+        if (deleted) {
+            eventBus.publish(FlowerUpdatedEvent.deleted(id));
+        }
+        return deleted;
     }
 
     /**
@@ -88,7 +95,7 @@ public class FlowerService {
     public int deleteFlowers(List<Integer> ids) {
         int deleted = 0;
         for (int id : ids) {
-            if (flowerRepository.delete(id)) {
+            if (deleteFlower(id)) {
                 deleted++;
             }
         }
@@ -136,9 +143,8 @@ public class FlowerService {
         boolean updated = flowerRepository.updateStock(id, quantity);
 
         if (updated) {
-            // Check for alerts after stock update
-            Flower flower = getFlowerById(id);
-            inventoryService.checkAndAlertAfterSale(flower, InventoryService.DEFAULT_LOW_STOCK_THRESHOLD);
+            // Alerts are checked asynchronously by InventoryService
+            eventBus.publish(new StockChangedEvent(id, quantity));
         }
 
         return updated;
@@ -0,0 +1,285 @@
+package com.florist.application.service;
+
+import com.florist.infrastructure.persistence.ImportBatchWriter;
+import com.florist.io.ParallelCsvReader;
+import com.florist.io.ParallelCsvReader.ImportBatch;
+import com.florist.io.ParallelCsvReader.ImportSink;
+import com.florist.io.ParallelCsvReader.ReadResult;
+import com.florist.io.ParallelCsvReader.RowMapper;
+import com.florist.io.RejectedRowsReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports one CSV file through four stages, each on its own threads:
+ * parse → validate → remap IDs → batched insert.
+ * Stages hand batches to each other through small bounded queues, so a
+ * slow database slows the parser down instead of filling memory. Rows
+ * rejected by any stage are written to a {@link RejectedRowsReport} next
+ * to the file and the import goes on.
+ */
+public class ImportPipeline<T> {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Table-specific behaviour of the stages.
+     */
+    public interface Stages<T> {
+
+        /**
+         * @return null when the row is valid, otherwise why it is not
+         */
+        String validate(T row);
+
+        /**
+         * Points the row's references at the IDs its parents got in this run.
+         *
+         * @return null when the row can be inserted, otherwise why it cannot
+         */
+        String remap(T row);
+
+        /**
+         * Called with the database ID of every row written, or found unchanged by a merge.
+         */
+        void inserted(int fileId, int newId);
+
+        /**
+         * Called for every row rejected after parsing.
+         */
+        void rejected(T row);
+    }
+
+    /**
+     * Outcome of an import.
+     *
+     * @param file           imported file
+     * @param rowsRead       data rows found in the file
+     * @param rowsInserted   rows added to the database
+     * @param rowsUpdated    rows of an earlier merge overwritten
+     * @param rowsUnchanged  rows of an earlier merge left as they were
+     * @param rowsRejected   rows left out, listed in the report
+     * @param bytes          size of the file
+     * @param nanos          wall-clock time of the whole import
+     * @param rejectedReport report file, or null if nothing was rejected
+     */
+    public record ImportResult(File file, long rowsRead, long rowsInserted, long rowsUpdated, long rowsUnchanged,
+            long rowsRejected, long bytes, long nanos, File rejectedReport) {
+
+        public double rowsPerSecond() {
+            return nanos == 0 ? 0 : rowsRead * 1e9 / nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            String merged = rowsUpdated + rowsUnchanged > 0
+                    ? String.format(", %d updated, %d unchanged", rowsUpdated, rowsUnchanged) : "";
+            return String.format("%s: %d rows read, %d inserted%s, %d rejected in %.1f s (%.0f rows/s, %.1f MB/s)%s",
+                    file.getName(), rowsRead, rowsInserted, merged, rowsRejected, nanos / 1e9, rowsPerSecond(),
+                    megabytesPerSecond(), rejectedReport != null ? ", see " + rejectedReport.getName() : "");
+        }
+    }
+
+    private final ParallelCsvReader reader;
+    private final RowMapper<T> mapper;
+    private final ImportBatchWriter<T> writer;
+    private final Stages<T> stages;
+    private final int queueCapacity;
+
+    private final ImportBatch<T> endOfFile = new ImportBatch<>(List.of(), new long[0]);
+    private volatile Throwable failure;
+
+    public ImportPipeline(ParallelCsvReader reader, RowMapper<T> mapper, ImportBatchWriter<T> writer,
+            Stages<T> stages, int queueCapacity) {
+        this.reader = reader;
+        this.mapper = mapper;
+        this.writer = writer;
+        this.stages = stages;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Imports the file. Rows already committed stay in the database when
+     * the import fails halfway.
+     */
+    public ImportResult run(File file) throws IOException, SQLException {
+        long start = System.nanoTime();
+        BlockingQueue<ImportBatch<T>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportBatch<T>> validated = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportBatch<T>> remapped = new ArrayBlockingQueue<>(queueCapacity);
+
+        ExecutorService stageThreads = Executors.newFixedThreadPool(3, r -> {
+            Thread thread = new Thread(r, "import-stage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (RejectedRowsReport report = new RejectedRowsReport(RejectedRowsReport.besides(file));
+                ImportBatchWriter<T> batchWriter = writer) {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(stageThreads.submit(() -> runStage(() -> filter(parsed, validated, "validate", report))));
+            futures.add(stageThreads.submit(() -> runStage(() -> filter(validated, remapped, "remap", report))));
+            futures.add(stageThreads.submit(() -> runStage(() -> insert(remapped, report))));
+
+            ReadResult read = null;
+            try {
+                read = reader.read(file.toPath(), mapper, new ImportSink<>() {
+                    @Override
+                    public void accept(ImportBatch<T> batch) throws InterruptedException {
+                        put(parsed, batch);
+                    }
+
+                    @Override
+                    public void reject(long rowNumber, String line, String reason) {
+                        report.reject(rowNumber, "parse", reason, line);
+                    }
+                });
+                put(parsed, endOfFile);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                fail(e);
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                    break;
+                }
+            }
+            rethrowFailure();
+
+            return new ImportResult(file, read.rows() + read.rejected(), batchWriter.getInserted(),
+                    batchWriter.getUpdated(), batchWriter.getUnchanged(), report.getCount(), read.bytes(),
+                    System.nanoTime() - start, report.getFile());
+        } finally {
+            stageThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Passes on the rows of each batch that pass the stage's check.
+     */
+    private void filter(BlockingQueue<ImportBatch<T>> in, BlockingQueue<ImportBatch<T>> out, String stage,
+            RejectedRowsReport report) throws InterruptedException {
+        while (true) {
+            ImportBatch<T> batch = take(in);
+            if (batch == endOfFile) {
+                put(out, endOfFile);
+                return;
+            }
+
+            List<T> kept = new ArrayList<>(batch.size());
+            long[] rowNumbers = new long[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                T row = batch.rows().get(i);
+                String reason = stage.equals("validate") ? stages.validate(row) : stages.remap(row);
+                if (reason == null) {
+                    rowNumbers[kept.size()] = batch.rowNumbers()[i];
+                    kept.add(row);
+                } else {
+                    report.reject(batch.rowNumbers()[i], stage, reason, null);
+                    stages.rejected(row);
+                }
+            }
+            if (!kept.isEmpty()) {
+                put(out, new ImportBatch<>(kept, Arrays.copyOf(rowNumbers, kept.size())));
+            }
+        }
+    }
+
+    private void insert(BlockingQueue<ImportBatch<T>> in, RejectedRowsReport report)
+            throws InterruptedException, SQLException {
+        while (true) {
+            ImportBatch<T> batch = take(in);
+            if (batch == endOfFile) {
+                writer.finish();
+                return;
+            }
+            writer.write(batch.rows(), stages::inserted, (index, reason) -> {
+                report.reject(batch.rowNumbers()[index], "insert", reason, null);
+                stages.rejected(batch.rows().get(index));
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private Void runStage(Stage stage) {
+        try {
+            stage.run();
+        } catch (CancellationException e) {
+            // Another stage failed first
+        } catch (Exception e) {
+            fail(e);
+        }
+        return null;
+    }
+
+    private void put(BlockingQueue<ImportBatch<T>> queue, ImportBatch<T> batch) throws InterruptedException {
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    private ImportBatch<T> take(BlockingQueue<ImportBatch<T>> queue) throws InterruptedException {
+        ImportBatch<T> batch;
+        while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            checkFailure();
+        }
+        return batch;
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new CancellationException("Import aborted");
+        }
+    }
+
+    private synchronized void fail(Throwable cause) {
+        if (failure == null && !(cause instanceof CancellationException)) {
+            failure = cause;
+        }
+    }
+
+    private void rethrowFailure() throws IOException, SQLException {
+        Throwable cause = failure;
+        if (cause == null) {
+            return;
+        }
+        if (cause instanceof SQLException e) {
+            throw e;
+        } else if (cause instanceof IOException e) {
+            throw e;
+        } else if (cause instanceof RuntimeException e) {
+            throw e;
+        } else if (cause instanceof Error e) {
+            throw e;
+        }
+        throw new IOException("Import failed", cause);
+    }
+}
@@ -0,0 +1,224 @@
+package com.florist.application.service;
+
+import com.florist.application.service.ImportPipeline.ImportResult;
+import com.florist.application.service.ImportPipeline.Stages;
+import com.florist.application.validation.FlowerValidator;
+import com.florist.application.validation.SaleValidator;
+import com.florist.application.validation.SupplierValidator;
+import com.florist.application.validation.ValidationResult;
+import com.florist.infrastructure.persistence.ImportBatchWriter;
+import com.florist.infrastructure.persistence.ImportIdMap;
+import com.florist.infrastructure.persistence.ImportIdMap.Entity;
+import com.florist.io.FileImportService;
+import com.florist.io.ParallelCsvReader;
+import com.florist.model.Flower;
+import com.florist.model.Sale;
+import com.florist.model.Supplier;
+import com.florist.util.IntIntMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application service for bulk CSV imports into the database.
+ * Files are imported in foreign key order through an {@link ImportPipeline}.
+ * The supplier and flower IDs of later files are pointed at the rows the
+ * earlier files became. An ID that was not imported is kept as is, since
+ * it names an existing row.
+ * <p>
+ * {@link #importFiles} always adds new rows. {@link #mergeFiles} updates the
+ * rows imported before from the same source and skips unchanged ones, so
+ * merging a file again is a no-op.
+ * <p>
+ * Imported sales are history: they do not take stock from the flowers.
+ */
+public class ImportService {
+
+    // Marks a file ID whose row was rejected, database IDs are positive
+    private static final int REJECTED = -1;
+
+    private final FlowerValidator flowerValidator;
+    private final SaleValidator saleValidator;
+    private final SupplierValidator supplierValidator;
+    private final ParallelCsvReader reader;
+    private final int transactionSize;
+
+    public ImportService(FlowerValidator flowerValidator, SaleValidator saleValidator,
+            SupplierValidator supplierValidator, ParallelCsvReader reader, int transactionSize) {
+        this.flowerValidator = flowerValidator;
+        this.saleValidator = saleValidator;
+        this.supplierValidator = supplierValidator;
+        this.reader = reader;
+        this.transactionSize = transactionSize;
+    }
+
+    /**
+     * Imports the given files as new rows. Any file may be null to skip it.
+     *
+     * @return one result per imported file
+     */
+    public List<ImportResult> importFiles(File suppliers, File flowers, File sales) {
+        return run(null, suppliers, flowers, sales);
+    }
+
+    /**
+     * Merges the given files into the rows imported before from the same
+     * source. Any file may be null to skip it.
+     *
+     * @param source name identifying the data set, e.g. "backup-terminal-2"
+     * @return one result per imported file
+     */
+    public List<ImportResult> mergeFiles(String source, File suppliers, File flowers, File sales) {
+        return run(source, suppliers, flowers, sales);
+    }
+
+    private List<ImportResult> run(String source, File suppliers, File flowers, File sales) {
+        Run run = new Run(source);
+        List<ImportResult> results = new ArrayList<>();
+        if (suppliers != null) {
+            results.add(importFile(suppliers, FileImportService.SUPPLIER_MAPPER,
+                    writer(ImportBatchWriter.suppliers(transactionSize), source), run.supplierStages()));
+        }
+        if (flowers != null) {
+            results.add(importFile(flowers, FileImportService.FLOWER_MAPPER,
+                    writer(ImportBatchWriter.flowers(transactionSize), source), run.flowerStages()));
+        }
+        if (sales != null) {
+            results.add(importFile(sales, FileImportService.SALE_MAPPER,
+                    writer(ImportBatchWriter.sales(transactionSize), source), run.saleStages()));
+        }
+        return results;
+    }
+
+    private static <T> ImportBatchWriter<T> writer(ImportBatchWriter<T> writer, String source) {
+        return source != null ? writer.merging(source) : writer;
+    }
+
+    private <T> ImportResult importFile(File file, ParallelCsvReader.RowMapper<T> mapper,
+            ImportBatchWriter<T> writer, Stages<T> stages) {
+        try {
+            ImportResult result = new ImportPipeline<>(reader, mapper, writer, stages,
+                    ImportPipeline.DEFAULT_QUEUE_CAPACITY).run(file);
+            System.out.println("[IMPORT] " + result);
+            return result;
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to import " + file.getName(), e);
+        }
+    }
+
+    private static String errors(ValidationResult result) {
+        return result.isValid() ? null : result.getErrorMessage();
+    }
+
+    /**
+     * Translations from file IDs to database IDs for one import run.
+     * A file is imported only after the previous one has finished, so its
+     * remap stage reads maps that are no longer written; writes of the same
+     * file can come from several stages and are synchronized.
+     */
+    private class Run {
+        private final IntIntMap supplierIds;
+        private final IntIntMap flowerIds;
+
+        Run(String source) {
+            if (source != null) {
+                // Rows merged by earlier runs, for files that refer to them without being merged again
+                supplierIds = ImportIdMap.load(source, Entity.SUPPLIER).copyRowIds();
+                flowerIds = ImportIdMap.load(source, Entity.FLOWER).copyRowIds();
+            } else {
+                supplierIds = new IntIntMap();
+                flowerIds = new IntIntMap();
+            }
+        }
+
+        Stages<Supplier> supplierStages() {
+            return new Stages<>() {
+                @Override
+                public String validate(Supplier supplier) {
+                    return errors(supplierValidator.validate(supplier));
+                }
+
+                @Override
+                public String remap(Supplier supplier) {
+                    return null;
+                }
+
+                @Override
+                public void inserted(int fileId, int newId) {
+                    put(supplierIds, fileId, newId);
+                }
+
+                @Override
+                public void rejected(Supplier supplier) {
+                    put(supplierIds, supplier.getId(), REJECTED);
+                }
+            };
+        }
+
+        Stages<Flower> flowerStages() {
+            return new Stages<>() {
+                @Override
+                public String validate(Flower flower) {
+                    return errors(flowerValidator.validate(flower));
+                }
+
+                @Override
+                public String remap(Flower flower) {
+                    int supplierId = supplierIds.get(flower.getSupplierId(), flower.getSupplierId());
+                    if (supplierId == REJECTED) {
+                        return "Supplier " + flower.getSupplierId() + " was rejected";
+                    }
+                    flower.setSupplierId(supplierId);
+                    return null;
+                }
+
+                @Override
+                public void inserted(int fileId, int newId) {
+                    put(flowerIds, fileId, newId);
+                }
+
+                @Override
+                public void rejected(Flower flower) {
+                    put(flowerIds, flower.getId(), REJECTED);
+                }
+            };
+        }
+
+        Stages<Sale> saleStages() {
+            return new Stages<>() {
+                @Override
+                public String validate(Sale sale) {
+                    return errors(saleValidator.validate(sale));
+                }
+
+                @Override
+                public String remap(Sale sale) {
+                    int flowerId = flowerIds.get(sale.getFlowerId(), sale.getFlowerId());
+                    if (flowerId == REJECTED) {
+                        return "Flower " + sale.getFlowerId() + " was rejected";
+                    }
+                    sale.setFlowerId(flowerId);
+                    return null;
+                }
+
+                @Override
+                public void inserted(int fileId, int newId) {
+                }
+
+                @Override
+                public void rejected(Sale sale) {
+                }
+            };
+        }
+
+        private void put(IntIntMap ids, int fileId, int value) {
+            synchronized (ids) {
+                ids.put(fileId, value);
+            }
+        }
+    }
+}
@@ -1,41 +1,116 @@
 package com.florist.application.service;
 
+import com.florist.application.event.AlertClearedEvent;
+import com.florist.application.event.AlertRaisedEvent;
+import com.florist.application.event.DomainEvent;
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.event.StockChangedEvent;
 import com.florist.domain.repository.FlowerRepository;
 import com.florist.domain.repository.StockAlertRepository;
+import com.florist.infrastructure.metrics.MetricsRegistry;
+import com.florist.infrastructure.metrics.Timer;
 import com.florist.model.Flower;
 import com.florist.model.StockAlert;
 
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
 
 /**
  * Service for managing inventory and generating stock alerts.
  * REFACTORED: Now uses Repositories.
+ * Alert reconciliation after sales and flower edits runs asynchronously
+ * from {@link DomainEventBus} events, see {@link #onEvents(List)}.
  */
 public class InventoryService {
 
     private final FlowerRepository flowerRepository;
     private final StockAlertRepository alertRepository;
+    private final DomainEventBus eventBus;
+    private final IntSupplier lowStockThreshold;
+    private final Timer checkAllAlertsTimer;
+    private final Timer reconcileTimer;
 
     public static final int DEFAULT_LOW_STOCK_THRESHOLD = 2;
 
-    public InventoryService(FlowerRepository flowerRepository, StockAlertRepository alertRepository) {
+    /**
+     * @param lowStockThreshold quantity below which a flower is low on stock,
+     *                          read on every check so it can be changed at runtime
+     */
+    public InventoryService(FlowerRepository flowerRepository, StockAlertRepository alertRepository,
+            DomainEventBus eventBus, IntSupplier lowStockThreshold, MetricsRegistry metrics) {
         this.flowerRepository = flowerRepository;
         this.alertRepository = alertRepository;
+        this.eventBus = eventBus;
+        this.lowStockThreshold = lowStockThreshold;
+        this.checkAllAlertsTimer = metrics.timer("service.InventoryService.checkAllAlerts");
+        this.reconcileTimer = metrics.timer("service.InventoryService.onEvents");
     }
 
-    public int checkAllAlerts() {
-        List<Flower> flowers = flowerRepository.findAll();
-        for (Flower flower : flowers) {
-            recalculateAlerts(flower, DEFAULT_LOW_STOCK_THRESHOLD);
+    public int getLowStockThreshold() {
+        return lowStockThreshold.getAsInt();
+    }
+
+    /**
+     * Event bus handler: re-checks alerts for every flower touched by a batch.
+     * Each flower is reconciled once per batch, however many events it had.
+     * 
+     * @param events batch of stock and flower events
+     */
+    public void onEvents(List<DomainEvent> events) {
+        Set<Integer> touched = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof FlowerUpdatedEvent flowerEvent) {
+                if (flowerEvent.changeType() == FlowerUpdatedEvent.ChangeType.DELETED) {
+                    touched.remove(flowerEvent.flowerId());
+                } else {
+                    touched.add(flowerEvent.flowerId());
+                }
+            } else if (event instanceof StockChangedEvent stockEvent) {
+                touched.add(stockEvent.flowerId());
+            }
         }
-        return alertRepository.countUnresolved();
+
+        // Re-read each flower so the latest committed state wins
+        reconcileTimer.run(() -> {
+            int threshold = getLowStockThreshold();
+            for (int flowerId : touched) {
+                flowerRepository.findById(flowerId)
+                        .ifPresent(flower -> recalculateAlerts(flower, threshold));
+            }
+        });
+    }
+
+    /**
+     * Selects the events handled by {@link #onEvents(List)}.
+     * Remote changes are skipped: the terminal that made them already
+     * reconciled their alerts.
+     * 
+     * @param event the candidate event
+     * @return true if the event can affect alerts
+     */
+    public static boolean affectsAlerts(DomainEvent event) {
+        return !event.remote() && (event instanceof StockChangedEvent || event instanceof FlowerUpdatedEvent);
+    }
+
+    public int checkAllAlerts() {
+        return checkAllAlertsTimer.time(() -> {
+            List<Flower> flowers = flowerRepository.findAll();
+            int threshold = getLowStockThreshold();
+            for (Flower flower : flowers) {
+                recalculateAlerts(flower, threshold);
+            }
+            return alertRepository.countUnresolved();
+        });
     }
 
     public void recalculateAlerts(Flower flower, int threshold) {
         // 1. Clear existing unresolved alerts for this flower
-        alertRepository.deleteUnresolved(flower.getId(), "LOW_STOCK");
-        alertRepository.deleteUnresolved(flower.getId(), "EXPIRY");
+        clear(flower.getId(), "LOW_STOCK");
+        clear(flower.getId(), "EXPIRY");
 
         // 2. Re-check Low Stock condition
         if (flower.getQuantity() < threshold) {
@@ -63,7 +138,7 @@ public class InventoryService {
         alert.setGeneratedDate(LocalDate.now());
         alert.setResolved(false);
 
-        alertRepository.save(alert);
+        raise(alert);
     }
 
     private void generateExpiryAlert(Flower flower, int percentage) {
@@ -80,7 +155,19 @@ public class InventoryService {
         alert.setGeneratedDate(LocalDate.now());
         alert.setResolved(false);
 
-        alertRepository.save(alert);
+        raise(alert);
+    }
+
+    private void clear(int flowerId, String alertType) {
+        int cleared = alertRepository.deleteUnresolved(flowerId, alertType);
+        if (cleared > 0) {
+            eventBus.publish(new AlertClearedEvent(flowerId, alertType, cleared));
+        }
+    }
+
+    private void raise(StockAlert alert) {
+        StockAlert saved = alertRepository.save(alert);
+        eventBus.publish(new AlertRaisedEvent(saved));
     }
 
     public void checkAndAlertAfterSale(Flower flower, int threshold) {
@@ -1,9 +1,16 @@
 package com.florist.application.service;
 
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.SaleCompletedEvent;
+import com.florist.application.event.StockChangedEvent;
 import com.florist.application.validation.SaleValidator;
 import com.florist.application.validation.ValidationResult;
 import com.florist.domain.repository.FlowerRepository;
+import com.florist.domain.repository.SaleCriteria;
 import com.florist.domain.repository.SaleRepository;
+import com.florist.infrastructure.metrics.Counter;
+import com.florist.infrastructure.metrics.MetricsRegistry;
+import com.florist.infrastructure.metrics.Timer;
 import com.florist.model.Flower;
 import com.florist.model.Sale;
 
@@ -19,14 +26,18 @@ public class SaleService {
     private final SaleRepository saleRepository;
     private final FlowerRepository flowerRepository;
     private final SaleValidator validator;
-    private final InventoryService inventoryService;
+    private final DomainEventBus eventBus;
+    private final Timer processSaleTimer;
+    private final Counter unitsSold;
 
     public SaleService(SaleRepository saleRepo, FlowerRepository flowerRepo,
-            SaleValidator validator, InventoryService inventoryService) {
+            SaleValidator validator, DomainEventBus eventBus, MetricsRegistry metrics) {
         this.saleRepository = saleRepo;
         this.flowerRepository = flowerRepo;
         this.validator = validator;
-        this.inventoryService = inventoryService;
+        this.eventBus = eventBus;
+        this.processSaleTimer = metrics.timer("service.SaleService.processSale");
+        this.unitsSold = metrics.counter("sales.unitsSold");
     }
 
     /**
@@ -38,6 +49,10 @@ public class SaleService {
      * @throws IllegalArgumentException if validation fails or insufficient stock
      */
     public Sale processSale(Sale sale) {
+        return processSaleTimer.time(() -> process(sale));
+    }
+
+    private Sale process(Sale sale) {
         // Validate sale
         ValidationResult result = validator.validate(sale);
         if (!result.isValid()) {
@@ -65,9 +80,10 @@ public class SaleService {
         // Create sale record
         Sale savedSale = saleRepository.save(sale);
 
-        // Check for low stock alerts
-        flower.setQuantity(newQuantity);
-        inventoryService.checkAndAlertAfterSale(flower, InventoryService.DEFAULT_LOW_STOCK_THRESHOLD);
+        // Low stock alerts are reconciled asynchronously by InventoryService
+        eventBus.publish(new StockChangedEvent(flower.getId(), newQuantity));
+        eventBus.publish(new SaleCompletedEvent(savedSale));
+        unitsSold.add(sale.getQuantitySold());
 
         return savedSale;
     }
@@ -76,6 +92,15 @@ public class SaleService {
         return saleRepository.findAll();
     }
 
+    /**
+     * Returns the latest sales, newest first.
+     */
+    public List<Sale> getRecentSales(int limit) {
+        return saleRepository.find(new SaleCriteria()
+                .sortBy(SaleCriteria.Sort.DATE, true)
+                .limit(limit)).items();
+    }
+
     public List<Sale> getSalesByDateRange(LocalDate startDate, LocalDate endDate) {
         return saleRepository.findByDateRange(startDate, endDate);
     }
@@ -1,12 +1,12 @@
 package com.florist.application.service;
 
+import com.florist.domain.repository.FlowerCriteria;
 import com.florist.domain.repository.FlowerRepository;
 import com.florist.domain.repository.SaleRepository;
 import com.florist.model.Flower;
 import com.florist.model.Sale;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,8 +33,7 @@ public class StatisticsService {
 
     public double calculateTodayRevenue() {
         LocalDate today = LocalDate.now();
-        return saleRepository.findAll().stream()
-                .filter(sale -> sale.getSaleDate().equals(today))
+        return saleRepository.findByDateRange(today, today).stream()
                 .mapToDouble(Sale::getTotalPrice)
                 .sum();
     }
@@ -54,17 +53,15 @@ public class StatisticsService {
     }
 
     public List<Flower> getTopExpensiveFlowers(int limit) {
-        return flowerRepository.findAll().stream()
-                .sorted(Comparator.comparingDouble(Flower::getPrice).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return flowerRepository.find(new FlowerCriteria()
+                .sortBy(FlowerCriteria.Sort.PRICE, true)
+                .limit(limit)).items();
     }
 
     public List<Flower> getLowStockFlowers(int threshold) {
-        return flowerRepository.findAll().stream()
-                .filter(flower -> flower.getQuantity() < threshold)
-                .sorted(Comparator.comparingInt(Flower::getQuantity))
-                .collect(Collectors.toList());
+        return flowerRepository.find(new FlowerCriteria()
+                .quantityBetween(null, threshold - 1)
+                .sortBy(FlowerCriteria.Sort.QUANTITY)).items();
     }
 
     public double calculateTotalInventoryValue() {
@@ -74,16 +71,8 @@ public class StatisticsService {
     }
 
     public List<Flower> getFlowersExpiringSoon(int days) {
-        LocalDate targetDate = LocalDate.now().plusDays(days);
-        return flowerRepository.findAll().stream()
-                .filter(flower -> {
-                    LocalDate expiryDate = flower.getExpiryDate();
-                    return expiryDate != null &&
-                            !expiryDate.isAfter(targetDate) &&
-                            !expiryDate.isBefore(LocalDate.now());
-                })
-                .sorted(Comparator.comparing(Flower::getExpiryDate))
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        return flowerRepository.findExpiringBetween(today, today.plusDays(days));
     }
 
     public Map<LocalDate, List<Sale>> getSalesGroupedByDate() {
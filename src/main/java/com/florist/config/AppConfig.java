@@ -0,0 +1,436 @@
+package com.florist.config;
+
+import com.florist.application.service.BackupService;
+import com.florist.application.service.InventoryService;
+import com.florist.infrastructure.network.InvalidationChannel;
+import com.florist.infrastructure.persistence.ImportBatchWriter;
+import com.florist.io.ExportFormat;
+import com.florist.io.StandardExportFormat;
+import com.florist.threads.ChangeSyncService;
+import com.florist.threads.DeliveryInboxWatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runtime settings, so each shop can tune the application without a rebuild.
+ * <p>
+ * Every setting has a built-in default, overridden in turn by
+ * {@code petalsuite.properties} in the working directory (or the file named
+ * by {@code -Dpetalsuite.config}), by an environment variable such as
+ * {@code PETALSUITE_INVENTORY_LOW_STOCK_THRESHOLD} for
+ * {@code inventory.lowStockThreshold}, and by a {@code -Dpetalsuite.<key>}
+ * system property. Entries named {@code driver.*} are passed on to the
+ * MySQL driver.
+ * <p>
+ * All values are checked when loaded: startup fails on an invalid one.
+ * While {@link #startWatching() watched}, edits to the file are picked up:
+ * reloadable settings take effect the next time they are read, the others
+ * are reported and wait for a restart. An edit that does not validate is
+ * ignored as a whole.
+ */
+public final class AppConfig {
+
+    public static final String FILE_NAME = "petalsuite.properties";
+    public static final String DRIVER_PREFIX = "driver.";
+
+    private static final String SYSTEM_PREFIX = "petalsuite.";
+    private static final String ENV_PREFIX = "PETALSUITE_";
+    private static final long WATCH_INTERVAL_SECONDS = 2;
+
+    private static final List<Setting<?>> SETTINGS = new ArrayList<>();
+
+    // Database
+    public static final Setting<String> DB_URL = register(new Setting<>("db.url",
+            "jdbc:mysql://localhost:3306/florist_db", AppConfig::required, false));
+    public static final Setting<String> DB_USER = register(new Setting<>("db.user", "root",
+            AppConfig::required, false));
+    public static final Setting<String> DB_PASSWORD = register(new Setting<>("db.password", "", value -> value, false));
+    /** Rows per round trip of long reads, 0 streams them one by one */
+    public static final Setting<Integer> DB_FETCH_SIZE = intSetting("db.fetchSize", 0, 0, 100_000, true);
+    public static final Setting<Integer> POOL_MAX_CONNECTIONS = intSetting("pool.maxConnections", 8, 1, 64, false);
+    public static final Setting<Integer> POOL_BORROW_TIMEOUT_SECONDS = intSetting("pool.borrowTimeoutSeconds", 30,
+            1, 600, true);
+
+    // Inventory
+    public static final Setting<Integer> LOW_STOCK_THRESHOLD = intSetting("inventory.lowStockThreshold",
+            InventoryService.DEFAULT_LOW_STOCK_THRESHOLD, 0, 100_000, true);
+    public static final Setting<Integer> EXPIRING_DAYS = intSetting("inventory.expiringDays", 3, 0, 365, true);
+    public static final Setting<Integer> MONITOR_INTERVAL_SECONDS = intSetting("monitor.intervalSeconds", 300,
+            10, 86_400, true);
+
+    // Backups
+    public static final Setting<Integer> BACKUP_INTERVAL_MINUTES = intSetting("backup.intervalMinutes", 30,
+            1, 1440, true);
+    public static final Setting<Integer> BACKUP_CHAINS_TO_KEEP = intSetting("backup.chainsToKeep",
+            BackupService.DEFAULT_CHAINS_TO_KEEP, 1, 365, true);
+    public static final Setting<Boolean> BACKUP_COMPRESS = booleanSetting("backup.compress", true, false);
+    public static final Setting<List<ExportFormat>> BACKUP_FEED_FORMATS = register(new Setting<>("backup.feedFormats",
+            "", StandardExportFormat::parseList, false));
+
+    // Imports and deliveries
+    public static final Setting<Integer> IMPORT_TRANSACTION_SIZE = intSetting("import.transactionSize",
+            ImportBatchWriter.DEFAULT_TRANSACTION_SIZE, 1, 1_000_000, false);
+    public static final Setting<Boolean> DELIVERIES_ENABLED = booleanSetting("deliveries.enabled", true, false);
+    public static final Setting<String> DELIVERIES_INBOX = register(new Setting<>("deliveries.inbox",
+            DeliveryInboxWatcher.DEFAULT_INBOX, AppConfig::required, false));
+    public static final Setting<Long> DELIVERIES_SETTLE_MILLIS = longSetting("deliveries.settleMillis",
+            DeliveryInboxWatcher.DEFAULT_SETTLE_MILLIS, 100, 600_000, false);
+
+    // Terminal synchronization
+    public static final Setting<Long> SYNC_INTERVAL_MILLIS = longSetting("sync.intervalMillis",
+            ChangeSyncService.DEFAULT_INTERVAL_MILLIS, 100, 3_600_000, false);
+    public static final Setting<Integer> TOMBSTONE_RETENTION_DAYS = intSetting("sync.tombstoneRetentionDays",
+            30, 1, 3650, true);
+    public static final Setting<Boolean> LAN_ENABLED = booleanSetting("lan.enabled", true, false);
+    public static final Setting<String> LAN_GROUP = register(new Setting<>("lan.group",
+            InvalidationChannel.DEFAULT_GROUP, AppConfig::required, false));
+    public static final Setting<Integer> LAN_PORT = intSetting("lan.port", InvalidationChannel.DEFAULT_PORT,
+            1, 65_535, false);
+
+    // Metrics
+    public static final Setting<Boolean> METRICS_ENABLED = booleanSetting("metrics.enabled", true, false);
+    public static final Setting<String> METRICS_DIRECTORY = register(new Setting<>("metrics.directory", "metrics",
+            AppConfig::required, false));
+    public static final Setting<Integer> METRICS_REPORT_INTERVAL_SECONDS = intSetting("metrics.reportIntervalSeconds",
+            60, 5, 86_400, true);
+
+    private static AppConfig instance;
+
+    private final Path file;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Map<Setting<?>, Object> values;
+    private volatile Properties driverProperties;
+    private long fileModified;
+    private ScheduledExecutorService watcher;
+
+    private AppConfig(Path file) {
+        this.file = file;
+        this.fileModified = lastModified();
+        Map<String, String> raw = readSources();
+        List<String> errors = new ArrayList<>();
+        this.values = parse(raw, errors);
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid settings: " + String.join("; ", errors));
+        }
+        this.driverProperties = driverProperties(raw);
+        if (Files.isRegularFile(file)) {
+            System.out.println("[CONFIG] Using " + file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Gets the settings, loading them on first use.
+     *
+     * @return the application settings
+     * @throws IllegalStateException if a setting is invalid
+     */
+    public static synchronized AppConfig getInstance() {
+        if (instance == null) {
+            instance = new AppConfig(Paths.get(System.getProperty(SYSTEM_PREFIX + "config", FILE_NAME)));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the current value of a setting.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Setting<T> setting) {
+        return (T) values.get(setting);
+    }
+
+    /**
+     * Gets the {@code driver.*} entries, without their prefix, as a copy.
+     */
+    public Properties getDriverProperties() {
+        Properties copy = new Properties();
+        copy.putAll(driverProperties);
+        return copy;
+    }
+
+    /**
+     * Registers a task run after a reload changed reloadable settings.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Starts checking the settings file for edits.
+     */
+    public synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::checkFile, WATCH_INTERVAL_SECONDS, WATCH_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    private void checkFile() {
+        long modified = lastModified();
+        if (modified != fileModified) {
+            fileModified = modified;
+            reload();
+        }
+    }
+
+    /**
+     * Re-reads every source and applies the changed reloadable settings,
+     * unless a value is invalid.
+     */
+    synchronized void reload() {
+        Map<String, String> raw;
+        try {
+            raw = readSources();
+        } catch (IllegalStateException e) {
+            System.err.println("[CONFIG] Reload failed: " + e.getMessage());
+            return;
+        }
+        List<String> errors = new ArrayList<>();
+        Map<Setting<?>, Object> loaded = parse(raw, errors);
+        if (!errors.isEmpty()) {
+            System.err.println("[CONFIG] Edit ignored, invalid settings: " + String.join("; ", errors));
+            return;
+        }
+
+        Map<Setting<?>, Object> next = new HashMap<>(values);
+        List<String> applied = new ArrayList<>();
+        for (Setting<?> setting : SETTINGS) {
+            Object value = loaded.get(setting);
+            if (Objects.equals(value, values.get(setting))) {
+                continue;
+            }
+            if (setting.isReloadable()) {
+                next.put(setting, value);
+                applied.add(setting.key() + "=" + value);
+            } else {
+                System.out.println("[CONFIG] " + setting.key() + " changed, restart to apply");
+            }
+        }
+        if (!driverProperties(raw).equals(driverProperties)) {
+            System.out.println("[CONFIG] Driver settings changed, restart to apply");
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+        values = next;
+        System.out.println("[CONFIG] Reloaded " + String.join(", ", applied));
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("[CONFIG] Reload listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Raw values by key, each source overriding the previous one.
+     */
+    private Map<String, String> readSources() {
+        Map<String, String> raw = new HashMap<>();
+        if (Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Cannot read " + file + ": " + e.getMessage(), e);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                if (!key.startsWith(DRIVER_PREFIX) && find(key) == null) {
+                    // Most likely a typo, which would otherwise go unnoticed
+                    System.err.println("[CONFIG] Unknown setting in " + file.getFileName() + ": " + key);
+                }
+                raw.put(key, properties.getProperty(key));
+            }
+        }
+        for (Setting<?> setting : SETTINGS) {
+            String value = System.getenv(setting.environmentName());
+            if (value != null) {
+                raw.put(setting.key(), value);
+            }
+        }
+        Properties system = System.getProperties();
+        for (String name : system.stringPropertyNames()) {
+            String key = name.substring(name.startsWith(SYSTEM_PREFIX) ? SYSTEM_PREFIX.length() : 0);
+            if (name.startsWith(SYSTEM_PREFIX) && (key.startsWith(DRIVER_PREFIX) || find(key) != null)) {
+                raw.put(key, system.getProperty(name));
+            }
+        }
+        return raw;
+    }
+
+    private static Map<Setting<?>, Object> parse(Map<String, String> raw, List<String> errors) {
+        Map<Setting<?>, Object> parsed = new HashMap<>();
+        for (Setting<?> setting : SETTINGS) {
+            String value = raw.getOrDefault(setting.key(), setting.defaultValue);
+            try {
+                parsed.put(setting, setting.parser.apply(value));
+            } catch (IllegalArgumentException e) {
+                errors.add(setting.key() + ": " + e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    private static Properties driverProperties(Map<String, String> raw) {
+        Properties properties = new Properties();
+        raw.forEach((key, value) -> {
+            if (key.startsWith(DRIVER_PREFIX)) {
+                properties.setProperty(key.substring(DRIVER_PREFIX.length()), value);
+            }
+        });
+        return properties;
+    }
+
+    private long lastModified() {
+        try {
+            return Files.isRegularFile(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Setting<?> find(String key) {
+        for (Setting<?> setting : SETTINGS) {
+            if (setting.key().equals(key)) {
+                return setting;
+            }
+        }
+        return null;
+    }
+
+    private static <T> Setting<T> register(Setting<T> setting) {
+        SETTINGS.add(setting);
+        return setting;
+    }
+
+    private static Setting<Integer> intSetting(String key, int defaultValue, int min, int max, boolean reloadable) {
+        return register(new Setting<>(key, String.valueOf(defaultValue), value -> {
+            int parsed = (int) parseNumber(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            checkRange(parsed, min, max);
+            return parsed;
+        }, reloadable));
+    }
+
+    private static Setting<Long> longSetting(String key, long defaultValue, long min, long max, boolean reloadable) {
+        return register(new Setting<>(key, String.valueOf(defaultValue), value -> {
+            long parsed = parseNumber(value, Long.MIN_VALUE, Long.MAX_VALUE);
+            checkRange(parsed, min, max);
+            return parsed;
+        }, reloadable));
+    }
+
+    private static Setting<Boolean> booleanSetting(String key, boolean defaultValue, boolean reloadable) {
+        return register(new Setting<>(key, String.valueOf(defaultValue), value -> {
+            String trimmed = value.trim();
+            if (!trimmed.equalsIgnoreCase("true") && !trimmed.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("expected true or false, got '" + value + "'");
+            }
+            return Boolean.parseBoolean(trimmed);
+        }, reloadable));
+    }
+
+    private static long parseNumber(String value, long min, long max) {
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("'" + value + "' is not a valid number");
+    }
+
+    private static void checkRange(long value, long min, long max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(value + " is not between " + min + " and " + max);
+        }
+    }
+
+    private static String required(String value) {
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("must not be empty");
+        }
+        return value;
+    }
+
+    /**
+     * A typed setting: its key, default and how its text is parsed and checked.
+     *
+     * @param <T> type of the value
+     */
+    public static final class Setting<T> {
+
+        private final String key;
+        private final String defaultValue;
+        private final Function<String, T> parser;
+        private final boolean reloadable;
+
+        private Setting(String key, String defaultValue, Function<String, T> parser, boolean reloadable) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+            this.parser = parser;
+            this.reloadable = reloadable;
+        }
+
+        /**
+         * Gets the current value.
+         */
+        public T get() {
+            return getInstance().get(this);
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * Tells whether an edit of the file applies without a restart.
+         */
+        public boolean isReloadable() {
+            return reloadable;
+        }
+
+        /**
+         * Name of the environment variable overriding the setting:
+         * inventory.lowStockThreshold is PETALSUITE_INVENTORY_LOW_STOCK_THRESHOLD.
+         */
+        public String environmentName() {
+            return ENV_PREFIX + key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replace('.', '_').toUpperCase();
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.florist.config;
 
+import com.florist.application.event.DomainEventBus;
 import com.florist.application.service.AlertService;
+import com.florist.application.service.BackupService;
+import com.florist.application.service.DeliveryService;
 import com.florist.application.service.FlowerService;
+import com.florist.application.service.ImportService;
 import com.florist.application.service.SaleService;
 import com.florist.application.service.SupplierService;
 import com.florist.application.validation.FlowerValidator;
 import com.florist.application.validation.SaleValidator;
 import com.florist.application.validation.SupplierValidator;
+import com.florist.domain.repository.ChangeTrackingRepository;
 import com.florist.domain.repository.FlowerRepository;
 import com.florist.domain.repository.SaleRepository;
 import com.florist.domain.repository.StockAlertRepository;
 import com.florist.domain.repository.SupplierRepository;
+import com.florist.infrastructure.metrics.MetricsRegistry;
+import com.florist.infrastructure.persistence.BackupRestorer;
+import com.florist.infrastructure.persistence.ChangeTrackingRepositoryImpl;
 import com.florist.infrastructure.persistence.FlowerRepositoryImpl;
 import com.florist.infrastructure.persistence.SaleRepositoryImpl;
 import com.florist.infrastructure.persistence.StockAlertRepositoryImpl;
+import com.florist.infrastructure.persistence.StreamingBackupWriter;
 import com.florist.infrastructure.persistence.SupplierRepositoryImpl;
 import com.florist.application.service.InventoryService;
 import com.florist.application.service.StatisticsService;
+import com.florist.io.FileImportService;
+import com.florist.io.ParallelCsvReader;
+
+import java.io.File;
 
 /**
  * Service Factory for dependency injection.
@@ -26,11 +39,18 @@ public class ServiceFactory {
 
     private static ServiceFactory instance;
 
+    // Events
+    private final DomainEventBus eventBus;
+
+    // Metrics
+    private final MetricsRegistry metrics;
+
     // Repositories
     private final FlowerRepository flowerRepository;
     private final SupplierRepository supplierRepository;
     private final SaleRepository saleRepository;
     private final StockAlertRepository alertRepository;
+    private final ChangeTrackingRepository changeTrackingRepository;
 
     // Validators
     private final FlowerValidator flowerValidator;
@@ -46,13 +66,20 @@ public class ServiceFactory {
     private final SupplierService supplierService;
     private final SaleService saleService;
     private final AlertService alertService;
+    private final BackupService backupService;
+    private final ImportService importService;
+    private final DeliveryService deliveryService;
 
     private ServiceFactory() {
-        // Initialize repositories
-        this.flowerRepository = new FlowerRepositoryImpl();
-        this.supplierRepository = new SupplierRepositoryImpl();
-        this.saleRepository = new SaleRepositoryImpl();
-        this.alertRepository = new StockAlertRepositoryImpl();
+        this.eventBus = new DomainEventBus();
+        this.metrics = new MetricsRegistry();
+
+        // Initialize repositories, timed through their interfaces
+        this.flowerRepository = instrument(FlowerRepository.class, new FlowerRepositoryImpl());
+        this.supplierRepository = instrument(SupplierRepository.class, new SupplierRepositoryImpl());
+        this.saleRepository = instrument(SaleRepository.class, new SaleRepositoryImpl());
+        this.alertRepository = instrument(StockAlertRepository.class, new StockAlertRepositoryImpl());
+        this.changeTrackingRepository = instrument(ChangeTrackingRepository.class, new ChangeTrackingRepositoryImpl());
 
         // Initialize validators
         this.flowerValidator = new FlowerValidator();
@@ -60,14 +87,29 @@ public class ServiceFactory {
         this.saleValidator = new SaleValidator();
 
         // Initialize domain services
-        this.inventoryService = new InventoryService(flowerRepository, alertRepository);
+        this.inventoryService = new InventoryService(flowerRepository, alertRepository, eventBus,
+                AppConfig.LOW_STOCK_THRESHOLD::get, metrics);
         this.statisticsService = new StatisticsService(flowerRepository, saleRepository);
 
         // Initialize application services
-        this.flowerService = new FlowerService(flowerRepository, flowerValidator, inventoryService);
+        this.flowerService = new FlowerService(flowerRepository, flowerValidator, eventBus);
         this.supplierService = new SupplierService(supplierRepository, supplierValidator);
-        this.saleService = new SaleService(saleRepository, flowerRepository, saleValidator, inventoryService);
-        this.alertService = new AlertService(alertRepository);
+        this.saleService = new SaleService(saleRepository, flowerRepository, saleValidator, eventBus, metrics);
+        this.alertService = new AlertService(alertRepository, eventBus);
+        this.backupService = new BackupService(new StreamingBackupWriter(), new BackupRestorer(),
+                new File(BackupService.DEFAULT_DIRECTORY), AppConfig.BACKUP_COMPRESS.get(),
+                AppConfig.BACKUP_FEED_FORMATS.get(), AppConfig.BACKUP_CHAINS_TO_KEEP::get);
+        this.importService = new ImportService(flowerValidator, saleValidator, supplierValidator,
+                new ParallelCsvReader(), AppConfig.IMPORT_TRANSACTION_SIZE.get());
+        this.deliveryService = new DeliveryService(flowerRepository, flowerValidator, new FileImportService(),
+                eventBus);
+
+        // Side effects driven by domain events
+        eventBus.subscribe("alert-reconciliation", InventoryService::affectsAlerts, inventoryService::onEvents);
+    }
+
+    private <T> T instrument(Class<T> type, T repository) {
+        return AppConfig.METRICS_ENABLED.get() ? metrics.instrument(type, repository, "repository") : repository;
     }
 
     /**
@@ -100,6 +142,26 @@ public class ServiceFactory {
         return alertService;
     }
 
+    public BackupService getBackupService() {
+        return backupService;
+    }
+
+    public ImportService getImportService() {
+        return importService;
+    }
+
+    public DeliveryService getDeliveryService() {
+        return deliveryService;
+    }
+
+    public DomainEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     // Getters for domain services (for backward compatibility)
 
     public InventoryService getInventoryService() {
@@ -127,4 +189,8 @@ public class ServiceFactory {
     public StockAlertRepository getAlertRepository() {
         return alertRepository;
     }
+
+    public ChangeTrackingRepository getChangeTrackingRepository() {
+        return changeTrackingRepository;
+    }
 }
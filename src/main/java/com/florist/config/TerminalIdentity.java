@@ -0,0 +1,30 @@
+package com.florist.config;
+
+import java.util.UUID;
+
+/**
+ * Identifies this running instance of the application.
+ * Stamped on rows it writes so synchronization can tell local changes from
+ * changes made by other terminals sharing the database.
+ */
+public final class TerminalIdentity {
+
+    private static final UUID UUID_VALUE = UUID.randomUUID();
+    private static final String ID = UUID_VALUE.toString();
+
+    private TerminalIdentity() {
+    }
+
+    /**
+     * Gets the identifier of this instance, unique per process start.
+     * 
+     * @return the terminal ID
+     */
+    public static String getId() {
+        return ID;
+    }
+
+    public static UUID getUuid() {
+        return UUID_VALUE;
+    }
+}
@@ -1,5 +1,11 @@
 package com.florist.controller;
 
+import com.florist.application.event.AlertClearedEvent;
+import com.florist.application.event.AlertRaisedEvent;
+import com.florist.application.event.DomainEvent;
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.event.SaleCompletedEvent;
 import com.florist.application.service.AlertService;
 import com.florist.application.service.FlowerService;
 import com.florist.application.service.SaleService;
@@ -7,20 +13,36 @@ import com.florist.application.service.SupplierService;
 import com.florist.config.ServiceFactory;
 import com.florist.model.Sale;
 import com.florist.application.service.InventoryService;
+import com.florist.io.StandardExportFormat;
+import com.florist.threads.DataExportTask;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controller for the Dashboard view.
  * Displays summary statistics and provides quick actions.
+ * Counters and recent sales are kept live from domain events: deltas are
+ * accumulated off the FX thread and applied in at most one pulse at a time.
  */
 public class DashboardController {
 
+    private static final int RECENT_SALES_LIMIT = 10;
+
     @FXML
     private Label totalFlowersLabel;
     @FXML
@@ -46,12 +68,36 @@ public class DashboardController {
     @FXML
     private TableColumn<Sale, String> saleCustomerColumn;
 
+    // Quick actions
+    @FXML
+    private Button exportBtn;
+    @FXML
+    private ComboBox<StandardExportFormat> exportFormatComboBox;
+    @FXML
+    private ProgressBar exportProgress;
+
     private FlowerService flowerService;
     private SupplierService supplierService;
     private SaleService saleService;
     private AlertService alertService;
     private InventoryService inventoryService;
 
+    // Live counters, only touched on the FX thread
+    private int flowerCount;
+    private int todaySalesCount;
+    private int activeAlertCount;
+    // Day todaySalesCount counts
+    private LocalDate countersDate;
+    // The counters were just read, events buffered meanwhile may already be in them
+    private boolean countersJustLoaded;
+    private final ObservableList<Sale> recentSales = FXCollections.observableArrayList();
+
+    // Deltas waiting for the next FX pulse
+    private final Object pendingLock = new Object();
+    private PendingUpdate pending = new PendingUpdate();
+    private final AtomicBoolean pulseScheduled = new AtomicBoolean(false);
+    private DomainEventBus.Subscription subscription;
+
     @FXML
     public void initialize() {
         ServiceFactory factory = ServiceFactory.getInstance();
@@ -61,11 +107,116 @@ public class DashboardController {
         this.alertService = factory.getAlertService();
         this.inventoryService = factory.getInventoryService();
 
+        exportFormatComboBox.getItems().setAll(StandardExportFormat.values());
+        exportFormatComboBox.setValue(StandardExportFormat.CSV);
+
         setupSalesTable();
+        // Subscribe before the initial load so no event falls between the two.
+        // Pulses are posted to the FX thread, so events received meanwhile stay
+        // buffered in the pending update until the load below has finished;
+        // the first pulse then reads the counters again rather than adding them.
+        subscribeToEvents(factory.getEventBus());
         loadStatistics();
         loadSales();
     }
 
+    private void subscribeToEvents(DomainEventBus eventBus) {
+        subscription = eventBus.subscribe("dashboard", this::onEvents);
+
+        // Stop listening once the view is swapped out by MainController
+        salesTableView.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null && subscription != null) {
+                subscription.cancel();
+                subscription = null;
+            }
+        });
+    }
+
+    /**
+     * Event bus handler, runs on the subscriber thread.
+     * Folds a batch into the pending update and schedules a pulse if none is queued.
+     */
+    private void onEvents(List<DomainEvent> events) {
+        PendingUpdate batch = new PendingUpdate();
+
+        for (DomainEvent event : events) {
+            if (event instanceof SaleCompletedEvent saleEvent) {
+                batch.newSales.add(saleEvent.sale());
+            } else if (event instanceof FlowerUpdatedEvent flowerEvent) {
+                if (flowerEvent.changeType() == FlowerUpdatedEvent.ChangeType.CREATED) {
+                    batch.flowerDelta++;
+                } else if (flowerEvent.changeType() == FlowerUpdatedEvent.ChangeType.DELETED) {
+                    batch.flowerDelta--;
+                    batch.alertsCascaded = true;
+                }
+            } else if (event instanceof AlertRaisedEvent) {
+                batch.alertDelta++;
+            } else if (event instanceof AlertClearedEvent clearedEvent) {
+                batch.alertDelta -= clearedEvent.count();
+            }
+        }
+
+        synchronized (pendingLock) {
+            pending.merge(batch);
+        }
+        if (pulseScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::applyPendingUpdate);
+        }
+    }
+
+    private void applyPendingUpdate() {
+        // Clear the flag first so events arriving during the swap schedule another pulse
+        pulseScheduled.set(false);
+        PendingUpdate update;
+        synchronized (pendingLock) {
+            update = pending;
+            pending = new PendingUpdate();
+        }
+
+        // Sales buffered during a load may already be in the loaded list
+        Set<Integer> shownSaleIds = new HashSet<>();
+        for (Sale sale : recentSales) {
+            shownSaleIds.add(sale.getId());
+        }
+        List<Sale> newSales = new ArrayList<>(update.newSales.size());
+        for (Sale sale : update.newSales) {
+            if (shownSaleIds.add(sale.getId())) {
+                newSales.add(sale);
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        if (countersJustLoaded || !today.equals(countersDate)) {
+            // Deltas buffered during the load, or counted for yesterday, cannot be added
+            countersJustLoaded = false;
+            readCounters();
+        } else {
+            for (Sale sale : newSales) {
+                if (today.equals(sale.getSaleDate())) {
+                    todaySalesCount++;
+                }
+            }
+            flowerCount += update.flowerDelta;
+            if (update.alertsCascaded) {
+                // Deleting a flower cascades to its alerts without events, resync that one counter.
+                // Queried here: the subscriber thread would keep a connection of its own after it stops.
+                activeAlertCount = alertService.getUnresolvedCount();
+            } else {
+                activeAlertCount += update.alertDelta;
+            }
+        }
+        updateCounterLabels();
+
+        if (!newSales.isEmpty()) {
+            for (Sale sale : newSales) {
+                recentSales.add(0, sale);
+            }
+            if (recentSales.size() > RECENT_SALES_LIMIT) {
+                recentSales.remove(RECENT_SALES_LIMIT, recentSales.size());
+            }
+        }
+    }
+
     private void setupSalesTable() {
         saleDateColumn.setCellValueFactory(
                 cellData -> new javafx.beans.property.SimpleObjectProperty<>(cellData.getValue().getSaleDate()));
@@ -101,28 +252,33 @@ public class DashboardController {
 
     private void loadSales() {
         try {
-            var sales = saleService.getAllSales();
-            var recentSales = sales.size() > 10 ? sales.subList(sales.size() - 10, sales.size()) : sales;
-            // Reverse order for recent sales
-            java.util.Collections.reverse(recentSales);
-            salesTableView.setItems(FXCollections.observableArrayList(recentSales));
+            recentSales.setAll(saleService.getRecentSales(RECENT_SALES_LIMIT));
+            salesTableView.setItems(recentSales);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     private void loadStatistics() {
-        int flowerCount = flowerService.getAllFlowers().size();
-        totalFlowersLabel.setText(String.valueOf(flowerCount));
-
         int supplierCount = supplierService.getAllSuppliers().size();
         totalSuppliersLabel.setText(String.valueOf(supplierCount));
 
-        int todaySalesCount = saleService.getTodaySalesCount();
-        todaySalesLabel.setText(String.valueOf(todaySalesCount));
+        readCounters();
+        countersJustLoaded = true;
+        updateCounterLabels();
+    }
 
-        int activeAlerts = alertService.getUnresolvedCount();
-        activeAlertsLabel.setText(String.valueOf(activeAlerts));
+    private void readCounters() {
+        countersDate = LocalDate.now();
+        flowerCount = flowerService.getAllFlowers().size();
+        todaySalesCount = saleService.getTodaySalesCount();
+        activeAlertCount = alertService.getUnresolvedCount();
+    }
+
+    private void updateCounterLabels() {
+        totalFlowersLabel.setText(String.valueOf(flowerCount));
+        todaySalesLabel.setText(String.valueOf(todaySalesCount));
+        activeAlertsLabel.setText(String.valueOf(activeAlertCount));
     }
 
     @FXML
@@ -144,26 +300,61 @@ public class DashboardController {
 
     @FXML
     private void handleExport() {
-        try {
-            com.florist.io.FileExportService export = new com.florist.io.FileExportService();
-            String timestamp = java.time.LocalDateTime.now()
-                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            String dir = "exports";
-            new java.io.File(dir).mkdirs();
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        DataExportTask task = new DataExportTask(flowerService, saleService, supplierService,
+                new com.florist.io.FileExportService(), exportFormatComboBox.getValue(),
+                new java.io.File("exports"), timestamp);
 
-            export.exportFlowersToCsv(flowerService.getAllFlowers(), dir + "/flowers_" + timestamp + ".csv");
-            export.exportSalesToCsv(saleService.getAllSales(), dir + "/sales_" + timestamp + ".csv");
-            export.exportSuppliersToCsv(supplierService.getAllSuppliers(), dir + "/suppliers_" + timestamp + ".csv");
+        exportBtn.setDisable(true);
+        exportFormatComboBox.setDisable(true);
+        exportProgress.progressProperty().bind(task.progressProperty());
+        exportProgress.setVisible(true);
+        exportProgress.setManaged(true);
 
+        task.setOnSucceeded(e -> {
+            finishExport();
             com.florist.util.NotificationService.showSuccess(
                     totalFlowersLabel.getScene().getWindow(),
-                    "Data exported successfully to '" + dir + "' folder!");
-
-        } catch (Exception e) {
+                    "Data exported successfully to '" + task.getValue().getPath() + "' folder!");
+        });
+        task.setOnFailed(e -> {
+            finishExport();
+            Throwable error = task.getException();
             com.florist.util.NotificationService.showError(
                     totalFlowersLabel.getScene().getWindow(),
-                    "Error during export: " + e.getMessage());
-            e.printStackTrace();
+                    "Error during export: " + error.getMessage());
+            error.printStackTrace();
+        });
+
+        Thread thread = new Thread(task, "data-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finishExport() {
+        exportProgress.progressProperty().unbind();
+        exportProgress.setVisible(false);
+        exportProgress.setManaged(false);
+        exportBtn.setDisable(false);
+        exportFormatComboBox.setDisable(false);
+    }
+
+    /**
+     * Deltas accumulated between two FX pulses.
+     */
+    private static class PendingUpdate {
+        private int flowerDelta;
+        private int alertDelta;
+        // Alerts were deleted without events, the count must be read again
+        private boolean alertsCascaded;
+        private final List<Sale> newSales = new ArrayList<>();
+
+        void merge(PendingUpdate other) {
+            flowerDelta += other.flowerDelta;
+            alertDelta += other.alertDelta;
+            alertsCascaded |= other.alertsCascaded;
+            newSales.addAll(other.newSales);
         }
     }
 }
@@ -1,5 +1,8 @@
 package com.florist.controller;
 
+import com.florist.application.event.DomainEvent;
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
 import com.florist.application.service.FlowerService;
 import com.florist.application.service.SupplierService;
 import com.florist.config.ServiceFactory;
@@ -8,6 +11,9 @@ import com.florist.model.Supplier;
 import com.florist.application.service.FreshnessService;
 import com.florist.util.NotificationService;
 
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -16,8 +22,9 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.paint.Color;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Controller for Flower Management view.
@@ -80,6 +87,9 @@ public class FlowerManagementController {
     private ObservableList<Flower> flowerList;
     private Flower selectedFlower;
     private boolean isDeleteMode = false;
+    // Delete-mode selection, keyed by flower id
+    private final BitSet selectedIds = new BitSet();
+    private DomainEventBus.Subscription subscription;
 
     @FXML
     public void initialize() {
@@ -93,12 +103,58 @@ public class FlowerManagementController {
         setupTable();
         setupFormControls();
         loadData();
+        subscribeToRemoteChanges(factory.getEventBus());
+    }
+
+    private void subscribeToRemoteChanges(DomainEventBus eventBus) {
+        // Local edits already reload the table, only patch rows changed on other terminals
+        subscription = eventBus.subscribe("flower-management",
+                event -> event.remote() && event instanceof FlowerUpdatedEvent,
+                events -> {
+                    // The bus reuses its batch list once the handler returns
+                    List<DomainEvent> copy = List.copyOf(events);
+                    Platform.runLater(() -> applyRemoteChanges(copy));
+                });
+
+        flowerTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null && subscription != null) {
+                subscription.cancel();
+                subscription = null;
+            }
+        });
+    }
+
+    private void applyRemoteChanges(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            FlowerUpdatedEvent change = (FlowerUpdatedEvent) event;
+            int index = indexOfFlower(change.flowerId());
+
+            if (change.changeType() == FlowerUpdatedEvent.ChangeType.DELETED) {
+                if (index >= 0) {
+                    flowerList.remove(index);
+                }
+                selectedIds.clear(change.flowerId());
+            } else if (index >= 0) {
+                flowerList.set(index, change.flower());
+            } else {
+                flowerList.add(change.flower());
+            }
+        }
+    }
+
+    private int indexOfFlower(int flowerId) {
+        for (int i = 0; i < flowerList.size(); i++) {
+            if (flowerList.get(i).getId() == flowerId) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private void setupTable() {
         // Setup select column for delete mode
         selectColumn = new TableColumn<>("");
-        selectColumn.setCellValueFactory(cellData -> cellData.getValue().selectedProperty());
+        selectColumn.setCellValueFactory(cellData -> selectionProperty(cellData.getValue().getId()));
         selectColumn.setCellFactory(javafx.scene.control.cell.CheckBoxTableCell.forTableColumn(selectColumn));
         selectColumn.setPrefWidth(40);
         selectColumn.setVisible(false);
@@ -178,6 +234,18 @@ public class FlowerManagementController {
                 });
     }
 
+    /**
+     * Creates a checkbox property for a row, backed by the selection bit set.
+     * 
+     * @param flowerId the flower ID of the row
+     * @return property mirroring the row's selection state
+     */
+    private BooleanProperty selectionProperty(int flowerId) {
+        BooleanProperty property = new SimpleBooleanProperty(selectedIds.get(flowerId));
+        property.addListener((obs, wasSelected, isSelected) -> selectedIds.set(flowerId, isSelected));
+        return property;
+    }
+
     private void setupFormControls() {
         nameComboBox.setItems(FXCollections.observableArrayList(
                 "Rose", "Tulip", "Lily", "Orchid", "Sunflower",
@@ -207,6 +275,8 @@ public class FlowerManagementController {
     private void loadFlowers() {
         try {
             List<Flower> flowers = flowerService.getAllFlowersWithSuppliers();
+            // Ticked ids of flowers deleted meanwhile would otherwise be deleted again
+            selectedIds.clear();
             flowerList.clear();
             flowerList.addAll(flowers);
             flowerTable.setItems(flowerList);
@@ -300,10 +370,8 @@ public class FlowerManagementController {
         }
 
         // Delete selected flowers
-        List<Integer> idsToDelete = flowerList.stream()
-                .filter(Flower::isSelected)
-                .map(Flower::getId)
-                .collect(Collectors.toList());
+        List<Integer> idsToDelete = new ArrayList<>(selectedIds.cardinality());
+        selectedIds.stream().forEach(idsToDelete::add);
 
         if (idsToDelete.isEmpty()) {
             NotificationService.showWarning(flowerTable.getScene().getWindow(),
@@ -327,8 +395,12 @@ public class FlowerManagementController {
 
     @FXML
     private void handleSelectAll() {
-        boolean allSelected = flowerList.stream().allMatch(Flower::isSelected);
-        flowerList.forEach(f -> f.setSelected(!allSelected));
+        boolean allSelected = flowerList.stream().allMatch(f -> selectedIds.get(f.getId()));
+        if (allSelected) {
+            selectedIds.clear();
+        } else {
+            flowerList.forEach(f -> selectedIds.set(f.getId()));
+        }
         flowerTable.refresh();
     }
 
@@ -337,7 +409,7 @@ public class FlowerManagementController {
         selectColumn.setVisible(false);
         deleteBtn.setText("Delete");
         selectAllBtn.setVisible(false);
-        flowerList.forEach(f -> f.setSelected(false));
+        selectedIds.clear();
         flowerTable.refresh();
     }
 
@@ -0,0 +1,82 @@
+package com.florist.domain.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and sort order for {@link StockAlertRepository#find}.
+ */
+public final class AlertCriteria extends Criteria<AlertCriteria.Sort, AlertCriteria> {
+
+    public enum Sort {
+        ID, DATE
+    }
+
+    private Integer flowerId;
+    private String alertType;
+    private String severity;
+    private Boolean resolved;
+    private LocalDate from;
+    private LocalDate to;
+
+    public AlertCriteria() {
+        super(Sort.ID);
+    }
+
+    @Override
+    protected AlertCriteria self() {
+        return this;
+    }
+
+    public AlertCriteria flower(int flowerId) {
+        this.flowerId = flowerId;
+        return this;
+    }
+
+    public AlertCriteria alertType(String alertType) {
+        this.alertType = alertType;
+        return this;
+    }
+
+    public AlertCriteria severity(String severity) {
+        this.severity = severity;
+        return this;
+    }
+
+    public AlertCriteria resolved(boolean resolved) {
+        this.resolved = resolved;
+        return this;
+    }
+
+    /**
+     * Keeps alerts generated within the dates, both included; a null bound is open.
+     */
+    public AlertCriteria generatedBetween(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public Integer getFlowerId() {
+        return flowerId;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public Boolean getResolved() {
+        return resolved;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+}
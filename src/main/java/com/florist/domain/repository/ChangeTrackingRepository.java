@@ -0,0 +1,94 @@
+package com.florist.domain.repository;
+
+import com.florist.model.Flower;
+import com.florist.model.Sale;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for reading incremental changes made by other terminals.
+ * Changes are read in windows bounded by a {@link Watermark}.
+ * <p>
+ * updated_at and AUTO_INCREMENT IDs are assigned when a statement runs, not
+ * when its transaction commits, so a row can become visible after a poll
+ * has already moved past it. Consecutive windows therefore overlap by
+ * {@link #COMMIT_MARGIN}; callers must expect to read a row more than once.
+ */
+public interface ChangeTrackingRepository {
+
+    String ENTITY_FLOWER = "FLOWER";
+    String ENTITY_SUPPLIER = "SUPPLIER";
+
+    /**
+     * Longest a write transaction is expected to stay open. Rows written
+     * longer ago than this are taken as committed.
+     */
+    Duration COMMIT_MARGIN = Duration.ofSeconds(60);
+
+    /**
+     * Captures the current position in the change log.
+     * 
+     * @return database time, and the highest sale and tombstone IDs written
+     *         more than {@link #COMMIT_MARGIN} ago
+     */
+    Watermark currentWatermark();
+
+    /**
+     * Finds flowers created or updated in [from, to) by other terminals.
+     * Flowers carry their supplier name. Failures are thrown rather than
+     * returned as an empty list, so callers can retry the same window.
+     * 
+     * @param from             inclusive lower bound on updated_at
+     * @param to               exclusive upper bound on updated_at
+     * @param excludedTerminal terminal whose own changes are skipped
+     * @return changed flowers
+     */
+    List<FlowerChange> findFlowerChanges(LocalDateTime from, LocalDateTime to, String excludedTerminal);
+
+    /**
+     * Finds sales with id > afterId recorded by other terminals.
+     * Sales carry their flower name and category.
+     */
+    List<Sale> findNewSales(long afterId, String excludedTerminal);
+
+    /**
+     * Finds deletions with id > afterId made by other terminals.
+     */
+    List<Tombstone> findTombstones(long afterId, String excludedTerminal);
+
+    /**
+     * Deletes the tombstones recorded before the given time.
+     * 
+     * @param before oldest deletion to keep
+     * @return number of tombstones deleted
+     */
+    int pruneTombstones(LocalDateTime before);
+
+    /**
+     * Reads one flower with its supplier name, as shown in the inventory view.
+     * 
+     * @param id the flower ID
+     * @return Optional containing the flower if it still exists
+     */
+    Optional<Flower> findFlower(int id);
+
+    /**
+     * Reads one sale with its flower name and category.
+     * 
+     * @param id the sale ID
+     * @return Optional containing the sale if it exists
+     */
+    Optional<Sale> findSale(int id);
+
+    record Watermark(LocalDateTime time, long saleId, long tombstoneId) {
+    }
+
+    record FlowerChange(Flower flower, LocalDateTime updatedAt, boolean created) {
+    }
+
+    record Tombstone(String entityType, int entityId) {
+    }
+}
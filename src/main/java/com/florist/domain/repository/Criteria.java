@@ -0,0 +1,71 @@
+package com.florist.domain.repository;
+
+/**
+ * Sort order and paging shared by the repository criteria. Filters are
+ * added by the subclasses; a filter left unset does not restrict the rows.
+ *
+ * @param <S> the sort keys of the entity
+ * @param <C> the criteria type itself, returned by the fluent setters
+ */
+public abstract class Criteria<S extends Enum<S>, C extends Criteria<S, C>> {
+
+    private S sort;
+    private boolean descending;
+    private int limit;
+    private Keyset after;
+
+    protected Criteria(S defaultSort) {
+        this.sort = defaultSort;
+    }
+
+    protected abstract C self();
+
+    /**
+     * Sorts in ascending order, ties broken by ID.
+     */
+    public C sortBy(S sort) {
+        return sortBy(sort, false);
+    }
+
+    public C sortBy(S sort, boolean descending) {
+        this.sort = sort;
+        this.descending = descending;
+        return self();
+    }
+
+    /**
+     * Returns at most this many rows per page; 0, the default, returns all rows.
+     */
+    public C limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        return self();
+    }
+
+    /**
+     * Starts after the given position, taken from {@link Page#next()} of a
+     * query with the same filters and sort order.
+     */
+    public C after(Keyset after) {
+        this.after = after;
+        return self();
+    }
+
+    public S getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Keyset getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,81 @@
+package com.florist.domain.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and sort order for {@link FlowerRepository#find}.
+ */
+public final class FlowerCriteria extends Criteria<FlowerCriteria.Sort, FlowerCriteria> {
+
+    public enum Sort {
+        ID, NAME, PRICE, QUANTITY, EXPIRY_DATE
+    }
+
+    private String category;
+    private Integer supplierId;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+    private LocalDate expiringFrom;
+    private LocalDate expiringTo;
+
+    public FlowerCriteria() {
+        super(Sort.ID);
+    }
+
+    @Override
+    protected FlowerCriteria self() {
+        return this;
+    }
+
+    public FlowerCriteria category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public FlowerCriteria supplier(int supplierId) {
+        this.supplierId = supplierId;
+        return this;
+    }
+
+    /**
+     * Keeps flowers whose quantity is within the bounds, both included; a null bound is open.
+     */
+    public FlowerCriteria quantityBetween(Integer min, Integer max) {
+        this.minQuantity = min;
+        this.maxQuantity = max;
+        return this;
+    }
+
+    /**
+     * Keeps flowers whose expiry date is within the bounds, both included; a null bound is open.
+     */
+    public FlowerCriteria expiringBetween(LocalDate from, LocalDate to) {
+        this.expiringFrom = from;
+        this.expiringTo = to;
+        return this;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Integer getSupplierId() {
+        return supplierId;
+    }
+
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+
+    public Integer getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public LocalDate getExpiringFrom() {
+        return expiringFrom;
+    }
+
+    public LocalDate getExpiringTo() {
+        return expiringTo;
+    }
+}
@@ -1,6 +1,7 @@
 package com.florist.domain.repository;
 
 import com.florist.model.Flower;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +33,32 @@ public interface FlowerRepository {
      */
     Optional<Flower> findById(int id);
 
+    /**
+     * Finds flowers whose expiry date falls within a range, soonest first.
+     * 
+     * @param from first expiry date included
+     * @param to   last expiry date included
+     * @return the matching flowers
+     */
+    List<Flower> findExpiringBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Finds flowers that are expired on a date, that is whose expiry date
+     * is that date or earlier, oldest first.
+     * 
+     * @param date the date to check
+     * @return the expired flowers
+     */
+    List<Flower> findExpiredAsOf(LocalDate date);
+
+    /**
+     * Finds the flowers matching the criteria, with their supplier names.
+     * 
+     * @param criteria filters, sort order and page
+     * @return the requested page
+     */
+    Page<Flower> find(FlowerCriteria criteria);
+
     /**
      * Saves a new flower or updates existing one.
      * 
@@ -56,4 +83,21 @@ public interface FlowerRepository {
      * @return true if updated successfully
      */
     boolean updateStock(int id, int quantity);
+
+    /**
+     * Adds delivered stock in one transaction. A line matching an existing
+     * flower by name, color, category and supplier adds to its quantity and
+     * replaces its price, arrival date and freshness; other lines become
+     * new flowers. Lines for the same flower are added up first.
+     * 
+     * @param lines the delivered flowers, with the quantity received
+     * @return the created flowers and the restocked ones with their new quantity
+     */
+    DeliveryReceipt receiveDelivery(List<Flower> lines);
+
+    /**
+     * Flowers changed by a delivery.
+     */
+    record DeliveryReceipt(List<Flower> created, List<Flower> restocked) {
+    }
 }
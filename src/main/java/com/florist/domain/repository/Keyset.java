@@ -0,0 +1,12 @@
+package com.florist.domain.repository;
+
+/**
+ * Position after the last row of a page, for keyset pagination: the value
+ * the rows are sorted on and the row ID, which breaks ties. The next page
+ * starts right after this row however many rows were added before it.
+ *
+ * @param value the sort value of the last row
+ * @param id    the ID of the last row
+ */
+public record Keyset(Object value, int id) {
+}
@@ -0,0 +1,17 @@
+package com.florist.domain.repository;
+
+import java.util.List;
+
+/**
+ * One page of query results.
+ *
+ * @param items the rows of this page
+ * @param next  where the next page starts, or null if this is the last one
+ * @param <T>   the row type
+ */
+public record Page<T>(List<T> items, Keyset next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
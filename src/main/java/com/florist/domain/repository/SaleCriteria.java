@@ -0,0 +1,78 @@
+package com.florist.domain.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and sort order for {@link SaleRepository#find}.
+ */
+public final class SaleCriteria extends Criteria<SaleCriteria.Sort, SaleCriteria> {
+
+    public enum Sort {
+        ID, DATE, TOTAL
+    }
+
+    private Integer flowerId;
+    private String category;
+    private LocalDate from;
+    private LocalDate to;
+    private String customer;
+
+    public SaleCriteria() {
+        super(Sort.ID);
+    }
+
+    @Override
+    protected SaleCriteria self() {
+        return this;
+    }
+
+    public SaleCriteria flower(int flowerId) {
+        this.flowerId = flowerId;
+        return this;
+    }
+
+    /**
+     * Keeps sales of flowers in the given category.
+     */
+    public SaleCriteria category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    /**
+     * Keeps sales made within the dates, both included; a null bound is open.
+     */
+    public SaleCriteria dateBetween(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * Keeps sales whose customer name contains the text, ignoring case.
+     */
+    public SaleCriteria customer(String customer) {
+        this.customer = customer;
+        return this;
+    }
+
+    public Integer getFlowerId() {
+        return flowerId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+}
@@ -14,6 +14,8 @@ public interface SaleRepository {
 
     List<Sale> findByDateRange(LocalDate startDate, LocalDate endDate);
 
+    Page<Sale> find(SaleCriteria criteria);
+
     Optional<Sale> findById(int id);
 
     Sale save(Sale sale);
@@ -13,6 +13,8 @@ public interface StockAlertRepository {
 
     List<StockAlert> findUnresolved();
 
+    Page<StockAlert> find(AlertCriteria criteria);
+
     Optional<StockAlert> findById(int id);
 
     StockAlert save(StockAlert alert);
@@ -25,5 +27,5 @@ public interface StockAlertRepository {
 
     boolean alertExists(int flowerId, String alertType);
 
-    void deleteUnresolved(int flowerId, String alertType);
+    int deleteUnresolved(int flowerId, String alertType);
 }
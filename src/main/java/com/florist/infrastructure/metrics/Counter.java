@@ -0,0 +1,23 @@
+package com.florist.infrastructure.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count of events since the last report.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    long sumThenReset() {
+        return value.sumThenReset();
+    }
+}
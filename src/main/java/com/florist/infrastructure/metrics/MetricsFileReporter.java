@@ -0,0 +1,96 @@
+package com.florist.infrastructure.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Appends the values of a {@link MetricsRegistry} to {@code metrics.log},
+ * one line per operation called since the previous report, e.g.
+ * <pre>
+ * 2026-10-19 10:15:00 repository.FlowerRepository.findAll calls=12 errors=0 mean=1.204ms p50=1.150ms ...
+ * </pre>
+ * Once the file grows past {@link #MAX_FILE_BYTES} it is rolled to
+ * {@code metrics.log.1}, shifting older files up to {@link #FILES_TO_KEEP}.
+ */
+public class MetricsFileReporter {
+
+    public static final String FILE_NAME = "metrics.log";
+    public static final long MAX_FILE_BYTES = 5L * 1024 * 1024;
+    public static final int FILES_TO_KEEP = 5;
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MetricsRegistry registry;
+    private final Path directory;
+    private final Path file;
+
+    public MetricsFileReporter(MetricsRegistry registry, Path directory) {
+        this.registry = registry;
+        this.directory = directory;
+        this.file = directory.resolve(FILE_NAME);
+    }
+
+    /**
+     * Writes the interval just ended and starts a new one.
+     */
+    public synchronized void report() throws IOException {
+        MetricsRegistry.Report report = registry.snapshotAndReset();
+        String stamp = LocalDateTime.now().format(STAMP);
+        StringBuilder lines = new StringBuilder();
+        report.timers().forEach((name, interval) -> {
+            LatencyHistogram.Snapshot latency = interval.latency();
+            if (latency.count() > 0) {
+                lines.append(stamp).append(' ').append(name)
+                        .append(" calls=").append(latency.count())
+                        .append(" errors=").append(interval.errors())
+                        .append(" mean=").append(millis(latency.meanNanos()))
+                        .append(" p50=").append(millis(latency.p50Nanos()))
+                        .append(" p99=").append(millis(latency.p99Nanos()))
+                        .append(" p999=").append(millis(latency.p999Nanos()))
+                        .append(" max=").append(millis(latency.maxNanos()))
+                        .append(System.lineSeparator());
+            }
+        });
+        report.counters().forEach((name, value) -> {
+            if (value > 0) {
+                lines.append(stamp).append(' ').append(name).append(" count=").append(value)
+                        .append(System.lineSeparator());
+            }
+        });
+        if (lines.length() == 0) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        if (Files.exists(file) && Files.size(file) > MAX_FILE_BYTES) {
+            roll();
+        }
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(FILES_TO_KEEP));
+        for (int i = FILES_TO_KEEP - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int generation) {
+        return directory.resolve(FILE_NAME + "." + generation);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+    }
+}
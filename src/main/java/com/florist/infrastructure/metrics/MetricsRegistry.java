@@ -0,0 +1,81 @@
+package com.florist.infrastructure.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named counters and latency timers of the application.
+ * <p>
+ * Repositories are timed without touching their code: {@link #instrument}
+ * wraps one in a dynamic proxy that times every call of its interface.
+ * Services time their entry points with {@link #timer(String)}. Values
+ * cover the interval since the last report, see {@link MetricsFileReporter}.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Wraps an implementation so every call through the interface is timed
+     * as {@code group.Interface.method}, overloads sharing a timer. A call
+     * that throws counts as an error.
+     *
+     * @return a proxy implementing the interface
+     */
+    public <T> T instrument(Class<T> type, T target, String group) {
+        Map<Method, Timer> methodTimers = new ConcurrentHashMap<>();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return invoke(target, method, args);
+                    }
+                    Timer timer = methodTimers.computeIfAbsent(method,
+                            m -> timer(group + "." + type.getSimpleName() + "." + m.getName()));
+                    long start = System.nanoTime();
+                    boolean failed = true;
+                    try {
+                        Object result = invoke(target, method, args);
+                        failed = false;
+                        return result;
+                    } finally {
+                        timer.record(System.nanoTime() - start, failed);
+                    }
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Takes the values of the interval just ended and starts a new one.
+     */
+    Report snapshotAndReset() {
+        SortedMap<String, Timer.Interval> timerValues = new TreeMap<>();
+        timers.forEach((name, timer) -> timerValues.put(name, timer.snapshotAndReset()));
+        SortedMap<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sumThenReset()));
+        return new Report(timerValues, counterValues);
+    }
+
+    record Report(SortedMap<String, Timer.Interval> timers, SortedMap<String, Long> counters) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.florist.infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latencies and failures of one operation since the last report.
+ */
+public final class Timer {
+
+    private final AtomicReference<LatencyHistogram> histogram = new AtomicReference<>(new LatencyHistogram());
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Runs the operation and records how long it took, and whether it threw.
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = operation.get();
+            failed = false;
+            return result;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    public void run(Runnable operation) {
+        time(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    public void record(long nanos, boolean failed) {
+        histogram.get().record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Starts a new interval. A call finishing during the swap may land in
+     * the interval already reported and go uncounted, which is acceptable
+     * for statistics.
+     */
+    Interval snapshotAndReset() {
+        LatencyHistogram previous = histogram.getAndSet(new LatencyHistogram());
+        return new Interval(previous.snapshot(), errors.sumThenReset());
+    }
+
+    record Interval(LatencyHistogram.Snapshot latency, long errors) {
+    }
+}
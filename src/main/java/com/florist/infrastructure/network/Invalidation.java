@@ -0,0 +1,24 @@
+package com.florist.infrastructure.network;
+
+/**
+ * A compact notice that a row changed on another terminal.
+ * Receivers re-read the row; the notice itself carries no data.
+ *
+ * @param entityType kind of row
+ * @param operation  what happened to it
+ * @param entityId   row ID
+ * @param version    sender clock in epoch millis when the write committed
+ */
+public record Invalidation(EntityType entityType, Operation operation, int entityId, long version) {
+
+    public enum EntityType {
+        FLOWER,
+        SALE
+    }
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,162 @@
+package com.florist.infrastructure.network;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * UDP multicast channel carrying {@link Invalidation} notices between
+ * instances on the same network.
+ * 
+ * Datagram layout (big endian):
+ * magic (2) | protocol version (1) | sender UUID (16) | count (2) |
+ * count x [entity type (1) | operation (1) | entity ID (4) | version (8)]
+ * 
+ * Several channels can share a host, including one JVM: the socket reuses
+ * its address and multicast loopback is on, so instances can be exercised
+ * against each other on the loopback interface.
+ */
+public class InvalidationChannel implements AutoCloseable {
+
+    public static final String DEFAULT_GROUP = "239.255.77.77";
+    public static final int DEFAULT_PORT = 47770;
+
+    private static final short MAGIC = 0x5053; // "PS"
+    private static final byte PROTOCOL_VERSION = 1;
+    private static final int HEADER_SIZE = 2 + 1 + 16 + 2;
+    private static final int ENTRY_SIZE = 1 + 1 + 4 + 8;
+    // Stay well under a typical 1500 byte MTU
+    private static final int MAX_ENTRIES_PER_DATAGRAM = 96;
+    private static final int MAX_DATAGRAM_SIZE = HEADER_SIZE + ENTRY_SIZE * MAX_ENTRIES_PER_DATAGRAM;
+
+    private final UUID senderId;
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final MulticastSocket socket;
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    /**
+     * Opens the channel and starts receiving.
+     *
+     * @param senderId         identifies this instance, its own datagrams are ignored
+     * @param groupAddress     multicast group, e.g. {@link #DEFAULT_GROUP}
+     * @param port             UDP port shared by all instances
+     * @param networkInterface interface to join on, null for the system default
+     * @param listener         called on the receiver thread for each notice from a peer
+     * @throws IOException if the socket cannot be opened or the group joined
+     */
+    public InvalidationChannel(UUID senderId, String groupAddress, int port, NetworkInterface networkInterface,
+            Consumer<Invalidation> listener) throws IOException {
+        this.senderId = senderId;
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        this.networkInterface = networkInterface;
+
+        this.socket = new MulticastSocket(port);
+        socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        socket.setTimeToLive(1); // shop network only
+        if (networkInterface != null) {
+            socket.setNetworkInterface(networkInterface);
+        }
+        socket.joinGroup(group, networkInterface);
+
+        this.receiver = new Thread(() -> receiveLoop(listener), "invalidation-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Broadcasts notices to all peers, packing as many as fit per datagram.
+     *
+     * @param invalidations notices to send
+     * @throws IOException if sending fails
+     */
+    public void send(List<Invalidation> invalidations) throws IOException {
+        for (int from = 0; from < invalidations.size(); from += MAX_ENTRIES_PER_DATAGRAM) {
+            int to = Math.min(invalidations.size(), from + MAX_ENTRIES_PER_DATAGRAM);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + ENTRY_SIZE * (to - from));
+            buffer.putShort(MAGIC);
+            buffer.put(PROTOCOL_VERSION);
+            buffer.putLong(senderId.getMostSignificantBits());
+            buffer.putLong(senderId.getLeastSignificantBits());
+            buffer.putShort((short) (to - from));
+            for (int i = from; i < to; i++) {
+                Invalidation invalidation = invalidations.get(i);
+                buffer.put((byte) invalidation.entityType().ordinal());
+                buffer.put((byte) invalidation.operation().ordinal());
+                buffer.putInt(invalidation.entityId());
+                buffer.putLong(invalidation.version());
+            }
+            socket.send(new DatagramPacket(buffer.array(), buffer.position(), group));
+        }
+    }
+
+    private void receiveLoop(Consumer<Invalidation> listener) {
+        byte[] data = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(data, data.length);
+
+        while (running) {
+            try {
+                packet.setLength(data.length);
+                socket.receive(packet);
+                for (Invalidation invalidation : decode(ByteBuffer.wrap(data, 0, packet.getLength()))) {
+                    listener.accept(invalidation);
+                }
+            } catch (SocketException e) {
+                // Socket closed by close()
+                if (running) {
+                    System.err.println("[INVALIDATION] Receive failed: " + e.getMessage());
+                }
+            } catch (Exception e) {
+                System.err.println("[INVALIDATION] Receive failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Invalidation> decode(ByteBuffer buffer) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getShort() != MAGIC || buffer.get() != PROTOCOL_VERSION) {
+            return invalidations;
+        }
+
+        UUID sender = new UUID(buffer.getLong(), buffer.getLong());
+        if (sender.equals(senderId)) {
+            return invalidations;
+        }
+
+        int count = buffer.getShort() & 0xFFFF;
+        Invalidation.EntityType[] types = Invalidation.EntityType.values();
+        Invalidation.Operation[] operations = Invalidation.Operation.values();
+        for (int i = 0; i < count && buffer.remaining() >= ENTRY_SIZE; i++) {
+            int type = buffer.get();
+            int operation = buffer.get();
+            int entityId = buffer.getInt();
+            long version = buffer.getLong();
+            if (type >= 0 && type < types.length && operation >= 0 && operation < operations.length) {
+                invalidations.add(new Invalidation(types[type], operations[operation], entityId, version));
+            }
+        }
+        return invalidations;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } catch (IOException e) {
+            // Ignore
+        }
+        socket.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.model.StockAlert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Maps stock alert rows selected with {@link #COLUMNS}, plus the flower's
+ * name when the query joins it as {@code flower_name}.
+ */
+public final class AlertRowMapper implements RowMapper<StockAlert> {
+
+    /**
+     * Columns of an alert, from the stock_alerts table aliased {@code a}.
+     */
+    public static final String COLUMNS = "a.id, a.flower_id, a.alert_type, a.severity, a.message, " +
+            "a.generated_date, a.resolved";
+
+    private final int id;
+    private final int flowerId;
+    private final int alertType;
+    private final int severity;
+    private final int message;
+    private final int generatedDate;
+    private final int resolved;
+    private final int flowerName;
+
+    public AlertRowMapper(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs);
+        id = columns.required("id");
+        flowerId = columns.required("flower_id");
+        alertType = columns.required("alert_type");
+        severity = columns.required("severity");
+        message = columns.required("message");
+        generatedDate = columns.required("generated_date");
+        resolved = columns.required("resolved");
+        flowerName = columns.optional("flower_name");
+    }
+
+    @Override
+    public StockAlert map(ResultSet rs) throws SQLException {
+        StockAlert alert = new StockAlert();
+        alert.setId(rs.getInt(id));
+        alert.setFlowerId(rs.getInt(flowerId));
+        alert.setAlertType(rs.getString(alertType));
+        alert.setSeverity(rs.getString(severity));
+        alert.setMessage(rs.getString(message));
+        LocalDate date = rs.getObject(generatedDate, LocalDate.class);
+        if (date != null) {
+            alert.setGeneratedDate(date);
+        }
+        alert.setResolved(rs.getBoolean(resolved));
+        if (flowerName > 0) {
+            alert.setFlowerName(rs.getString(flowerName));
+        }
+        return alert;
+    }
+}
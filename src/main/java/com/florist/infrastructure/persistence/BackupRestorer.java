@@ -0,0 +1,422 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.io.BackupManifest;
+import com.florist.io.FileImportService;
+import com.florist.io.SnapshotBlock;
+import com.florist.io.SnapshotFormat.Table;
+import com.florist.io.SnapshotReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores the database from backups written by {@link StreamingBackupWriter}.
+ * The tables are emptied, then each backup of a chain is replayed in order,
+ * all in one transaction. Binary snapshots are loaded with multi-row
+ * inserts, CSV backups with batched upserts followed by their deletions.
+ * Stock alerts are only part of binary snapshots, the next alert check
+ * brings them up to date.
+ * <p>
+ * {@link #bulkRestore} loads the full backup through a {@link BulkBackupLoader}
+ * instead, much faster for large databases but not in one transaction.
+ */
+public class BackupRestorer {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ROWS_PER_INSERT = 500;
+
+    // Children first for deleting, the bulk loader fills them parents first
+    private static final String[] RESTORED_TABLES = { "stock_alerts", "sales", "flowers", "suppliers" };
+
+    private static final String SUPPLIER_UPSERT = "INSERT INTO suppliers (id, name, phone, email) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), phone = VALUES(phone), email = VALUES(email)";
+
+    private static final String FLOWER_UPSERT = "INSERT INTO flowers (id, name, color, category, price, " +
+            "quantity, arrival_date, freshness_days, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), color = VALUES(color), category = VALUES(category), " +
+            "price = VALUES(price), quantity = VALUES(quantity), arrival_date = VALUES(arrival_date), " +
+            "freshness_days = VALUES(freshness_days), supplier_id = VALUES(supplier_id)";
+
+    private static final String SALE_UPSERT = "INSERT INTO sales (id, sale_date, flower_id, quantity_sold, " +
+            "total_price, customer_name) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE sale_date = VALUES(sale_date), flower_id = VALUES(flower_id), " +
+            "quantity_sold = VALUES(quantity_sold), total_price = VALUES(total_price), " +
+            "customer_name = VALUES(customer_name)";
+
+    private final BulkBackupLoader bulkLoader = new BulkBackupLoader();
+
+    /**
+     * Replaces the database content with the given backups.
+     *
+     * @param directory backup directory
+     * @param suffixes  backups to replay, starting with a full backup
+     * @return number of rows applied
+     */
+    public long restore(File directory, List<String> suffixes) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                // Rows are loaded table by table, and CSV backups taken before
+                // consistent snapshots may hold sales of flowers from a later backup
+                stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+                try {
+                    stmt.executeUpdate("DELETE FROM stock_alerts");
+                    stmt.executeUpdate("DELETE FROM sales");
+                    stmt.executeUpdate("DELETE FROM flowers");
+                    stmt.executeUpdate("DELETE FROM suppliers");
+
+                    long rows = replay(conn, directory, suffixes);
+                    conn.commit();
+                    return rows;
+                } catch (SQLException | IOException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the database content with the given backups, bulk loading the
+     * full backup. The tables are truncated and their secondary indexes
+     * dropped, the full backup is loaded with foreign key and unique checks
+     * off, then the indexes are rebuilt and the remaining backups replayed
+     * in one transaction.
+     * <p>
+     * Truncating and rebuilding indexes commit implicitly: a restore that
+     * fails part way leaves the tables partly loaded and must be run again.
+     * Falls back to {@link #restore} when the full backup cannot be bulk
+     * loaded or the server does not accept local files.
+     *
+     * @param directory backup directory
+     * @param suffixes  backups to replay, starting with a full backup
+     * @return number of rows applied
+     */
+    public long bulkRestore(File directory, List<String> suffixes) throws SQLException, IOException {
+        if (!bulkLoader.canLoad(directory, suffixes.get(0))) {
+            System.out.println("[RESTORE] Backup " + suffixes.get(0) + " cannot be bulk loaded, inserting rows");
+            return restore(directory, suffixes);
+        }
+
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseConnection.openBulkLoadConnection();
+                Statement stmt = conn.createStatement()) {
+            // Checked before anything is truncated: neither TRUNCATE nor ALTER can be rolled back
+            if (!bulkLoader.serverAllowsLocalInfile(conn)) {
+                System.out.println("[RESTORE] Server has local_infile off, inserting rows");
+                return restore(directory, suffixes);
+            }
+
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+            stmt.execute("SET UNIQUE_CHECKS = 0");
+            try {
+                for (String table : RESTORED_TABLES) {
+                    stmt.execute("TRUNCATE TABLE " + table);
+                }
+
+                long rows;
+                List<SecondaryIndexes.Index> dropped = SecondaryIndexes.drop(conn, RESTORED_TABLES);
+                try {
+                    rows = bulkLoader.load(conn, directory, suffixes.get(0));
+                } finally {
+                    long rebuild = System.nanoTime();
+                    SecondaryIndexes.restore(conn, dropped);
+                    System.out.printf("[RESTORE] Rebuilt %d indexes in %.1f s%n", dropped.size(),
+                            (System.nanoTime() - rebuild) / 1e9);
+                }
+
+                if (suffixes.size() > 1) {
+                    conn.setAutoCommit(false);
+                    try {
+                        rows += replay(conn, directory, suffixes.subList(1, suffixes.size()));
+                        conn.commit();
+                    } catch (SQLException | IOException | RuntimeException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+
+                System.out.printf("[RESTORE] Bulk restored %d rows in %.1f s%n", rows,
+                        (System.nanoTime() - start) / 1e9);
+                return rows;
+            } finally {
+                stmt.execute("SET UNIQUE_CHECKS = 1");
+                stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+    }
+
+    /**
+     * Applies backups in order to tables with foreign key checks off.
+     */
+    private long replay(Connection conn, File directory, List<String> suffixes) throws SQLException, IOException {
+        long rows = 0;
+        for (String suffix : suffixes) {
+            File snapshot = BackupManifest.findSnapshot(directory, suffix);
+            if (snapshot != null) {
+                rows += restoreSnapshot(conn, snapshot);
+                continue;
+            }
+            rows += restoreSuppliers(conn, new File(directory, "suppliers_" + suffix + ".csv"));
+            rows += restoreFlowers(conn, new File(directory, "flowers_" + suffix + ".csv"));
+            rows += restoreSales(conn, new File(directory, "sales_" + suffix + ".csv"));
+            rows += applyDeletions(conn, new File(directory, "deletions_" + suffix + ".csv"));
+        }
+        return rows;
+    }
+
+    /**
+     * Loads a binary snapshot into emptied tables. Each block is inserted
+     * with statements of {@link #ROWS_PER_INSERT} rows, plus one shorter
+     * statement for the rest of the block.
+     */
+    private long restoreSnapshot(Connection conn, File file) throws SQLException, IOException {
+        // Prepared inserts per table and row count, blocks of different tables may be interleaved
+        Map<Table, Map<Integer, PreparedStatement>> statements = new EnumMap<>(Table.class);
+        long rows = 0;
+
+        try (SnapshotReader reader = new SnapshotReader(file.toPath())) {
+            SnapshotBlock block;
+            while ((block = reader.nextBlock()) != null) {
+                Table table = block.getTable();
+                Map<Integer, PreparedStatement> tableStatements = statements.computeIfAbsent(table,
+                        t -> new HashMap<>());
+
+                int count = block.getRowCount();
+                for (int start = 0; start < count; start += ROWS_PER_INSERT) {
+                    int batch = Math.min(ROWS_PER_INSERT, count - start);
+                    PreparedStatement pstmt = tableStatements.get(batch);
+                    if (pstmt == null) {
+                        pstmt = conn.prepareStatement(insertSql(table, batch));
+                        tableStatements.put(batch, pstmt);
+                    }
+                    bindRows(pstmt, block, start, batch);
+                    pstmt.executeUpdate();
+                }
+                rows += count;
+            }
+        } finally {
+            for (Map<Integer, PreparedStatement> tableStatements : statements.values()) {
+                for (PreparedStatement pstmt : tableStatements.values()) {
+                    pstmt.close();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String insertSql(Table table, int rowCount) {
+        StringBuilder placeholders = new StringBuilder("(");
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        placeholders.append(")");
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getTableName())
+                .append(" (").append(table.columnList()).append(") VALUES ");
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+
+    private static void bindRows(PreparedStatement pstmt, SnapshotBlock block, int start, int rowCount)
+            throws SQLException {
+        Table table = block.getTable();
+        int columns = table.getColumnCount();
+        int index = 1;
+        for (int row = start; row < start + rowCount; row++) {
+            for (int column = 0; column < columns; column++) {
+                switch (table.getColumn(column).type()) {
+                    case TEXT -> {
+                        String value = block.getString(column, row);
+                        if (value == null) {
+                            pstmt.setNull(index, Types.VARCHAR);
+                        } else {
+                            pstmt.setString(index, value);
+                        }
+                    }
+                    case CENTS -> pstmt.setBigDecimal(index, BigDecimal.valueOf(block.getLong(column, row), 2));
+                    case DATE -> pstmt.setDate(index, Date.valueOf(LocalDate.ofEpochDay(block.getLong(column, row))));
+                    case FLAG -> pstmt.setBoolean(index, block.getLong(column, row) != 0);
+                    case REF -> {
+                        int id = block.getInt(column, row);
+                        if (id > 0) {
+                            pstmt.setInt(index, id);
+                        } else {
+                            pstmt.setNull(index, Types.INTEGER);
+                        }
+                    }
+                    default -> pstmt.setInt(index, block.getInt(column, row));
+                }
+                index++;
+            }
+        }
+    }
+
+    private long restoreSuppliers(Connection conn, File file) throws SQLException, IOException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SUPPLIER_UPSERT);
+                BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // Skip header
+            String line = reader.readLine();
+            long rows = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = FileImportService.parseCSVLine(line);
+                if (parts.length < 4) {
+                    continue;
+                }
+                pstmt.setInt(1, Integer.parseInt(parts[0]));
+                pstmt.setString(2, parts[1]);
+                setNullableString(pstmt, 3, parts[2]);
+                setNullableString(pstmt, 4, parts[3]);
+                pstmt.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            return rows;
+        }
+    }
+
+    private long restoreFlowers(Connection conn, File file) throws SQLException, IOException {
+        try (PreparedStatement pstmt = conn.prepareStatement(FLOWER_UPSERT);
+                BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // Skip header
+            String line = reader.readLine();
+            long rows = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = FileImportService.parseCSVLine(line);
+                if (parts.length < 9) {
+                    continue;
+                }
+                pstmt.setInt(1, Integer.parseInt(parts[0]));
+                pstmt.setString(2, parts[1]);
+                setNullableString(pstmt, 3, parts[2]);
+                setNullableString(pstmt, 4, parts[3]);
+                pstmt.setDouble(5, Double.parseDouble(parts[4]));
+                pstmt.setInt(6, Integer.parseInt(parts[5]));
+                pstmt.setDate(7, Date.valueOf(LocalDate.parse(parts[6])));
+                pstmt.setInt(8, Integer.parseInt(parts[7]));
+                // Exports write a missing supplier as 0
+                int supplierId = Integer.parseInt(parts[8]);
+                if (supplierId > 0) {
+                    pstmt.setInt(9, supplierId);
+                } else {
+                    pstmt.setNull(9, Types.INTEGER);
+                }
+                pstmt.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            return rows;
+        }
+    }
+
+    private long restoreSales(Connection conn, File file) throws SQLException, IOException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SALE_UPSERT);
+                BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // Skip header
+            String line = reader.readLine();
+            long rows = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = FileImportService.parseCSVLine(line);
+                if (parts.length < 6) {
+                    continue;
+                }
+                pstmt.setInt(1, Integer.parseInt(parts[0]));
+                pstmt.setDate(2, Date.valueOf(LocalDate.parse(parts[1])));
+                pstmt.setInt(3, Integer.parseInt(parts[2]));
+                pstmt.setInt(4, Integer.parseInt(parts[3]));
+                pstmt.setDouble(5, Double.parseDouble(parts[4]));
+                setNullableString(pstmt, 6, parts[5]);
+                pstmt.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            return rows;
+        }
+    }
+
+    /**
+     * Applies the deletions of an incremental backup. Foreign key checks are
+     * off during a restore, so the ON DELETE actions are carried out by hand.
+     */
+    private long applyDeletions(Connection conn, File file) throws SQLException, IOException {
+        if (!file.exists()) {
+            // Full backups have no deletions
+            return 0;
+        }
+
+        try (PreparedStatement deleteFlowerSales = conn.prepareStatement("DELETE FROM sales WHERE flower_id = ?");
+                PreparedStatement deleteFlowerAlerts = conn.prepareStatement(
+                        "DELETE FROM stock_alerts WHERE flower_id = ?");
+                PreparedStatement deleteFlower = conn.prepareStatement("DELETE FROM flowers WHERE id = ?");
+                PreparedStatement detachSupplier = conn.prepareStatement(
+                        "UPDATE flowers SET supplier_id = NULL WHERE supplier_id = ?");
+                PreparedStatement deleteSupplier = conn.prepareStatement("DELETE FROM suppliers WHERE id = ?");
+                BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // Skip header
+            String line = reader.readLine();
+            long rows = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = FileImportService.parseCSVLine(line);
+                if (parts.length < 2) {
+                    continue;
+                }
+                int id = Integer.parseInt(parts[1]);
+                if (ChangeTrackingRepository.ENTITY_FLOWER.equals(parts[0])) {
+                    deleteFlowerSales.setInt(1, id);
+                    deleteFlowerSales.executeUpdate();
+                    deleteFlowerAlerts.setInt(1, id);
+                    deleteFlowerAlerts.executeUpdate();
+                    deleteFlower.setInt(1, id);
+                    deleteFlower.executeUpdate();
+                } else if (ChangeTrackingRepository.ENTITY_SUPPLIER.equals(parts[0])) {
+                    detachSupplier.setInt(1, id);
+                    detachSupplier.executeUpdate();
+                    deleteSupplier.setInt(1, id);
+                    deleteSupplier.executeUpdate();
+                }
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private static void setNullableString(PreparedStatement pstmt, int index, String value) throws SQLException {
+        // Exports write null text as an empty field
+        if (value.isEmpty()) {
+            pstmt.setNull(index, Types.VARCHAR);
+        } else {
+            pstmt.setString(index, value);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.io.BackupManifest;
+import com.florist.io.SnapshotFormat.Table;
+import com.florist.io.SnapshotLoadStream;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Loads a full backup into emptied tables with MySQL's bulk loader,
+ * {@code LOAD DATA LOCAL INFILE}, fed from streams instead of files the
+ * server would have to reach. Binary snapshots are converted to the
+ * loader's text format a block at a time by {@link SnapshotLoadStream};
+ * CSV backups are sent as they are and parsed by the server.
+ * <p>
+ * Tables are loaded in foreign key order. The loader turns bad values into
+ * warnings instead of failing, so warnings are logged.
+ */
+public class BulkBackupLoader {
+
+    private static final String SNAPSHOT_FORMAT = " CHARACTER SET utf8mb4 " +
+            "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ";
+
+    /**
+     * Tells whether a backup can be bulk loaded, that is whether it is a
+     * binary snapshot or its CSV files use a charset MySQL knows.
+     */
+    public boolean canLoad(File directory, String suffix) {
+        return BackupManifest.findSnapshot(directory, suffix) != null || csvCharset() != null;
+    }
+
+    /**
+     * Tells whether the server accepts LOAD DATA LOCAL INFILE, which MySQL 8
+     * turns off by default (local_infile=OFF).
+     *
+     * @param conn a bulk load connection
+     */
+    public boolean serverAllowsLocalInfile(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT @@GLOBAL.local_infile")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Loads the backup's tables, each with one statement on the given connection.
+     *
+     * @return number of rows loaded
+     */
+    public long load(Connection conn, File directory, String suffix) throws SQLException, IOException {
+        File snapshot = BackupManifest.findSnapshot(directory, suffix);
+        if (snapshot != null) {
+            long rows = 0;
+            for (Table table : Table.values()) {
+                try (SnapshotLoadStream in = new SnapshotLoadStream(snapshot.toPath(), table)) {
+                    rows += load(conn, table.getTableName(), in, "LOAD DATA LOCAL INFILE '" + table.getTableName()
+                            + "' INTO TABLE " + table.getTableName() + SNAPSHOT_FORMAT
+                            + "(" + table.columnList() + ")");
+                }
+            }
+            return rows;
+        }
+
+        String charset = csvCharset();
+        if (charset == null) {
+            throw new IOException("No MySQL charset for " + Charset.defaultCharset());
+        }
+        return loadCsv(conn, new File(directory, "suppliers_" + suffix + ".csv"), "suppliers", charset,
+                "(id, name, @phone, @email) SET phone = NULLIF(@phone, ''), email = NULLIF(@email, '')")
+                + loadCsv(conn, new File(directory, "flowers_" + suffix + ".csv"), "flowers", charset,
+                        "(id, name, @color, @category, price, quantity, arrival_date, freshness_days, " +
+                                "@supplier_id) SET color = NULLIF(@color, ''), category = NULLIF(@category, ''), " +
+                                "supplier_id = NULLIF(@supplier_id, 0)")
+                + loadCsv(conn, new File(directory, "sales_" + suffix + ".csv"), "sales", charset,
+                        "(id, sale_date, flower_id, quantity_sold, total_price, @customer_name) " +
+                                "SET customer_name = NULLIF(@customer_name, '')");
+    }
+
+    private long loadCsv(Connection conn, File file, String table, String charset, String columns)
+            throws SQLException, IOException {
+        // Exports use the platform line separator
+        String lineEnd = endsLinesWithCrLf(file) ? "\\r\\n" : "\\n";
+        String sql = "LOAD DATA LOCAL INFILE '" + file.getName() + "' INTO TABLE " + table +
+                " CHARACTER SET " + charset + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' " +
+                "ESCAPED BY '' LINES TERMINATED BY '" + lineEnd + "' IGNORE 1 LINES " + columns;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), 256 * 1024)) {
+            return load(conn, table, in, sql);
+        }
+    }
+
+    private long load(Connection conn, String table, InputStream in, String sql) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(in);
+            long rows = stmt.executeLargeUpdate(sql);
+            logWarnings(table, stmt.getWarnings());
+            System.out.printf("[RESTORE] Loaded %d rows into %s in %.1f s%n", rows, table,
+                    (System.nanoTime() - start) / 1e9);
+            return rows;
+        }
+    }
+
+    private static void logWarnings(String table, SQLWarning warning) {
+        int count = 0;
+        for (; warning != null; warning = warning.getNextWarning()) {
+            if (count++ < 5) {
+                System.err.println("[RESTORE] " + table + ": " + warning.getMessage());
+            }
+        }
+        if (count > 5) {
+            System.err.println("[RESTORE] " + table + ": " + (count - 5) + " more warnings");
+        }
+    }
+
+    private static boolean endsLinesWithCrLf(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            int previous = -1;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    return previous == '\r';
+                }
+                previous = b;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * MySQL name of the charset CSV backups are written in, or null if it has none.
+     */
+    private static String csvCharset() {
+        switch (Charset.defaultCharset().name()) {
+            case "UTF-8":
+                return "utf8mb4";
+            case "windows-1252":
+            case "ISO-8859-1":
+                // MySQL's latin1 is windows-1252
+                return "latin1";
+            case "US-ASCII":
+                return "ascii";
+            default:
+                return null;
+        }
+    }
+}
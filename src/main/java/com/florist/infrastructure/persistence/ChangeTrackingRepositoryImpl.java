@@ -0,0 +1,242 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.model.Flower;
+import com.florist.model.Sale;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository implementation for change tracking.
+ * Flowers are tracked by updated_at, sales by their append-only ID and
+ * deletions by the tombstones table. ID windows start at the last row
+ * written before {@link #COMMIT_MARGIN}, so rows committed late are read
+ * on a later poll.
+ */
+public class ChangeTrackingRepositoryImpl implements ChangeTrackingRepository {
+
+    private static final String FLOWER_SELECT = "SELECT " + FlowerRowMapper.COLUMNS +
+            ", f.created_at, f.updated_at, s.name AS supplier_name " +
+            "FROM flowers f " +
+            "LEFT JOIN suppliers s ON f.supplier_id = s.id ";
+
+    private static final String SALE_SELECT = "SELECT " + SaleRowMapper.COLUMNS +
+            ", f.name AS flower_name, f.category AS flower_category " +
+            "FROM sales s " +
+            "LEFT JOIN flowers f ON s.flower_id = f.id ";
+
+    @Override
+    public Watermark currentWatermark() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return readWatermark(conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        throw new RuntimeException("Failed to read change watermark");
+    }
+
+    @Override
+    public List<FlowerChange> findFlowerChanges(LocalDateTime from, LocalDateTime to, String excludedTerminal) {
+        List<FlowerChange> changes = new ArrayList<>();
+        String sql = FLOWER_SELECT +
+                "WHERE f.updated_at >= ? AND f.updated_at < ? " +
+                "AND (f.terminal_id IS NULL OR f.terminal_id <> ?) " +
+                "ORDER BY f.updated_at, f.id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            pstmt.setString(3, excludedTerminal);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                FlowerRowMapper mapper = new FlowerRowMapper(rs);
+                int createdAtColumn = rs.findColumn("created_at");
+                int updatedAtColumn = rs.findColumn("updated_at");
+                while (rs.next()) {
+                    Flower flower = mapper.map(rs);
+                    Timestamp createdAt = rs.getTimestamp(createdAtColumn);
+                    boolean created = createdAt != null && !createdAt.toLocalDateTime().isBefore(from);
+                    LocalDateTime updatedAt = rs.getTimestamp(updatedAtColumn).toLocalDateTime();
+                    changes.add(new FlowerChange(flower, updatedAt, created));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read flower changes", e);
+        }
+        return changes;
+    }
+
+    @Override
+    public List<Sale> findNewSales(long afterId, String excludedTerminal) {
+        List<Sale> sales = new ArrayList<>();
+        String sql = SALE_SELECT +
+                "WHERE s.id > ? " +
+                "AND (s.terminal_id IS NULL OR s.terminal_id <> ?) " +
+                "ORDER BY s.id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, afterId);
+            pstmt.setString(2, excludedTerminal);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                SaleRowMapper mapper = new SaleRowMapper(rs);
+                while (rs.next()) {
+                    sales.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read new sales", e);
+        }
+        return sales;
+    }
+
+    @Override
+    public List<Tombstone> findTombstones(long afterId, String excludedTerminal) {
+        List<Tombstone> tombstones = new ArrayList<>();
+        String sql = "SELECT entity_type, entity_id FROM tombstones " +
+                "WHERE id > ? " +
+                "AND (terminal_id IS NULL OR terminal_id <> ?) " +
+                "ORDER BY id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, afterId);
+            pstmt.setString(2, excludedTerminal);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tombstones.add(new Tombstone(rs.getString("entity_type"), rs.getInt("entity_id")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read tombstones", e);
+        }
+        return tombstones;
+    }
+
+    @Override
+    public int pruneTombstones(LocalDateTime before) {
+        String sql = "DELETE FROM tombstones WHERE deleted_at < ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, Timestamp.valueOf(before));
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to prune tombstones", e);
+        }
+    }
+
+    @Override
+    public Optional<Flower> findFlower(int id) {
+        String sql = FLOWER_SELECT + "WHERE f.id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new FlowerRowMapper(rs).map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Sale> findSale(int id) {
+        String sql = SALE_SELECT + "WHERE s.id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new SaleRowMapper(rs).map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the current watermark on the given connection.
+     * The IDs are those of the last sale and tombstone written more than
+     * {@link #COMMIT_MARGIN} ago; a lower ID still uncommitted would belong
+     * to a transaction open longer than that.
+     */
+    static Watermark readWatermark(Connection conn) throws SQLException {
+        // Backward primary key scans, stopping at the first settled row
+        String sql = "SELECT NOW(), " +
+                "COALESCE((SELECT id FROM sales WHERE created_at < NOW() - INTERVAL ? SECOND " +
+                "ORDER BY id DESC LIMIT 1), 0), " +
+                "COALESCE((SELECT id FROM tombstones WHERE deleted_at < NOW() - INTERVAL ? SECOND " +
+                "ORDER BY id DESC LIMIT 1), 0)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, COMMIT_MARGIN.toSeconds());
+            pstmt.setLong(2, COMMIT_MARGIN.toSeconds());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Watermark(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getLong(3));
+                }
+            }
+        }
+        throw new SQLException("Watermark query returned no row");
+    }
+
+    /**
+     * Deletes a row and records its tombstone in one transaction.
+     *
+     * @param table      table to delete from
+     * @param entityType tombstone entity type
+     * @param id         row ID
+     * @param terminalId terminal performing the delete
+     * @return true if the row existed and was deleted
+     */
+    static boolean deleteWithTombstone(String table, String entityType, int id, String terminalId) {
+        String deleteSql = "DELETE FROM " + table + " WHERE id = ?";
+        String tombstoneSql = "INSERT INTO tombstones (entity_type, entity_id, terminal_id) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                    PreparedStatement tombstone = conn.prepareStatement(tombstoneSql)) {
+                delete.setInt(1, id);
+                if (delete.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+
+                tombstone.setString(1, entityType);
+                tombstone.setInt(2, id);
+                tombstone.setString(3, terminalId);
+                tombstone.executeUpdate();
+
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
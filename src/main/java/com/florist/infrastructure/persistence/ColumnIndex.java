@@ -0,0 +1,46 @@
+package com.florist.infrastructure.persistence;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Positions of the columns of a result set by label, read once from its
+ * metadata. Labels are matched ignoring case; when two columns share a
+ * label, the first one wins, as with {@link ResultSet#findColumn}.
+ */
+final class ColumnIndex {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            indexes.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    static ColumnIndex of(ResultSet rs) throws SQLException {
+        return new ColumnIndex(rs.getMetaData());
+    }
+
+    /**
+     * Index of a column the query must select.
+     */
+    int required(String label) throws SQLException {
+        Integer index = indexes.get(label);
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found in the result set");
+        }
+        return index;
+    }
+
+    /**
+     * Index of a column only some queries select, or 0 if this one does not.
+     */
+    int optional(String label) {
+        return indexes.getOrDefault(label, 0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.config.AppConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small bounded pool of connections for work that needs its own
+ * connections for a while, such as backups and exports, without opening
+ * a new one every time. Connections are handed out as leases that return
+ * them to the pool when closed, keeping the statements the driver cached
+ * for them. Pool size and borrow timeout come from {@link AppConfig}.
+ */
+public final class ConnectionPool {
+
+    /** Set by pool.maxConnections, read once at startup */
+    public static final int MAX_CONNECTIONS = AppConfig.POOL_MAX_CONNECTIONS.get();
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONNECTIONS, true);
+    private static final ConcurrentLinkedDeque<Connection> IDLE = new ConcurrentLinkedDeque<>();
+    private static volatile boolean closed = false;
+
+    private ConnectionPool() {
+    }
+
+    /**
+     * Borrows a connection, waiting while all of them are in use.
+     *
+     * @return a lease to close when done
+     * @throws SQLException if no connection became available in time
+     */
+    public static PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down");
+        }
+        try {
+            if (!PERMITS.tryAcquire(AppConfig.POOL_BORROW_TIMEOUT_SECONDS.get(), TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out waiting for a pooled connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        return lease();
+    }
+
+    /**
+     * Hands out an idle or new connection for a permit already acquired.
+     */
+    private static PooledConnection lease() throws SQLException {
+        try {
+            Connection connection;
+            while ((connection = IDLE.pollFirst()) != null) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return new PooledConnection(connection);
+                }
+                closeQuietly(connection);
+            }
+            return new PooledConnection(DatabaseConnection.openDedicatedConnection());
+        } catch (SQLException | RuntimeException e) {
+            PERMITS.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrows a connection only if one is free right now.
+     *
+     * @return a lease to close when done, or null when all connections are in use
+     */
+    public static PooledConnection tryBorrow() throws SQLException {
+        if (closed || !PERMITS.tryAcquire()) {
+            return null;
+        }
+        return lease();
+    }
+
+    /**
+     * Closes all idle connections. Leased connections are closed when returned.
+     */
+    public static void shutdown() {
+        closed = true;
+        Connection connection;
+        while ((connection = IDLE.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void release(Connection connection) {
+        try {
+            // Never hand out a connection in the middle of a transaction
+            if (!connection.isClosed() && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+                IDLE.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            PERMITS.release();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Lease on a pooled connection. Closing the lease returns the
+     * connection to the pool, it must not be closed directly.
+     */
+    public static final class PooledConnection implements AutoCloseable {
+
+        private Connection connection;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection already returned to the pool");
+            }
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            if (connection != null) {
+                release(connection);
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.domain.repository.ChangeTrackingRepository.Watermark;
+import com.florist.infrastructure.persistence.ConnectionPool.PooledConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of pooled connections that all read the same committed state.
+ * <p>
+ * The backed-up tables are briefly locked for reading on a coordinator
+ * connection. That waits for in-flight writes to commit and holds new ones
+ * back while every worker starts a consistent-snapshot transaction, after
+ * which the lock is released. Readers on different workers can then stream
+ * different tables in parallel and still see one point in time.
+ * <p>
+ * The coordinator and the workers all come from the {@link ConnectionPool}.
+ * Beyond the first, workers are only taken if free right away, and never
+ * more than the pool holds besides the coordinator, so a small pool or a
+ * concurrent export cannot make a backup wait for itself. The snapshot may
+ * therefore have fewer workers than requested.
+ * <p>
+ * When fewer than two workers are available, or the lock cannot be taken
+ * (missing LOCK TABLES privilege, or writers holding it past the lock wait
+ * timeout), a single snapshot connection is used and
+ * {@link #getParallelism()} is 1.
+ */
+public class ConsistentSnapshot implements AutoCloseable {
+
+    private static final String LOCK_SQL = "LOCK TABLES suppliers READ, flowers READ, sales READ, " +
+            "stock_alerts READ, tombstones READ";
+    private static final String START_SQL = "START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY";
+    private static final int LOCK_WAIT_TIMEOUT_SECONDS = 10;
+
+    private final List<PooledConnection> workers;
+    private final Watermark watermark;
+
+    private ConsistentSnapshot(List<PooledConnection> workers, Watermark watermark) {
+        this.workers = workers;
+        this.watermark = watermark;
+    }
+
+    /**
+     * Opens a snapshot shared by up to the given number of connections.
+     * Connection {@code i} of a snapshot with fewer workers is shared with
+     * the other indexes equal modulo {@link #getParallelism()}.
+     *
+     * @param parallelism number of connections wanted
+     * @return the snapshot, to be closed when all reads are done
+     */
+    public static ConsistentSnapshot open(int parallelism) throws SQLException {
+        List<PooledConnection> workers = new ArrayList<>();
+        try {
+            // One pooled connection is kept for the coordinator
+            int wanted = Math.min(parallelism, ConnectionPool.MAX_CONNECTIONS - 1);
+            if (wanted > 1) {
+                // Borrow before locking, so writers are never held back while waiting on the pool
+                PooledConnection coordinator = ConnectionPool.borrow();
+                try {
+                    PooledConnection worker;
+                    while (workers.size() < wanted && (worker = ConnectionPool.tryBorrow()) != null) {
+                        workers.add(worker);
+                    }
+                    if (workers.size() > 1) {
+                        Watermark watermark = openFenced(coordinator.connection(), workers);
+                        if (watermark != null) {
+                            return new ConsistentSnapshot(workers, watermark);
+                        }
+                    }
+                } finally {
+                    coordinator.close();
+                }
+                // Fall back to one connection
+                while (workers.size() > 1) {
+                    workers.remove(workers.size() - 1).close();
+                }
+            }
+            if (workers.isEmpty()) {
+                workers.add(ConnectionPool.borrow());
+            }
+
+            Connection conn = workers.get(0).connection();
+            // Time first: a row changed before the snapshot starts must not fall after the watermark
+            Watermark before = ChangeTrackingRepositoryImpl.readWatermark(conn);
+            beginSnapshot(conn);
+            Watermark inside = ChangeTrackingRepositoryImpl.readWatermark(conn);
+            return new ConsistentSnapshot(workers,
+                    new Watermark(before.time(), inside.saleId(), inside.tombstoneId()));
+        } catch (SQLException | RuntimeException e) {
+            for (PooledConnection worker : workers) {
+                worker.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the worker snapshots under a read lock.
+     *
+     * @return the watermark read under the lock, or null if the lock could not be taken
+     */
+    private static Watermark openFenced(Connection coordinator, List<PooledConnection> workers)
+            throws SQLException {
+        try (Statement stmt = coordinator.createStatement()) {
+            stmt.execute("SET SESSION lock_wait_timeout = " + LOCK_WAIT_TIMEOUT_SECONDS);
+            try {
+                stmt.execute(LOCK_SQL);
+            } catch (SQLException e) {
+                System.err.println("[BACKUP] Cannot lock tables, using a single snapshot connection: "
+                        + e.getMessage());
+                stmt.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                return null;
+            }
+
+            try {
+                Watermark watermark = ChangeTrackingRepositoryImpl.readWatermark(coordinator);
+                for (PooledConnection worker : workers) {
+                    beginSnapshot(worker.connection());
+                }
+                return watermark;
+            } finally {
+                stmt.execute("UNLOCK TABLES");
+                stmt.execute("SET SESSION lock_wait_timeout = DEFAULT");
+            }
+        }
+    }
+
+    private static void beginSnapshot(Connection conn) throws SQLException {
+        // WITH CONSISTENT SNAPSHOT only pins the read view under REPEATABLE READ
+        conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(START_SQL);
+        }
+    }
+
+    /**
+     * Change log position matching the snapshot.
+     */
+    public Watermark getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Number of connections that can read concurrently.
+     */
+    public int getParallelism() {
+        return workers.size();
+    }
+
+    /**
+     * Connection of the given worker. With a parallelism of 1 every index
+     * maps to the same connection, which must then be used sequentially.
+     */
+    public Connection connection(int worker) {
+        return workers.get(worker % workers.size()).connection();
+    }
+
+    /**
+     * Ends the snapshot transactions and returns the connections to the pool.
+     */
+    @Override
+    public void close() {
+        for (PooledConnection worker : workers) {
+            try {
+                worker.connection().commit();
+            } catch (SQLException e) {
+                // Read-only, nothing to lose
+            }
+            worker.close();
+        }
+    }
+}
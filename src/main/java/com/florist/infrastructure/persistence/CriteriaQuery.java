@@ -0,0 +1,175 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.domain.repository.Criteria;
+import com.florist.domain.repository.Keyset;
+import com.florist.domain.repository.Page;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Turns repository criteria into a parameterized query.
+ * <p>
+ * Every filter is offered with {@link #where} in a fixed order, set or not,
+ * so the filters in use, the sort order and the paging make up the query's
+ * shape. Values are always bound as parameters, so queries of the same shape
+ * share their statement text; it is built once and kept in the caller's
+ * cache, and the driver sees the same SQL each time.
+ * <p>
+ * Pages use keyset pagination: rows are ordered by the sort column then ID,
+ * and the next page starts after the last row's values instead of skipping
+ * an offset, so deep pages cost no more than the first one.
+ */
+final class CriteriaQuery {
+
+    private final String select;
+    private final String idColumn;
+    private final Map<Long, String> sqlCache;
+
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> params = new ArrayList<>();
+    private long shape;
+    private int filters;
+
+    private String sortColumn;
+    private boolean descending;
+    private Keyset after;
+    private int limit;
+
+    /**
+     * @param select   the query up to, without, its WHERE clause
+     * @param idColumn the ID column, which breaks sort ties
+     * @param sqlCache statement text by query shape, one per query
+     */
+    CriteriaQuery(String select, String idColumn, Map<Long, String> sqlCache) {
+        this.select = select;
+        this.idColumn = idColumn;
+        this.sqlCache = sqlCache;
+    }
+
+    /**
+     * Adds a condition with one parameter if the value is set.
+     */
+    CriteriaQuery where(Object value, String condition) {
+        if (filters == 32) {
+            throw new IllegalStateException("Too many filters");
+        }
+        if (value != null) {
+            conditions.add(condition);
+            params.add(value);
+            shape |= 1L << filters;
+        }
+        filters++;
+        return this;
+    }
+
+    /**
+     * Orders by the column, then ID, and takes the paging of the criteria.
+     */
+    CriteriaQuery orderBy(String column, Criteria<?, ?> criteria) {
+        this.sortColumn = column;
+        this.descending = criteria.isDescending();
+        this.after = criteria.getAfter();
+        this.limit = criteria.getLimit();
+        shape |= (long) criteria.getSort().ordinal() << 32;
+        shape |= descending ? 1L << 40 : 0;
+        shape |= after != null ? 1L << 41 : 0;
+        shape |= limit > 0 ? 1L << 42 : 0;
+        return this;
+    }
+
+    /**
+     * Prepares the statement with every parameter bound.
+     */
+    PreparedStatement prepare(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sqlCache.computeIfAbsent(shape, s -> buildSql()));
+        try {
+            int index = 1;
+            for (Object param : params) {
+                bind(pstmt, index++, param);
+            }
+            if (after != null) {
+                if (!sortColumn.equals(idColumn)) {
+                    bind(pstmt, index++, after.value());
+                    bind(pstmt, index++, after.value());
+                }
+                pstmt.setInt(index++, after.id());
+            }
+            if (limit > 0) {
+                // One more row tells whether there is a next page
+                pstmt.setInt(index, limit + 1);
+            }
+            return pstmt;
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the page from the rows read, which may hold one row too many.
+     *
+     * @param sortValue the sort column's value of a row
+     */
+    <T> Page<T> page(List<T> rows, Function<T, Object> sortValue, Function<T, Integer> id) {
+        if (limit == 0 || rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        rows.remove(limit);
+        T last = rows.get(limit - 1);
+        return new Page<>(rows, new Keyset(sortValue.apply(last), id.apply(last)));
+    }
+
+    private String buildSql() {
+        List<String> where = new ArrayList<>(conditions);
+        String direction = descending ? " DESC" : "";
+        if (after != null) {
+            String comparison = descending ? " < ?" : " > ?";
+            if (sortColumn.equals(idColumn)) {
+                where.add(idColumn + comparison);
+            } else {
+                // Spelled out rather than as a row comparison so the index is used
+                where.add("(" + sortColumn + comparison + " OR (" + sortColumn + " = ? AND " + idColumn
+                        + comparison + "))");
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(select);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ").append(sortColumn).append(direction);
+        if (!sortColumn.equals(idColumn)) {
+            sql.append(", ").append(idColumn).append(direction);
+        }
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+        if (value instanceof LocalDate date) {
+            pstmt.setDate(index, Date.valueOf(date));
+        } else {
+            pstmt.setObject(index, value);
+        }
+    }
+
+    /**
+     * Escapes LIKE wildcards so the text is matched as it is, anywhere in the column.
+     */
+    static String contains(String text) {
+        if (text == null) {
+            return null;
+        }
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -1,46 +1,93 @@
 package com.florist.infrastructure.persistence;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
  * Singleton class for managing database connections.
- * Provides a single connection instance to the MySQL database.
+ * Provides one connection instance per thread to the MySQL database, so
+ * event subscribers and background jobs never share (or close) the UI
+ * thread's connection.
+ * <p>
+ * The per-thread connection stays open across repository calls: closing
+ * it only ends any transaction left open. Statements the driver prepared
+ * on the server stay cached with it, so a query repeated by a thread is
+ * prepared once. Connection settings come from {@link DatabaseSettings}.
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/florist_db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
-    private static final String USER = "root";
-    private static final String PASSWORD = ""; // Set your MySQL root password here
 
-    private static Connection connection = null;
+    // A connection idle for longer may have been dropped by the server's wait_timeout
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 60_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final DatabaseSettings SETTINGS = DatabaseSettings.load();
+
+    private static final ThreadLocal<ThreadConnection> CONNECTION = new ThreadLocal<>();
 
     private DatabaseConnection() {
     }
 
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("MySQL JDBC Driver not found", e);
-            }
+        ThreadConnection current = CONNECTION.get();
+        if (current != null && current.isUsable()) {
+            return current.handle;
+        }
+        if (current != null) {
+            current.closePhysical();
+        }
+        current = new ThreadConnection(open(SETTINGS.connectionProperties()));
+        CONNECTION.set(current);
+        return current.handle;
+    }
+
+    /**
+     * Opens a new connection owned by the caller, outside the per-thread
+     * connection. Needed for session state that must outlive a single
+     * repository call, such as named locks.
+     *
+     * @return a new connection, to be closed by the caller
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        return open(SETTINGS.connectionProperties());
+    }
+
+    /**
+     * Opens a dedicated connection that may run LOAD DATA LOCAL INFILE,
+     * for bulk loads that hand the driver their data as a stream. Kept
+     * apart from the other connections, which cannot send local files.
+     * The server must have local_infile enabled.
+     *
+     * @return a new connection, to be closed by the caller
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection openBulkLoadConnection() throws SQLException {
+        Properties properties = SETTINGS.connectionProperties();
+        properties.setProperty("allowLoadLocalInfile", "true");
+        return open(properties);
+    }
+
+    private static Connection open(Properties properties) throws SQLException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+            return DriverManager.getConnection(SETTINGS.url(), properties);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("MySQL JDBC Driver not found", e);
         }
-        return connection;
     }
 
     /**
-     * Closes the database connection.
+     * Closes the calling thread's database connection.
      */
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                // Ignore
-            }
+        ThreadConnection current = CONNECTION.get();
+        if (current != null) {
+            current.closePhysical();
+            CONNECTION.remove();
         }
     }
 
@@ -67,4 +114,61 @@ public class DatabaseConnection {
             // Ignore
         }
     }
+
+    /**
+     * A thread's connection and the handle given out for it, whose close()
+     * leaves the connection open for the thread's next call.
+     */
+    private static final class ThreadConnection {
+
+        private final Connection physical;
+        private final Connection handle;
+        private long lastUsed;
+
+        ThreadConnection(Connection physical) {
+            this.physical = physical;
+            this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                            endTransaction();
+                            return null;
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        boolean isUsable() throws SQLException {
+            if (physical.isClosed()) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            boolean usable = now - lastUsed < VALIDATE_AFTER_IDLE_MILLIS
+                    || physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            lastUsed = now;
+            return usable;
+        }
+
+        /**
+         * Rolls back what the caller left uncommitted, as closing the connection used to.
+         */
+        private void endTransaction() throws SQLException {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Ignore
+            }
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.config.AppConfig;
+
+import java.util.Properties;
+
+/**
+ * Connection settings taken from {@link AppConfig}: {@code db.url},
+ * {@code db.user} and {@code db.password} locate the database, and every
+ * {@code driver.*} entry becomes a driver connection property on top of the
+ * defaults below, so driver tuning needs no code change.
+ */
+final class DatabaseSettings {
+
+    // Tells MySQL Connector/J to stream rows instead of buffering the whole result
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final String url;
+    private final Properties connectionProperties = new Properties();
+
+    private DatabaseSettings(AppConfig config) {
+        this.url = config.get(AppConfig.DB_URL);
+        connectionProperties.setProperty("useSSL", "false");
+        connectionProperties.setProperty("serverTimezone", "UTC");
+        connectionProperties.setProperty("allowPublicKeyRetrieval", "true");
+        // Prepare statements on the server once per connection and keep them in a
+        // per-connection cache keyed by SQL text, instead of interpolating every call
+        connectionProperties.setProperty("useServerPrepStmts", "true");
+        connectionProperties.setProperty("cachePrepStmts", "true");
+        connectionProperties.setProperty("prepStmtCacheSize", "256");
+        connectionProperties.setProperty("prepStmtCacheSqlLimit", "2048");
+        // Send a batch of INSERTs as multi-row statements
+        connectionProperties.setProperty("rewriteBatchedStatements", "true");
+        connectionProperties.putAll(config.getDriverProperties());
+        connectionProperties.setProperty("user", config.get(AppConfig.DB_USER));
+        connectionProperties.setProperty("password", config.get(AppConfig.DB_PASSWORD));
+    }
+
+    static DatabaseSettings load() {
+        return new DatabaseSettings(AppConfig.getInstance());
+    }
+
+    String url() {
+        return url;
+    }
+
+    /**
+     * User, password and driver properties, as a copy the caller may add to.
+     */
+    Properties connectionProperties() {
+        Properties copy = new Properties();
+        copy.putAll(connectionProperties);
+        return copy;
+    }
+
+    /**
+     * Fetch size for reads too long to buffer: rows are streamed one by one
+     * unless db.fetchSize is set, which reads that many per round trip
+     * through a server-side cursor (driver.useCursorFetch=true).
+     */
+    static int streamingFetchSize() {
+        int fetchSize = AppConfig.DB_FETCH_SIZE.get();
+        return fetchSize > 0 ? fetchSize : STREAMING_FETCH_SIZE;
+    }
+}
@@ -1,12 +1,25 @@
 package com.florist.infrastructure.persistence;
 
+import com.florist.config.TerminalIdentity;
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.domain.repository.FlowerCriteria;
 import com.florist.domain.repository.FlowerRepository;
+import com.florist.domain.repository.Page;
+import com.florist.infrastructure.persistence.ConnectionPool.PooledConnection;
 import com.florist.model.Flower;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository implementation for Flower entity.
@@ -14,17 +27,26 @@ import java.util.Optional;
  */
 public class FlowerRepositoryImpl implements FlowerRepository {
 
+    private static final String SELECT = "SELECT " + FlowerRowMapper.COLUMNS + " FROM flowers f ";
+
+    private static final String FIND_SELECT = "SELECT " + FlowerRowMapper.COLUMNS + ", s.name AS supplier_name " +
+            "FROM flowers f " +
+            "LEFT JOIN suppliers s ON f.supplier_id = s.id";
+
+    private static final Map<Long, String> FIND_SQL = new ConcurrentHashMap<>();
+
     @Override
     public List<Flower> findAll() {
         List<Flower> flowers = new ArrayList<>();
-        String sql = "SELECT * FROM flowers ORDER BY id";
+        String sql = SELECT + "ORDER BY f.id";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
+            FlowerRowMapper mapper = new FlowerRowMapper(rs);
             while (rs.next()) {
-                flowers.add(extractFlowerFromResultSet(rs));
+                flowers.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -35,19 +57,15 @@ public class FlowerRepositoryImpl implements FlowerRepository {
     @Override
     public List<Flower> findAllWithSuppliers() {
         List<Flower> flowers = new ArrayList<>();
-        String sql = "SELECT f.*, s.name AS supplier_name " +
-                "FROM flowers f " +
-                "LEFT JOIN suppliers s ON f.supplier_id = s.id " +
-                "ORDER BY f.id";
+        String sql = FIND_SELECT + " ORDER BY f.id";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
+            FlowerRowMapper mapper = new FlowerRowMapper(rs);
             while (rs.next()) {
-                Flower flower = extractFlowerFromResultSet(rs);
-                flower.setSupplierName(rs.getString("supplier_name"));
-                flowers.add(flower);
+                flowers.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -57,7 +75,7 @@ public class FlowerRepositoryImpl implements FlowerRepository {
 
     @Override
     public Optional<Flower> findById(int id) {
-        String sql = "SELECT * FROM flowers WHERE id = ?";
+        String sql = SELECT + "WHERE f.id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -65,7 +83,7 @@ public class FlowerRepositoryImpl implements FlowerRepository {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(extractFlowerFromResultSet(rs));
+                    return Optional.of(new FlowerRowMapper(rs).map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -74,6 +92,98 @@ public class FlowerRepositoryImpl implements FlowerRepository {
         return Optional.empty();
     }
 
+    @Override
+    public List<Flower> findExpiringBetween(LocalDate from, LocalDate to) {
+        String sql = SELECT + "WHERE f.expiry_date BETWEEN ? AND ? ORDER BY f.expiry_date, f.id";
+        return findByExpiry(sql, from, to);
+    }
+
+    @Override
+    public List<Flower> findExpiredAsOf(LocalDate date) {
+        String sql = SELECT + "WHERE f.expiry_date <= ? ORDER BY f.expiry_date, f.id";
+        return findByExpiry(sql, date);
+    }
+
+    @Override
+    public Page<Flower> find(FlowerCriteria criteria) {
+        CriteriaQuery query = new CriteriaQuery(FIND_SELECT, "f.id", FIND_SQL)
+                .where(criteria.getCategory(), "f.category = ?")
+                .where(criteria.getSupplierId(), "f.supplier_id = ?")
+                .where(criteria.getMinQuantity(), "f.quantity >= ?")
+                .where(criteria.getMaxQuantity(), "f.quantity <= ?")
+                .where(criteria.getExpiringFrom(), "f.expiry_date >= ?")
+                .where(criteria.getExpiringTo(), "f.expiry_date <= ?")
+                .orderBy(sortColumn(criteria.getSort()), criteria);
+        List<Flower> flowers = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = query.prepare(conn);
+                ResultSet rs = pstmt.executeQuery()) {
+
+            FlowerRowMapper mapper = new FlowerRowMapper(rs);
+            while (rs.next()) {
+                flowers.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return query.page(flowers, flower -> sortValue(flower, criteria.getSort()), Flower::getId);
+    }
+
+    private static String sortColumn(FlowerCriteria.Sort sort) {
+        switch (sort) {
+            case NAME:
+                return "f.name";
+            case PRICE:
+                return "f.price";
+            case QUANTITY:
+                return "f.quantity";
+            case EXPIRY_DATE:
+                return "f.expiry_date";
+            default:
+                return "f.id";
+        }
+    }
+
+    private static Object sortValue(Flower flower, FlowerCriteria.Sort sort) {
+        switch (sort) {
+            case NAME:
+                return flower.getName();
+            case PRICE:
+                return flower.getPrice();
+            case QUANTITY:
+                return flower.getQuantity();
+            case EXPIRY_DATE:
+                return flower.getExpiryDate();
+            default:
+                return flower.getId();
+        }
+    }
+
+    /**
+     * Runs a query on the indexed expiry_date column with the given dates.
+     */
+    private List<Flower> findByExpiry(String sql, LocalDate... dates) {
+        List<Flower> flowers = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < dates.length; i++) {
+                pstmt.setDate(i + 1, Date.valueOf(dates[i]));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                FlowerRowMapper mapper = new FlowerRowMapper(rs);
+                while (rs.next()) {
+                    flowers.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return flowers;
+    }
+
     @Override
     public Flower save(Flower flower) {
         if (flower.getId() == 0) {
@@ -85,8 +195,8 @@ public class FlowerRepositoryImpl implements FlowerRepository {
 
     private Flower insert(Flower flower) {
         String sql = "INSERT INTO flowers (name, color, category, price, quantity, " +
-                "arrival_date, freshness_days, supplier_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                "arrival_date, freshness_days, supplier_id, terminal_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -99,6 +209,7 @@ public class FlowerRepositoryImpl implements FlowerRepository {
             pstmt.setDate(6, Date.valueOf(flower.getArrivalDate()));
             pstmt.setInt(7, flower.getFreshnessDays());
             pstmt.setInt(8, flower.getSupplierId());
+            pstmt.setString(9, TerminalIdentity.getId());
 
             if (pstmt.executeUpdate() > 0) {
                 try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -116,7 +227,7 @@ public class FlowerRepositoryImpl implements FlowerRepository {
 
     private Flower update(Flower flower) {
         String sql = "UPDATE flowers SET name = ?, color = ?, category = ?, price = ?, " +
-                "quantity = ?, arrival_date = ?, freshness_days = ?, supplier_id = ? " +
+                "quantity = ?, arrival_date = ?, freshness_days = ?, supplier_id = ?, terminal_id = ? " +
                 "WHERE id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -130,7 +241,8 @@ public class FlowerRepositoryImpl implements FlowerRepository {
             pstmt.setDate(6, Date.valueOf(flower.getArrivalDate()));
             pstmt.setInt(7, flower.getFreshnessDays());
             pstmt.setInt(8, flower.getSupplierId());
-            pstmt.setInt(9, flower.getId());
+            pstmt.setString(9, TerminalIdentity.getId());
+            pstmt.setInt(10, flower.getId());
 
             if (pstmt.executeUpdate() > 0) {
                 return flower;
@@ -143,10 +255,18 @@ public class FlowerRepositoryImpl implements FlowerRepository {
 
     @Override
     public boolean delete(int id) {
-        String sql = "DELETE FROM flowers WHERE id = ?";
+        return ChangeTrackingRepositoryImpl.deleteWithTombstone("flowers",
+                ChangeTrackingRepository.ENTITY_FLOWER, id, TerminalIdentity.getId());
+    }
+
+    @Override
+    public boolean updateStock(int id, int quantity) {
+        String sql = "UPDATE flowers SET quantity = ?, terminal_id = ? WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
+            pstmt.setInt(1, quantity);
+            pstmt.setString(2, TerminalIdentity.getId());
+            pstmt.setInt(3, id);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -155,33 +275,123 @@ public class FlowerRepositoryImpl implements FlowerRepository {
     }
 
     @Override
-    public boolean updateStock(int id, int quantity) {
-        String sql = "UPDATE flowers SET quantity = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, quantity);
-            pstmt.setInt(2, id);
-            return pstmt.executeUpdate() > 0;
+    public DeliveryReceipt receiveDelivery(List<Flower> lines) {
+        // Lines for the same flower are added up, the last one sets price and dates
+        Map<String, Flower> delivered = new LinkedHashMap<>();
+        for (Flower line : lines) {
+            Flower total = delivered.putIfAbsent(deliveryKey(line.getName(), line.getColor(), line.getCategory(),
+                    line.getSupplierId()), line);
+            if (total != null) {
+                total.setQuantity(total.getQuantity() + line.getQuantity());
+                total.setPrice(line.getPrice());
+                total.setArrivalDate(line.getArrivalDate());
+                total.setFreshnessDays(line.getFreshnessDays());
+            }
+        }
+        if (delivered.isEmpty()) {
+            return new DeliveryReceipt(List.of(), List.of());
+        }
+
+        try (PooledConnection lease = ConnectionPool.borrow()) {
+            Connection conn = lease.connection();
+            conn.setAutoCommit(false);
+
+            Map<String, int[]> stock = lockStock(conn, delivered.values());
+            List<Flower> created = new ArrayList<>();
+            List<Flower> restocked = new ArrayList<>();
+
+            String restockSql = "UPDATE flowers SET quantity = quantity + ?, price = ?, arrival_date = ?, " +
+                    "freshness_days = ?, terminal_id = ? WHERE id = ?";
+            String insertSql = "INSERT INTO flowers (name, color, category, price, quantity, " +
+                    "arrival_date, freshness_days, supplier_id, terminal_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement restock = conn.prepareStatement(restockSql);
+                    PreparedStatement insert = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Map.Entry<String, Flower> entry : delivered.entrySet()) {
+                    Flower flower = entry.getValue();
+                    int[] existing = stock.get(entry.getKey());
+                    if (existing != null) {
+                        restock.setInt(1, flower.getQuantity());
+                        restock.setDouble(2, flower.getPrice());
+                        restock.setDate(3, Date.valueOf(flower.getArrivalDate()));
+                        restock.setInt(4, flower.getFreshnessDays());
+                        restock.setString(5, TerminalIdentity.getId());
+                        restock.setInt(6, existing[0]);
+                        restock.addBatch();
+                        // The row is locked, so this is the quantity after the update
+                        flower.setId(existing[0]);
+                        flower.setQuantity(existing[1] + flower.getQuantity());
+                        restocked.add(flower);
+                    } else {
+                        insert.setString(1, flower.getName());
+                        insert.setString(2, flower.getColor());
+                        insert.setString(3, flower.getCategory());
+                        insert.setDouble(4, flower.getPrice());
+                        insert.setInt(5, flower.getQuantity());
+                        insert.setDate(6, Date.valueOf(flower.getArrivalDate()));
+                        insert.setInt(7, flower.getFreshnessDays());
+                        insert.setInt(8, flower.getSupplierId());
+                        insert.setString(9, TerminalIdentity.getId());
+                        insert.addBatch();
+                        created.add(flower);
+                    }
+                }
+
+                restock.executeBatch();
+                insert.executeBatch();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (int i = 0; i < created.size() && keys.next(); i++) {
+                        created.get(i).setId(keys.getInt(1));
+                    }
+                }
+                conn.commit();
+            }
+            return new DeliveryReceipt(created, restocked);
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            throw new RuntimeException("Failed to receive delivery", e);
         }
     }
 
-    private Flower extractFlowerFromResultSet(ResultSet rs) throws SQLException {
-        Flower flower = new Flower();
-        flower.setId(rs.getInt("id"));
-        flower.setName(rs.getString("name"));
-        flower.setColor(rs.getString("color"));
-        flower.setCategory(rs.getString("category"));
-        flower.setPrice(rs.getDouble("price"));
-        flower.setQuantity(rs.getInt("quantity"));
-        Date arrivalDate = rs.getDate("arrival_date");
-        if (arrivalDate != null) {
-            flower.setArrivalDate(arrivalDate.toLocalDate());
+    /**
+     * Locks the flowers a delivery may restock.
+     *
+     * @return ID and quantity of each, by delivery key
+     */
+    private Map<String, int[]> lockStock(Connection conn, Iterable<Flower> delivered) throws SQLException {
+        Set<String> names = new LinkedHashSet<>();
+        for (Flower flower : delivered) {
+            names.add(flower.getName().trim());
         }
-        flower.setFreshnessDays(rs.getInt("freshness_days"));
-        flower.setSupplierId(rs.getInt("supplier_id"));
-        return flower;
+
+        String sql = "SELECT id, name, color, category, supplier_id, quantity FROM flowers WHERE name IN (" +
+                "?" + ", ?".repeat(names.size() - 1) + ") ORDER BY id FOR UPDATE";
+        Map<String, int[]> stock = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String name : names) {
+                pstmt.setString(index++, name);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // Duplicates in stock restock the oldest row
+                    stock.putIfAbsent(deliveryKey(rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5)),
+                            new int[] { rs.getInt(1), rs.getInt(6) });
+                }
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Identifies a flower for deliveries. Compared like the case-insensitive
+     * collation of the flowers table.
+     */
+    private static String deliveryKey(String name, String color, String category, int supplierId) {
+        return normalize(name) + '\u0000' + normalize(color) + '\u0000' + normalize(category) + '\u0000'
+                + supplierId;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
     }
 }
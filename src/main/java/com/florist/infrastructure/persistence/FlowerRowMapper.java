@@ -0,0 +1,66 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.model.Flower;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Maps flower rows selected with {@link #COLUMNS}, plus the supplier's name
+ * when the query joins it as {@code supplier_name}.
+ */
+public final class FlowerRowMapper implements RowMapper<Flower> {
+
+    /**
+     * Columns of a flower, from the flowers table aliased {@code f}.
+     */
+    public static final String COLUMNS = "f.id, f.name, f.color, f.category, f.price, f.quantity, " +
+            "f.arrival_date, f.freshness_days, f.supplier_id";
+
+    private final int id;
+    private final int name;
+    private final int color;
+    private final int category;
+    private final int price;
+    private final int quantity;
+    private final int arrivalDate;
+    private final int freshnessDays;
+    private final int supplierId;
+    private final int supplierName;
+
+    public FlowerRowMapper(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs);
+        id = columns.required("id");
+        name = columns.required("name");
+        color = columns.required("color");
+        category = columns.required("category");
+        price = columns.required("price");
+        quantity = columns.required("quantity");
+        arrivalDate = columns.required("arrival_date");
+        freshnessDays = columns.required("freshness_days");
+        supplierId = columns.required("supplier_id");
+        supplierName = columns.optional("supplier_name");
+    }
+
+    @Override
+    public Flower map(ResultSet rs) throws SQLException {
+        Flower flower = new Flower();
+        flower.setId(rs.getInt(id));
+        flower.setName(rs.getString(name));
+        flower.setColor(rs.getString(color));
+        flower.setCategory(rs.getString(category));
+        flower.setPrice(rs.getDouble(price));
+        flower.setQuantity(rs.getInt(quantity));
+        LocalDate date = rs.getObject(arrivalDate, LocalDate.class);
+        if (date != null) {
+            flower.setArrivalDate(date);
+        }
+        flower.setFreshnessDays(rs.getInt(freshnessDays));
+        flower.setSupplierId(rs.getInt(supplierId));
+        if (supplierName > 0) {
+            flower.setSupplierName(rs.getString(supplierName));
+        }
+        return flower;
+    }
+}
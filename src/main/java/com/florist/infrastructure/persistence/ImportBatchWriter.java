@@ -0,0 +1,409 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.config.TerminalIdentity;
+import com.florist.infrastructure.persistence.ConnectionPool.PooledConnection;
+import com.florist.infrastructure.persistence.ImportIdMap.Entity;
+import com.florist.model.Flower;
+import com.florist.model.Sale;
+import com.florist.model.Supplier;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Inserts imported rows with JDBC batches on a pooled connection of its own.
+ * Rows are committed every {@link #getTransactionSize()} rows, so a large
+ * import neither holds one huge transaction nor pays a commit per row.
+ * <p>
+ * Imported rows get new IDs from the database. The ID each row had in the
+ * file and its new ID are passed to an {@link IdListener}, so rows of later
+ * files can be pointed at them.
+ * <p>
+ * In merge mode ({@link #merging}) the rows a source imported before are
+ * found through an {@link ImportIdMap} and updated with
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE}; rows whose values did not
+ * change are skipped, so merging the same file twice writes nothing.
+ * <p>
+ * When a batch fails, it is rolled back to a savepoint and retried row by
+ * row, so only the offending rows are rejected.
+ */
+public class ImportBatchWriter<T> implements AutoCloseable {
+
+    public static final int DEFAULT_TRANSACTION_SIZE = 5000;
+
+    private static final String SUPPLIER_COLUMNS = "name, phone, email";
+    private static final String FLOWER_COLUMNS = "name, color, category, price, quantity, arrival_date, " +
+            "freshness_days, supplier_id, terminal_id";
+    private static final String SALE_COLUMNS = "sale_date, flower_id, quantity_sold, total_price, customer_name, " +
+            "terminal_id";
+
+    /**
+     * Binds one row to the insert statement.
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    /**
+     * Told about every inserted row.
+     */
+    @FunctionalInterface
+    public interface IdListener {
+        void inserted(int fileId, int newId);
+    }
+
+    /**
+     * Told about every row the database refused.
+     */
+    @FunctionalInterface
+    public interface RejectListener {
+        void rejected(int index, String reason);
+    }
+
+    private final Entity entity;
+    private final String columns;
+    private final int columnCount;
+    private final Binder<T> binder;
+    private final ToIntFunction<T> idGetter;
+    private final ObjIntConsumer<T> idSetter;
+    private final ToIntFunction<T> hasher;
+    private final int transactionSize;
+    private final String source;
+
+    private PooledConnection lease;
+    private PreparedStatement insertStmt;
+    private PreparedStatement upsertStmt;
+    private ImportIdMap idMap;
+    private int uncommitted = 0;
+    private long inserted = 0;
+    private long updated = 0;
+    private long unchanged = 0;
+
+    private ImportBatchWriter(Entity entity, String columns, Binder<T> binder, ToIntFunction<T> idGetter,
+            ObjIntConsumer<T> idSetter, ToIntFunction<T> hasher, int transactionSize, String source) {
+        if (transactionSize < 1) {
+            throw new IllegalArgumentException("Transaction size must be positive: " + transactionSize);
+        }
+        this.entity = entity;
+        this.columns = columns;
+        this.columnCount = columns.split(",").length;
+        this.binder = binder;
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+        this.hasher = hasher;
+        this.transactionSize = transactionSize;
+        this.source = source;
+    }
+
+    public static ImportBatchWriter<Supplier> suppliers(int transactionSize) {
+        return new ImportBatchWriter<>(Entity.SUPPLIER, SUPPLIER_COLUMNS, (pstmt, supplier) -> {
+            pstmt.setString(1, supplier.getName());
+            pstmt.setString(2, supplier.getPhone());
+            pstmt.setString(3, supplier.getEmail());
+        }, Supplier::getId, Supplier::setId,
+                supplier -> Objects.hash(supplier.getName(), supplier.getPhone(), supplier.getEmail()),
+                transactionSize, null);
+    }
+
+    public static ImportBatchWriter<Flower> flowers(int transactionSize) {
+        return new ImportBatchWriter<>(Entity.FLOWER, FLOWER_COLUMNS, (pstmt, flower) -> {
+            pstmt.setString(1, flower.getName());
+            pstmt.setString(2, flower.getColor());
+            pstmt.setString(3, flower.getCategory());
+            pstmt.setDouble(4, flower.getPrice());
+            pstmt.setInt(5, flower.getQuantity());
+            pstmt.setDate(6, Date.valueOf(flower.getArrivalDate()));
+            pstmt.setInt(7, flower.getFreshnessDays());
+            pstmt.setInt(8, flower.getSupplierId());
+            pstmt.setString(9, TerminalIdentity.getId());
+        }, Flower::getId, Flower::setId,
+                flower -> Objects.hash(flower.getName(), flower.getColor(), flower.getCategory(), flower.getPrice(),
+                        flower.getQuantity(), flower.getArrivalDate(), flower.getFreshnessDays(),
+                        flower.getSupplierId()),
+                transactionSize, null);
+    }
+
+    public static ImportBatchWriter<Sale> sales(int transactionSize) {
+        return new ImportBatchWriter<>(Entity.SALE, SALE_COLUMNS, (pstmt, sale) -> {
+            pstmt.setDate(1, Date.valueOf(sale.getSaleDate()));
+            pstmt.setInt(2, sale.getFlowerId());
+            pstmt.setInt(3, sale.getQuantitySold());
+            pstmt.setDouble(4, sale.getTotalPrice());
+            pstmt.setString(5, sale.getCustomerName());
+            pstmt.setString(6, TerminalIdentity.getId());
+        }, Sale::getId, Sale::setId,
+                sale -> Objects.hash(sale.getSaleDate(), sale.getFlowerId(), sale.getQuantitySold(),
+                        sale.getTotalPrice(), sale.getCustomerName()),
+                transactionSize, null);
+    }
+
+    /**
+     * A writer for the same table that merges into the rows imported before
+     * from the given source instead of always inserting.
+     *
+     * @param source name identifying the imported data set, e.g. a supplier's feed
+     */
+    public ImportBatchWriter<T> merging(String source) {
+        return new ImportBatchWriter<>(entity, columns, binder, idGetter, idSetter, hasher, transactionSize,
+                Objects.requireNonNull(source, "source"));
+    }
+
+    public int getTransactionSize() {
+        return transactionSize;
+    }
+
+    /**
+     * @return rows added to the table
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return rows of an earlier import overwritten with new values
+     */
+    public long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return rows of an earlier import skipped because nothing changed
+     */
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Writes a batch of rows, committing whenever the transaction size is reached.
+     *
+     * @param rows    rows to write, their IDs are replaced by the database ones
+     * @param ids     told the file ID and database ID of each written or unchanged row
+     * @param rejects told the index of each refused row
+     * @return number of rows written
+     */
+    public int write(List<T> rows, IdListener ids, RejectListener rejects) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Connection conn = connection();
+        int[] fileIds = new int[rows.size()];
+        int[] hashes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            fileIds[i] = idGetter.applyAsInt(rows.get(i));
+            hashes[i] = idMap != null ? hasher.applyAsInt(rows.get(i)) : 0;
+        }
+
+        int count;
+        if (idMap == null) {
+            count = execute(conn, insertStmt, false, rows, all(rows.size()), rows.size(), fileIds, hashes, ids,
+                    rejects);
+            inserted += count;
+        } else {
+            // Split the batch into new rows and rows imported before
+            int[] fresh = new int[rows.size()];
+            int[] known = new int[rows.size()];
+            int freshCount = 0;
+            int knownCount = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                int rowId = idMap.getRowId(fileIds[i]);
+                if (rowId == 0) {
+                    fresh[freshCount++] = i;
+                } else if (idMap.isUnchanged(fileIds[i], hashes[i])) {
+                    idSetter.accept(rows.get(i), rowId);
+                    ids.inserted(fileIds[i], rowId);
+                    unchanged++;
+                } else {
+                    idSetter.accept(rows.get(i), rowId);
+                    known[knownCount++] = i;
+                }
+            }
+            int insertedNow = execute(conn, insertStmt, false, rows, fresh, freshCount, fileIds, hashes, ids,
+                    rejects);
+            int updatedNow = execute(conn, upsertStmt, true, rows, known, knownCount, fileIds, hashes, ids,
+                    rejects);
+            idMap.save(conn);
+            inserted += insertedNow;
+            updated += updatedNow;
+            count = insertedNow + updatedNow;
+        }
+
+        uncommitted += count;
+        if (uncommitted >= transactionSize) {
+            conn.commit();
+            uncommitted = 0;
+        }
+        return count;
+    }
+
+    /**
+     * Commits the rows written since the last commit.
+     */
+    public void finish() throws SQLException {
+        if (lease != null) {
+            lease.connection().commit();
+            uncommitted = 0;
+        }
+    }
+
+    /**
+     * Rolls back anything not yet committed and returns the connection.
+     */
+    @Override
+    public void close() {
+        if (lease == null) {
+            return;
+        }
+        try {
+            insertStmt.close();
+            if (upsertStmt != null) {
+                upsertStmt.close();
+            }
+        } catch (SQLException e) {
+            // Ignore, the pool rolls back and resets the connection
+        }
+        lease.close();
+        lease = null;
+    }
+
+    /**
+     * Runs the selected rows as one batch, falling back to one by one when it fails.
+     *
+     * @param upsert whether the statement is the upsert, which takes the row's ID last
+     * @return number of rows written
+     */
+    private int execute(Connection conn, PreparedStatement pstmt, boolean upsert, List<T> rows, int[] indexes,
+            int count, int[] fileIds, int[] hashes, IdListener ids, RejectListener rejects) throws SQLException {
+        if (count == 0) {
+            return 0;
+        }
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            for (int k = 0; k < count; k++) {
+                bind(pstmt, upsert, rows.get(indexes[k]));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            if (upsert) {
+                for (int k = 0; k < count; k++) {
+                    int i = indexes[k];
+                    assignId(rows.get(i), fileIds[i], idGetter.applyAsInt(rows.get(i)), hashes[i], ids);
+                }
+            } else {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    for (int k = 0; k < count && keys.next(); k++) {
+                        int i = indexes[k];
+                        assignId(rows.get(i), fileIds[i], keys.getInt(1), hashes[i], ids);
+                    }
+                }
+            }
+            return count;
+        } catch (BatchUpdateException e) {
+            pstmt.clearBatch();
+            conn.rollback(savepoint);
+            return executeOneByOne(conn, pstmt, upsert, rows, indexes, count, fileIds, hashes, ids, rejects);
+        } finally {
+            conn.releaseSavepoint(savepoint);
+        }
+    }
+
+    private int executeOneByOne(Connection conn, PreparedStatement pstmt, boolean upsert, List<T> rows,
+            int[] indexes, int count, int[] fileIds, int[] hashes, IdListener ids, RejectListener rejects)
+            throws SQLException {
+        int written = 0;
+        for (int k = 0; k < count; k++) {
+            int i = indexes[k];
+            T row = rows.get(i);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                bind(pstmt, upsert, row);
+                pstmt.executeUpdate();
+                if (upsert) {
+                    assignId(row, fileIds[i], idGetter.applyAsInt(row), hashes[i], ids);
+                } else {
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            assignId(row, fileIds[i], keys.getInt(1), hashes[i], ids);
+                        }
+                    }
+                }
+                written++;
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                rejects.rejected(i, e.getMessage());
+            } finally {
+                conn.releaseSavepoint(savepoint);
+            }
+        }
+        return written;
+    }
+
+    private void bind(PreparedStatement pstmt, boolean upsert, T row) throws SQLException {
+        binder.bind(pstmt, row);
+        if (upsert) {
+            pstmt.setInt(columnCount + 1, idGetter.applyAsInt(row));
+        }
+    }
+
+    private void assignId(T row, int fileId, int newId, int hash, IdListener ids) {
+        idSetter.accept(row, newId);
+        if (idMap != null) {
+            idMap.record(fileId, newId, hash);
+        }
+        ids.inserted(fileId, newId);
+    }
+
+    private Connection connection() throws SQLException {
+        if (lease == null) {
+            lease = ConnectionPool.borrow();
+            Connection conn = lease.connection();
+            conn.setAutoCommit(false);
+            insertStmt = conn.prepareStatement(insertSql(), Statement.RETURN_GENERATED_KEYS);
+            if (source != null) {
+                idMap = ImportIdMap.load(conn, source, entity);
+                upsertStmt = conn.prepareStatement(upsertSql());
+            }
+        }
+        return lease.connection();
+    }
+
+    private String insertSql() {
+        return "INSERT INTO " + entity.getTable() + " (" + columns + ") VALUES (" + placeholders() + ")";
+    }
+
+    /**
+     * Upsert taking the row's ID as the last parameter, after the insert columns.
+     */
+    private String upsertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(entity.getTable())
+                .append(" (").append(columns).append(", id) VALUES (").append(placeholders())
+                .append(", ?) ON DUPLICATE KEY UPDATE ");
+        String[] names = columns.split(",\\s*");
+        for (int i = 0; i < names.length; i++) {
+            sql.append(i > 0 ? ", " : "").append(names[i]).append(" = VALUES(").append(names[i]).append(')');
+        }
+        return sql.toString();
+    }
+
+    private String placeholders() {
+        return "?" + ", ?".repeat(columnCount - 1);
+    }
+
+    private static int[] all(int count) {
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
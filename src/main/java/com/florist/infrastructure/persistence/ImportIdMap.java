@@ -0,0 +1,151 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.infrastructure.persistence.ConnectionPool.PooledConnection;
+import com.florist.util.IntIntMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Remembers, per import source, which row each ID of the imported files
+ * became and a hash of the values it was last written with. Merging the
+ * same file again then updates those rows instead of adding new ones, and
+ * skips rows whose values did not change.
+ * <p>
+ * Kept in the import_id_map table. Entries whose row has since been
+ * deleted are ignored, so such rows are imported again.
+ */
+public class ImportIdMap {
+
+    /**
+     * Imported tables.
+     */
+    public enum Entity {
+        SUPPLIER("suppliers"), FLOWER("flowers"), SALE("sales");
+
+        private final String table;
+
+        Entity(String table) {
+            this.table = table;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    private static final String SAVE_SQL = "INSERT INTO import_id_map (source, entity_type, file_id, row_id, " +
+            "row_hash) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE row_id = VALUES(row_id), " +
+            "row_hash = VALUES(row_hash)";
+
+    private final String source;
+    private final Entity entity;
+    private final IntIntMap rowIds;
+    private final IntIntMap hashes;
+
+    // Entries recorded since the last save
+    private int[] pending = new int[3 * 256];
+    private int pendingCount = 0;
+
+    private ImportIdMap(String source, Entity entity, int expectedSize) {
+        this.source = source;
+        this.entity = entity;
+        this.rowIds = new IntIntMap(expectedSize);
+        this.hashes = new IntIntMap(expectedSize);
+    }
+
+    /**
+     * Loads the entries of a source whose rows still exist.
+     */
+    public static ImportIdMap load(Connection conn, String source, Entity entity) throws SQLException {
+        String sql = "SELECT m.file_id, m.row_id, m.row_hash FROM import_id_map m " +
+                "JOIN " + entity.getTable() + " t ON t.id = m.row_id " +
+                "WHERE m.source = ? AND m.entity_type = ?";
+        ImportIdMap map = new ImportIdMap(source, entity, 1024);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, source);
+            pstmt.setString(2, entity.name());
+            pstmt.setFetchSize(DatabaseSettings.streamingFetchSize());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    map.rowIds.put(rs.getInt(1), rs.getInt(2));
+                    map.hashes.put(rs.getInt(1), rs.getInt(3));
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Loads the entries of a source on a pooled connection.
+     */
+    public static ImportIdMap load(String source, Entity entity) {
+        try (PooledConnection lease = ConnectionPool.borrow()) {
+            return load(lease.connection(), source, entity);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to load import ID map of " + source, e);
+        }
+    }
+
+    /**
+     * @return the row the file ID became, or 0 if it was never imported
+     */
+    public int getRowId(int fileId) {
+        return rowIds.get(fileId, 0);
+    }
+
+    /**
+     * @return true if the file ID was last imported with the same values
+     */
+    public boolean isUnchanged(int fileId, int hash) {
+        return rowIds.containsKey(fileId) && hashes.get(fileId, 0) == hash;
+    }
+
+    /**
+     * Copies the file ID to row ID entries into a map of its own.
+     */
+    public IntIntMap copyRowIds() {
+        IntIntMap copy = new IntIntMap(rowIds.size());
+        rowIds.forEach(copy::put);
+        return copy;
+    }
+
+    /**
+     * Records that a file ID was written to a row; stored by the next {@link #save}.
+     */
+    public void record(int fileId, int rowId, int hash) {
+        rowIds.put(fileId, rowId);
+        hashes.put(fileId, hash);
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingCount++] = fileId;
+        pending[pendingCount++] = rowId;
+        pending[pendingCount++] = hash;
+    }
+
+    /**
+     * Stores the entries recorded since the last save in the connection's transaction.
+     */
+    public void save(Connection conn) throws SQLException {
+        if (pendingCount == 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SAVE_SQL)) {
+            for (int i = 0; i < pendingCount; i += 3) {
+                pstmt.setString(1, source);
+                pstmt.setString(2, entity.name());
+                pstmt.setInt(3, pending[i]);
+                pstmt.setInt(4, pending[i + 1]);
+                pstmt.setInt(5, pending[i + 2]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        pendingCount = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.florist.infrastructure.persistence;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a result set into an object. Implementations
+ * look their columns up once, when created for a result set, and then
+ * read every row by index: looking columns up by name costs a search per
+ * column per row.
+ *
+ * @param <T> the mapped type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+}
@@ -1,5 +1,8 @@
 package com.florist.infrastructure.persistence;
 
+import com.florist.config.TerminalIdentity;
+import com.florist.domain.repository.Page;
+import com.florist.domain.repository.SaleCriteria;
 import com.florist.domain.repository.SaleRepository;
 import com.florist.model.Sale;
 
@@ -7,8 +10,9 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository implementation for Sale entity.
@@ -16,23 +20,25 @@ import java.util.stream.Collectors;
  */
 public class SaleRepositoryImpl implements SaleRepository {
 
+    private static final String FIND_SELECT = "SELECT " + SaleRowMapper.COLUMNS +
+            ", f.name AS flower_name, f.category AS flower_category " +
+            "FROM sales s " +
+            "LEFT JOIN flowers f ON s.flower_id = f.id";
+
+    private static final Map<Long, String> FIND_SQL = new ConcurrentHashMap<>();
+
     @Override
     public List<Sale> findAll() {
         List<Sale> sales = new ArrayList<>();
-        String sql = "SELECT s.*, f.name AS flower_name, f.category AS flower_category " +
-                "FROM sales s " +
-                "LEFT JOIN flowers f ON s.flower_id = f.id " +
-                "ORDER BY s.sale_date DESC, s.id DESC";
+        String sql = FIND_SELECT + " ORDER BY s.sale_date DESC, s.id DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
+            SaleRowMapper mapper = new SaleRowMapper(rs);
             while (rs.next()) {
-                Sale sale = extractSaleFromResultSet(rs);
-                sale.setFlowerName(rs.getString("flower_name"));
-                sale.setFlowerCategory(rs.getString("flower_category"));
-                sales.add(sale);
+                sales.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -42,9 +48,56 @@ public class SaleRepositoryImpl implements SaleRepository {
 
     @Override
     public List<Sale> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return findAll().stream()
-                .filter(sale -> !sale.getSaleDate().isBefore(startDate) && !sale.getSaleDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        return find(new SaleCriteria()
+                .dateBetween(startDate, endDate)
+                .sortBy(SaleCriteria.Sort.DATE, true)).items();
+    }
+
+    @Override
+    public Page<Sale> find(SaleCriteria criteria) {
+        CriteriaQuery query = new CriteriaQuery(FIND_SELECT, "s.id", FIND_SQL)
+                .where(criteria.getFlowerId(), "s.flower_id = ?")
+                .where(criteria.getCategory(), "f.category = ?")
+                .where(criteria.getFrom(), "s.sale_date >= ?")
+                .where(criteria.getTo(), "s.sale_date <= ?")
+                .where(CriteriaQuery.contains(criteria.getCustomer()), "s.customer_name LIKE ?")
+                .orderBy(sortColumn(criteria.getSort()), criteria);
+        List<Sale> sales = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = query.prepare(conn);
+                ResultSet rs = pstmt.executeQuery()) {
+
+            SaleRowMapper mapper = new SaleRowMapper(rs);
+            while (rs.next()) {
+                sales.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return query.page(sales, sale -> sortValue(sale, criteria.getSort()), Sale::getId);
+    }
+
+    private static String sortColumn(SaleCriteria.Sort sort) {
+        switch (sort) {
+            case DATE:
+                return "s.sale_date";
+            case TOTAL:
+                return "s.total_price";
+            default:
+                return "s.id";
+        }
+    }
+
+    private static Object sortValue(Sale sale, SaleCriteria.Sort sort) {
+        switch (sort) {
+            case DATE:
+                return sale.getSaleDate();
+            case TOTAL:
+                return sale.getTotalPrice();
+            default:
+                return sale.getId();
+        }
     }
 
     @Override
@@ -56,8 +109,8 @@ public class SaleRepositoryImpl implements SaleRepository {
 
     @Override
     public Sale save(Sale sale) {
-        String sql = "INSERT INTO sales (sale_date, flower_id, quantity_sold, total_price, customer_name) " +
-                "VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO sales (sale_date, flower_id, quantity_sold, total_price, customer_name, " +
+                "terminal_id) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -67,6 +120,7 @@ public class SaleRepositoryImpl implements SaleRepository {
             pstmt.setInt(3, sale.getQuantitySold());
             pstmt.setDouble(4, sale.getTotalPrice());
             pstmt.setString(5, sale.getCustomerName());
+            pstmt.setString(6, TerminalIdentity.getId());
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
@@ -102,18 +156,4 @@ public class SaleRepositoryImpl implements SaleRepository {
         }
         return 0;
     }
-
-    private Sale extractSaleFromResultSet(ResultSet rs) throws SQLException {
-        Sale sale = new Sale();
-        sale.setId(rs.getInt("id"));
-        Date saleDate = rs.getDate("sale_date");
-        if (saleDate != null) {
-            sale.setSaleDate(saleDate.toLocalDate());
-        }
-        sale.setFlowerId(rs.getInt("flower_id"));
-        sale.setQuantitySold(rs.getInt("quantity_sold"));
-        sale.setTotalPrice(rs.getDouble("total_price"));
-        sale.setCustomerName(rs.getString("customer_name"));
-        return sale;
-    }
 }
@@ -0,0 +1,63 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.model.Sale;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Maps sale rows selected with {@link #COLUMNS}, plus the flower's name and
+ * category when the query joins them as {@code flower_name} and
+ * {@code flower_category}.
+ */
+public final class SaleRowMapper implements RowMapper<Sale> {
+
+    /**
+     * Columns of a sale, from the sales table aliased {@code s}.
+     */
+    public static final String COLUMNS = "s.id, s.sale_date, s.flower_id, s.quantity_sold, s.total_price, " +
+            "s.customer_name";
+
+    private final int id;
+    private final int saleDate;
+    private final int flowerId;
+    private final int quantitySold;
+    private final int totalPrice;
+    private final int customerName;
+    private final int flowerName;
+    private final int flowerCategory;
+
+    public SaleRowMapper(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs);
+        id = columns.required("id");
+        saleDate = columns.required("sale_date");
+        flowerId = columns.required("flower_id");
+        quantitySold = columns.required("quantity_sold");
+        totalPrice = columns.required("total_price");
+        customerName = columns.required("customer_name");
+        flowerName = columns.optional("flower_name");
+        flowerCategory = columns.optional("flower_category");
+    }
+
+    @Override
+    public Sale map(ResultSet rs) throws SQLException {
+        Sale sale = new Sale();
+        sale.setId(rs.getInt(id));
+        LocalDate date = rs.getObject(saleDate, LocalDate.class);
+        if (date != null) {
+            sale.setSaleDate(date);
+        }
+        sale.setFlowerId(rs.getInt(flowerId));
+        sale.setQuantitySold(rs.getInt(quantitySold));
+        sale.setTotalPrice(rs.getDouble(totalPrice));
+        sale.setCustomerName(rs.getString(customerName));
+        if (flowerName > 0) {
+            sale.setFlowerName(rs.getString(flowerName));
+        }
+        if (flowerCategory > 0) {
+            sale.setFlowerCategory(rs.getString(flowerCategory));
+        }
+        return sale;
+    }
+}
@@ -0,0 +1,363 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.config.TerminalIdentity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Brings the database schema up to date with versioned SQL scripts.
+ * <p>
+ * The scripts live in {@code /db/migration} and are listed, in order, in
+ * its {@code migrations.txt}. Each applied script is recorded in the
+ * {@code schema_version} table with a checksum of its contents; a script
+ * changed after it was applied stops startup. When every script is
+ * recorded, startup reads that table once and runs no DDL at all.
+ * <p>
+ * Pending scripts run under a named lock so terminals starting together
+ * do not apply them twice. MySQL commits DDL implicitly, so a script is
+ * not atomic: a failed one is left unrecorded and has to be fixed by hand
+ * before it can run again. Index changes should be written with
+ * {@code ALGORITHM=INPLACE, LOCK=NONE} so they never block the shop.
+ */
+public class SchemaMigrator {
+
+    public static final String DEFAULT_LOCATION = "/db/migration";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final int ER_NO_SUCH_TABLE = 1146;
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * A migration script.
+     */
+    record Migration(int version, String description, String script, String sql, int checksum) {
+    }
+
+    private final String location;
+
+    public SchemaMigrator() {
+        this(DEFAULT_LOCATION);
+    }
+
+    public SchemaMigrator(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Applies the scripts the database has not seen yet.
+     */
+    public void migrate() {
+        try {
+            List<Migration> migrations = loadMigrations();
+            Connection conn = DatabaseConnection.getConnection();
+
+            Map<Integer, Integer> applied = readApplied(conn);
+            if (applied != null && pending(migrations, applied).isEmpty()) {
+                validate(migrations, applied);
+                System.out.println("[MIGRATION] Schema is current at V" + latest(migrations));
+                return;
+            }
+
+            lock(conn);
+            try {
+                // Another terminal may have migrated while we waited
+                applied = readApplied(conn);
+                if (applied == null) {
+                    createVersionTable(conn);
+                    applied = new LinkedHashMap<>();
+                }
+                validate(migrations, applied);
+                boolean first = applied.isEmpty();
+                for (Migration migration : pending(migrations, applied)) {
+                    apply(conn, migration, first);
+                    first = false;
+                }
+            } finally {
+                unlock(conn);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to migrate database schema", e);
+        }
+    }
+
+    private List<Migration> loadMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : readLines(location + "/migrations.txt")) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = SCRIPT_NAME.matcher(script);
+            if (!matcher.matches()) {
+                throw new IOException("Not a migration script name: " + script);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (!migrations.isEmpty() && version <= migrations.get(migrations.size() - 1).version()) {
+                throw new IOException("Migration " + script + " is out of order");
+            }
+
+            // Line endings are left out of the checksum so a Windows checkout matches
+            List<String> lines = readLines(location + "/" + script);
+            CRC32 crc = new CRC32();
+            for (String sqlLine : lines) {
+                crc.update(sqlLine.getBytes(StandardCharsets.UTF_8));
+                crc.update('\n');
+            }
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script,
+                    String.join("\n", lines), (int) crc.getValue()));
+        }
+        return migrations;
+    }
+
+    private List<String> readLines(String resource) throws IOException {
+        InputStream in = SchemaMigrator.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Could not find " + resource + " in resources");
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Checksums of the applied scripts by version, or null if the version
+     * table does not exist yet.
+     */
+    private static Map<Integer, Integer> readApplied(Connection conn) throws SQLException {
+        Map<Integer, Integer> applied = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_NO_SUCH_TABLE) {
+                return null;
+            }
+            throw e;
+        }
+        return applied;
+    }
+
+    private static List<Migration> pending(List<Migration> migrations, Map<Integer, Integer> applied) {
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version())) {
+                pending.add(migration);
+            }
+        }
+        return pending;
+    }
+
+    private static void validate(List<Migration> migrations, Map<Integer, Integer> applied) {
+        for (Migration migration : migrations) {
+            Integer checksum = applied.get(migration.version());
+            if (checksum != null && checksum != migration.checksum()) {
+                throw new IllegalStateException("Migration " + migration.script()
+                        + " was changed after it was applied, add a new migration instead");
+            }
+        }
+        int latest = latest(migrations);
+        for (int version : applied.keySet()) {
+            if (version > latest) {
+                // A newer release migrated this database; its changes are additive
+                System.err.println("[MIGRATION] Database is at V" + version + ", newer than this release (V"
+                        + latest + ")");
+                break;
+            }
+        }
+    }
+
+    private static int latest(List<Migration> migrations) {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "script VARCHAR(200) NOT NULL, " +
+                    "checksum INT NOT NULL, " +
+                    "installed_by VARCHAR(36) COMMENT 'Terminal that applied the script', " +
+                    "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "execution_ms INT NOT NULL" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+        }
+    }
+
+    /**
+     * Runs a script and records it.
+     *
+     * @param first whether it is the first script run on this database, which
+     *              may hold tables created before versioned migrations
+     */
+    private static void apply(Connection conn, Migration migration, boolean first) throws SQLException {
+        System.out.println("[MIGRATION] Applying " + migration.script());
+        long start = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : split(migration.sql())) {
+                stmt.execute(statement);
+            }
+        } catch (SQLException e) {
+            System.err.println("[MIGRATION] " + migration.script() + " failed and may be partly applied: "
+                    + e.getMessage());
+            throw e;
+        }
+        if (first) {
+            upgradeLegacySchema(conn);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        String sql = "INSERT INTO schema_version (version, description, script, checksum, installed_by, " +
+                "execution_ms) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.setString(3, migration.script());
+            pstmt.setInt(4, migration.checksum());
+            pstmt.setString(5, TerminalIdentity.getId());
+            pstmt.setLong(6, millis);
+            pstmt.executeUpdate();
+        }
+        System.out.println("[MIGRATION] Applied " + migration.script() + " in " + millis + " ms");
+    }
+
+    /**
+     * Splits a script into statements on semicolons outside quotes,
+     * leaving out comment lines.
+     */
+    static List<String> split(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (String line : sql.split("\n")) {
+            if (quote == 0 && line.trim().startsWith("--")) {
+                continue;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\' && i + 1 < line.length()) {
+                        current.append(c);
+                        c = line.charAt(++i);
+                    } else if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                } else if (c == ';') {
+                    addStatement(statements, current);
+                    continue;
+                }
+                current.append(c);
+            }
+            current.append('\n');
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Databases created before versioned migrations already have the
+     * baseline tables, which CREATE TABLE IF NOT EXISTS leaves untouched,
+     * but may lack columns and indexes added to them since.
+     */
+    private static void upgradeLegacySchema(Connection conn) throws SQLException {
+        // Change tracking for cross-terminal sync
+        addColumnIfMissing(conn, "flowers", "terminal_id",
+                "VARCHAR(36) COMMENT 'Instance that last wrote the row' AFTER supplier_id");
+        addColumnIfMissing(conn, "sales", "terminal_id",
+                "VARCHAR(36) COMMENT 'Instance that recorded the sale' AFTER customer_name");
+        addIndexIfMissing(conn, "flowers", "idx_flower_updated_at", "(updated_at)");
+
+        // Incremental backups
+        addColumnIfMissing(conn, "suppliers", "updated_at",
+                "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP AFTER created_at");
+        addIndexIfMissing(conn, "suppliers", "idx_supplier_updated_at", "(updated_at)");
+
+        // Alert severity
+        addColumnIfMissing(conn, "stock_alerts", "severity",
+                "VARCHAR(10) DEFAULT 'WARNING' COMMENT 'DANGER or WARNING' AFTER alert_type");
+    }
+
+    private static void addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        if (!exists(conn, sql, table, column)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            }
+        }
+    }
+
+    private static void addIndexIfMissing(Connection conn, String table, String index, String columns)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+        if (!exists(conn, sql, table, index)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " ADD INDEX " + index + " " + columns);
+            }
+        }
+    }
+
+    private static boolean exists(Connection conn, String sql, String table, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT GET_LOCK(CONCAT(DATABASE(), ':schema-migration'), ?)")) {
+            pstmt.setInt(1, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Another terminal is still migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DO RELEASE_LOCK(CONCAT(DATABASE(), ':schema-migration'))");
+        } catch (SQLException e) {
+            // Released with the connection anyway
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.florist.infrastructure.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops and re-creates the secondary indexes of tables around a bulk load.
+ * InnoDB cannot disable indexes, but building one from loaded rows with a
+ * single sort is much faster than updating it row by row.
+ * <p>
+ * Indexes led by a foreign key column are kept, MySQL refuses to drop the
+ * index a constraint relies on. Full-text and functional indexes are kept
+ * too. Both statements are DDL and commit implicitly.
+ */
+final class SecondaryIndexes {
+
+    /**
+     * A dropped index, enough to create it again.
+     */
+    record Index(String table, String name, boolean unique, List<String> columns) {
+
+        String definition() {
+            return (unique ? "ADD UNIQUE INDEX " : "ADD INDEX ") + name + " (" + String.join(", ", columns) + ")";
+        }
+    }
+
+    private SecondaryIndexes() {
+    }
+
+    /**
+     * Drops the secondary indexes of the tables, one ALTER TABLE per table.
+     *
+     * @return the dropped indexes, to pass to {@link #restore}
+     */
+    static List<Index> drop(Connection conn, String... tables) throws SQLException {
+        List<Index> dropped = new ArrayList<>();
+        for (String table : tables) {
+            List<Index> indexes = find(conn, table);
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            StringBuilder sql = new StringBuilder("ALTER TABLE ").append(table).append(' ');
+            for (int i = 0; i < indexes.size(); i++) {
+                sql.append(i > 0 ? ", " : "").append("DROP INDEX ").append(indexes.get(i).name());
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql.toString());
+            }
+            dropped.addAll(indexes);
+        }
+        return dropped;
+    }
+
+    /**
+     * Creates the indexes again, all indexes of a table in one ALTER TABLE
+     * so the table is scanned once. Goes on with the other tables when one
+     * fails and rethrows the first failure at the end.
+     */
+    static void restore(Connection conn, List<Index> indexes) throws SQLException {
+        Map<String, List<Index>> byTable = new LinkedHashMap<>();
+        for (Index index : indexes) {
+            byTable.computeIfAbsent(index.table(), t -> new ArrayList<>()).add(index);
+        }
+
+        SQLException failure = null;
+        for (Map.Entry<String, List<Index>> entry : byTable.entrySet()) {
+            StringBuilder sql = new StringBuilder("ALTER TABLE ").append(entry.getKey()).append(' ');
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                sql.append(i > 0 ? ", " : "").append(entry.getValue().get(i).definition());
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql.toString());
+            } catch (SQLException e) {
+                System.err.println("[RESTORE] Could not rebuild indexes, run manually: " + sql);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static List<Index> find(Connection conn, String table) throws SQLException {
+        Set<String> foreignKeyColumns = new LinkedHashSet<>();
+        String fkSql = "SELECT COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND REFERENCED_TABLE_NAME IS NOT NULL";
+        try (PreparedStatement pstmt = conn.prepareStatement(fkSql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    foreignKeyColumns.add(rs.getString(1));
+                }
+            }
+        }
+
+        String sql = "SELECT INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SUB_PART, INDEX_TYPE " +
+                "FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME <> 'PRIMARY' " +
+                "ORDER BY INDEX_NAME, SEQ_IN_INDEX";
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        Set<String> kept = new LinkedHashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    String column = rs.getString(3);
+                    Index index = indexes.get(name);
+                    if (index == null) {
+                        index = new Index(table, name, rs.getInt(2) == 0, new ArrayList<>());
+                        indexes.put(name, index);
+                        if (column == null || foreignKeyColumns.contains(column)
+                                || !"BTREE".equals(rs.getString(5))) {
+                            kept.add(name);
+                        }
+                    }
+                    int prefix = rs.getInt(4);
+                    index.columns().add(rs.wasNull() ? column : column + "(" + prefix + ")");
+                }
+            }
+        }
+        indexes.keySet().removeAll(kept);
+        return new ArrayList<>(indexes.values());
+    }
+}
@@ -1,12 +1,16 @@
 package com.florist.infrastructure.persistence;
 
+import com.florist.domain.repository.AlertCriteria;
+import com.florist.domain.repository.Page;
 import com.florist.domain.repository.StockAlertRepository;
 import com.florist.model.StockAlert;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository implementation for StockAlert entity.
@@ -14,22 +18,24 @@ import java.util.Optional;
  */
 public class StockAlertRepositoryImpl implements StockAlertRepository {
 
+    private static final String FIND_SELECT = "SELECT " + AlertRowMapper.COLUMNS + ", f.name AS flower_name " +
+            "FROM stock_alerts a " +
+            "LEFT JOIN flowers f ON a.flower_id = f.id";
+
+    private static final Map<Long, String> FIND_SQL = new ConcurrentHashMap<>();
+
     @Override
     public List<StockAlert> findAll() {
         List<StockAlert> alerts = new ArrayList<>();
-        String sql = "SELECT a.*, f.name AS flower_name " +
-                "FROM stock_alerts a " +
-                "LEFT JOIN flowers f ON a.flower_id = f.id " +
-                "ORDER BY a.resolved ASC, a.generated_date DESC";
+        String sql = FIND_SELECT + " ORDER BY a.resolved ASC, a.generated_date DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
+            AlertRowMapper mapper = new AlertRowMapper(rs);
             while (rs.next()) {
-                StockAlert alert = extractAlertFromResultSet(rs);
-                alert.setFlowerName(rs.getString("flower_name"));
-                alerts.add(alert);
+                alerts.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -40,20 +46,15 @@ public class StockAlertRepositoryImpl implements StockAlertRepository {
     @Override
     public List<StockAlert> findUnresolved() {
         List<StockAlert> alerts = new ArrayList<>();
-        String sql = "SELECT a.*, f.name AS flower_name " +
-                "FROM stock_alerts a " +
-                "LEFT JOIN flowers f ON a.flower_id = f.id " +
-                "WHERE a.resolved = FALSE " +
-                "ORDER BY a.generated_date DESC";
+        String sql = FIND_SELECT + " WHERE a.resolved = FALSE ORDER BY a.generated_date DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
+            AlertRowMapper mapper = new AlertRowMapper(rs);
             while (rs.next()) {
-                StockAlert alert = extractAlertFromResultSet(rs);
-                alert.setFlowerName(rs.getString("flower_name"));
-                alerts.add(alert);
+                alerts.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -61,6 +62,34 @@ public class StockAlertRepositoryImpl implements StockAlertRepository {
         return alerts;
     }
 
+    @Override
+    public Page<StockAlert> find(AlertCriteria criteria) {
+        CriteriaQuery query = new CriteriaQuery(FIND_SELECT, "a.id", FIND_SQL)
+                .where(criteria.getFlowerId(), "a.flower_id = ?")
+                .where(criteria.getAlertType(), "a.alert_type = ?")
+                .where(criteria.getSeverity(), "a.severity = ?")
+                .where(criteria.getResolved(), "a.resolved = ?")
+                .where(criteria.getFrom(), "a.generated_date >= ?")
+                .where(criteria.getTo(), "a.generated_date <= ?")
+                .orderBy(criteria.getSort() == AlertCriteria.Sort.DATE ? "a.generated_date" : "a.id", criteria);
+        List<StockAlert> alerts = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = query.prepare(conn);
+                ResultSet rs = pstmt.executeQuery()) {
+
+            AlertRowMapper mapper = new AlertRowMapper(rs);
+            while (rs.next()) {
+                alerts.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return query.page(alerts,
+                alert -> criteria.getSort() == AlertCriteria.Sort.DATE ? alert.getGeneratedDate() : alert.getId(),
+                StockAlert::getId);
+    }
+
     @Override
     public Optional<StockAlert> findById(int id) {
         return findUnresolved().stream().filter(a -> a.getId() == id).findFirst();
@@ -159,30 +188,16 @@ public class StockAlertRepositoryImpl implements StockAlertRepository {
     }
 
     @Override
-    public void deleteUnresolved(int flowerId, String alertType) {
+    public int deleteUnresolved(int flowerId, String alertType) {
         String sql = "DELETE FROM stock_alerts WHERE flower_id = ? AND alert_type = ? AND resolved = FALSE";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, flowerId);
             pstmt.setString(2, alertType);
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
+            return 0;
         }
     }
-
-    private StockAlert extractAlertFromResultSet(ResultSet rs) throws SQLException {
-        StockAlert alert = new StockAlert();
-        alert.setId(rs.getInt("id"));
-        alert.setFlowerId(rs.getInt("flower_id"));
-        alert.setAlertType(rs.getString("alert_type"));
-        alert.setSeverity(rs.getString("severity"));
-        alert.setMessage(rs.getString("message"));
-        Date generatedDate = rs.getDate("generated_date");
-        if (generatedDate != null) {
-            alert.setGeneratedDate(generatedDate.toLocalDate());
-        }
-        alert.setResolved(rs.getBoolean("resolved"));
-        return alert;
-    }
 }
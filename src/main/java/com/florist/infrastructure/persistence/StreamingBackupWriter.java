@@ -0,0 +1,384 @@
+package com.florist.infrastructure.persistence;
+
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.domain.repository.ChangeTrackingRepository.Watermark;
+import com.florist.io.ExportFormat;
+import com.florist.io.RecordSchema;
+import com.florist.io.RecordWriter;
+import com.florist.io.SnapshotFormat;
+import com.florist.io.SnapshotFormat.ColumnType;
+import com.florist.io.SnapshotFormat.Table;
+import com.florist.io.SnapshotWriter;
+import com.florist.io.StandardExportFormat;
+import com.florist.io.StreamingRecordWriter;
+import com.florist.io.TeeRecordWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes backups straight from streaming JDBC cursors.
+ * Rows are read one at a time from the server and formatted into the
+ * writer's reusable buffer, so memory stays constant whatever the table size.
+ * Files use the same layout as {@link com.florist.io.FileExportService},
+ * in CSV and optionally further {@link ExportFormat}s.
+ * <p>
+ * Incremental backups only read rows changed since a {@link Watermark}:
+ * flowers and suppliers by updated_at, sales by ID and deletions from the
+ * tombstones table. The windows have no upper bound, a row changed while
+ * the backup runs is simply written again by the next one. They also start
+ * {@link ChangeTrackingRepository#COMMIT_MARGIN} before the watermark, as a
+ * row written before the previous snapshot may have committed after it;
+ * restores upsert, so rows written twice are harmless.
+ * <p>
+ * Full backups can also be written as a binary {@link SnapshotFormat} file
+ * covering all four tables.
+ */
+public class StreamingBackupWriter {
+
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String FLOWER_SQL = "SELECT id, name, color, category, price, quantity, " +
+            "arrival_date, freshness_days, supplier_id FROM flowers ";
+    private static final String SALE_SQL = "SELECT id, sale_date, flower_id, quantity_sold, total_price, " +
+            "customer_name FROM sales ";
+    private static final String SUPPLIER_SQL = "SELECT id, name, phone, email FROM suppliers ";
+    private static final String DELETION_SQL = "SELECT entity_type, entity_id FROM tombstones WHERE id > ? ORDER BY id";
+
+    /**
+     * Result of one backup run.
+     *
+     * @param watermark change log position read before the first row, the
+     *                  starting point of the next incremental backup
+     * @param rows      total number of rows written
+     */
+    public record BackupResult(Watermark watermark, long rows) {
+    }
+
+    /**
+     * Writes a binary snapshot of suppliers, flowers, sales and stock alerts.
+     * The tables are read in parallel from one consistent snapshot.
+     *
+     * @param file     target file
+     * @param compress whether to GZIP the snapshot body
+     * @return watermark and row count
+     */
+    public BackupResult snapshot(File file, boolean compress) throws SQLException, IOException {
+        Table[] tables = Table.values();
+        try (ConsistentSnapshot snapshot = ConsistentSnapshot.open(tables.length);
+                SnapshotWriter writer = new SnapshotWriter(file.toPath(), compress)) {
+            List<TableTask> tasks = new ArrayList<>();
+            for (int i = 0; i < tables.length; i++) {
+                Connection conn = snapshot.connection(i);
+                Table table = tables[i];
+                tasks.add(() -> writeTable(conn, writer.table(table)));
+            }
+            runAll(snapshot, tasks);
+            return new BackupResult(snapshot.getWatermark(), writer.getTotalRows());
+        } catch (SQLException | IOException | RuntimeException e) {
+            // Never leave a partial snapshot that looks complete
+            file.delete();
+            throw e;
+        }
+    }
+
+    private long writeTable(Connection conn, SnapshotWriter.TableWriter writer) throws SQLException, IOException {
+        Table table = writer.getTable();
+        String sql = "SELECT " + table.columnList() + " FROM " + table.getTableName() + " ORDER BY id";
+
+        long rows = 0;
+        try (PreparedStatement pstmt = prepareStreaming(conn, sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            int columns = table.getColumnCount();
+            while (rs.next()) {
+                for (int i = 0; i < columns; i++) {
+                    ColumnType type = table.getColumn(i).type();
+                    switch (type) {
+                        case TEXT -> writer.setString(i, rs.getString(i + 1));
+                        case CENTS -> writer.setLong(i, toCents(rs.getDouble(i + 1)));
+                        case DATE -> writer.setLong(i, rs.getObject(i + 1, LocalDate.class).toEpochDay());
+                        case FLAG -> writer.setLong(i, rs.getBoolean(i + 1) ? 1 : 0);
+                        // A null REF reads as 0
+                        default -> writer.setLong(i, rs.getInt(i + 1));
+                    }
+                }
+                writer.endRow();
+                rows++;
+            }
+        }
+        writer.finish();
+        return rows;
+    }
+
+    /**
+     * Backs up the rows changed since a watermark, or every row when it is null,
+     * as CSV files.
+     *
+     * @see #backup(File, String, Watermark, List)
+     */
+    public BackupResult backup(File directory, String suffix, Watermark since) throws SQLException, IOException {
+        return backup(directory, suffix, since, List.of(StandardExportFormat.CSV));
+    }
+
+    /**
+     * Backs up the rows changed since a watermark, or every row when it is null.
+     * Incremental backups also write a deletions file from the tombstones.
+     * The files are written in parallel from one consistent snapshot, so a
+     * sale and the stock change it caused are always in the same backup.
+     * Each table is read once and written in every requested format.
+     *
+     * @param directory target directory
+     * @param suffix    appended to each file name, e.g. a timestamp
+     * @param since     watermark of the backup this one builds on, or null for a full backup
+     * @param formats   formats to write, only CSV files can be restored
+     * @return watermark and row count
+     */
+    public BackupResult backup(File directory, String suffix, Watermark since, List<ExportFormat> formats)
+            throws SQLException, IOException {
+        int files = since != null ? 4 : 3;
+        try (ConsistentSnapshot snapshot = ConsistentSnapshot.open(files)) {
+            List<TableTask> tasks = new ArrayList<>();
+            Connection flowers = snapshot.connection(0);
+            Connection sales = snapshot.connection(1);
+            Connection suppliers = snapshot.connection(2);
+            tasks.add(() -> writeFlowers(flowers,
+                    openWriter(directory, "flowers_" + suffix, RecordSchema.FLOWERS, formats), since));
+            tasks.add(() -> writeSales(sales,
+                    openWriter(directory, "sales_" + suffix, RecordSchema.SALES, formats), since));
+            tasks.add(() -> writeSuppliers(suppliers,
+                    openWriter(directory, "suppliers_" + suffix, RecordSchema.SUPPLIERS, formats), since));
+            if (since != null) {
+                Connection deletions = snapshot.connection(3);
+                tasks.add(() -> writeDeletions(deletions,
+                        openWriter(directory, "deletions_" + suffix, RecordSchema.DELETIONS, formats), since));
+            }
+            return new BackupResult(snapshot.getWatermark(), runAll(snapshot, tasks));
+        }
+    }
+
+    public long writeFlowers(Connection conn, RecordWriter output, Watermark since) throws SQLException, IOException {
+        String sql = FLOWER_SQL + (since != null ? "WHERE updated_at >= ? " : "") + "ORDER BY id";
+
+        try (RecordWriter writer = output;
+                PreparedStatement pstmt = prepareStreaming(conn, sql)) {
+            if (since != null) {
+                pstmt.setTimestamp(1, changedSince(since));
+            }
+            writer.writeHeader();
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.writeInt(rs.getInt(1));
+                    writer.writeString(rs.getString(2));
+                    writer.writeString(rs.getString(3));
+                    writer.writeString(rs.getString(4));
+                    writer.writeCents(toCents(rs.getDouble(5)));
+                    writer.writeInt(rs.getInt(6));
+                    writer.writeDate(rs.getObject(7, LocalDate.class));
+                    writer.writeInt(rs.getInt(8));
+                    writer.writeInt(rs.getInt(9));
+                    writer.endRow();
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    public long writeSales(Connection conn, RecordWriter output, Watermark since) throws SQLException, IOException {
+        // Sales are append-only, new ones are found by ID; the watermark ID is already a margin back
+        String sql = SALE_SQL + (since != null ? "WHERE id > ? " : "") + "ORDER BY id";
+
+        try (RecordWriter writer = output;
+                PreparedStatement pstmt = prepareStreaming(conn, sql)) {
+            if (since != null) {
+                pstmt.setLong(1, since.saleId());
+            }
+            writer.writeHeader();
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.writeInt(rs.getInt(1));
+                    writer.writeDate(rs.getObject(2, LocalDate.class));
+                    writer.writeInt(rs.getInt(3));
+                    writer.writeInt(rs.getInt(4));
+                    writer.writeCents(toCents(rs.getDouble(5)));
+                    writer.writeString(rs.getString(6));
+                    writer.endRow();
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    public long writeSuppliers(Connection conn, RecordWriter output, Watermark since) throws SQLException, IOException {
+        String sql = SUPPLIER_SQL + (since != null ? "WHERE updated_at >= ? " : "") + "ORDER BY id";
+
+        try (RecordWriter writer = output;
+                PreparedStatement pstmt = prepareStreaming(conn, sql)) {
+            if (since != null) {
+                pstmt.setTimestamp(1, changedSince(since));
+            }
+            writer.writeHeader();
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.writeInt(rs.getInt(1));
+                    writer.writeString(rs.getString(2));
+                    writer.writeString(rs.getString(3));
+                    writer.writeString(rs.getString(4));
+                    writer.endRow();
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    public long writeDeletions(Connection conn, RecordWriter output, Watermark since) throws SQLException, IOException {
+        try (RecordWriter writer = output;
+                PreparedStatement pstmt = prepareStreaming(conn, DELETION_SQL)) {
+            pstmt.setLong(1, since.tombstoneId());
+            writer.writeHeader();
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.writeString(rs.getString(1));
+                    writer.writeInt(rs.getInt(2));
+                    writer.endRow();
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Lower bound on updated_at for an incremental backup.
+     */
+    private static Timestamp changedSince(Watermark since) {
+        return Timestamp.valueOf(since.time().minus(ChangeTrackingRepository.COMMIT_MARGIN));
+    }
+
+    /**
+     * Export of one table, returning its row count.
+     */
+    @FunctionalInterface
+    private interface TableTask {
+        long run() throws SQLException, IOException;
+    }
+
+    /**
+     * Runs the tasks in parallel, one thread per snapshot connection. When
+     * the snapshot has fewer connections than tasks, the tasks sharing a
+     * connection run one after the other on its thread.
+     *
+     * @return total row count
+     */
+    private static long runAll(ConsistentSnapshot snapshot, List<TableTask> tasks) throws SQLException, IOException {
+        long rows = 0;
+        if (snapshot.getParallelism() == 1) {
+            for (TableTask task : tasks) {
+                rows += task.run();
+            }
+            return rows;
+        }
+
+        int parallelism = snapshot.getParallelism();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "backup-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int worker = 0; worker < parallelism; worker++) {
+                // Same tasks as ConsistentSnapshot.connection(i) maps to this worker
+                int first = worker;
+                futures.add(executor.submit(() -> {
+                    long workerRows = 0;
+                    for (int i = first; i < tasks.size(); i += parallelism) {
+                        workerRows += tasks.get(i).run();
+                    }
+                    return workerRows;
+                }));
+            }
+
+            // Wait for every task before failing, the connections are shared with the snapshot
+            Exception failure = null;
+            for (Future<Long> future : futures) {
+                try {
+                    rows += future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                }
+            }
+            if (failure instanceof SQLException e) {
+                throw e;
+            } else if (failure instanceof IOException e) {
+                throw e;
+            } else if (failure != null) {
+                throw new IOException("Backup task failed", failure);
+            }
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for backup tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(DatabaseSettings.streamingFetchSize());
+        return pstmt;
+    }
+
+    /**
+     * Opens one file per format, named after the table and suffix, behind a
+     * single writer.
+     */
+    private static RecordWriter openWriter(File directory, String name, RecordSchema schema,
+            List<ExportFormat> formats) throws IOException {
+        List<RecordWriter> writers = new ArrayList<>();
+        try {
+            for (ExportFormat format : formats) {
+                File file = new File(directory, name + format.getExtension());
+                // CSV uses the platform charset, like FileWriter and FileReader in the file services
+                writers.add(format.open(new OutputStreamWriter(
+                        new BufferedOutputStream(new FileOutputStream(file), FILE_BUFFER_SIZE), format.getCharset()),
+                        schema, StreamingRecordWriter.DEFAULT_BUFFER_SIZE));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (RecordWriter writer : writers) {
+                writer.close();
+            }
+            throw e;
+        }
+        return writers.size() == 1 ? writers.get(0) : new TeeRecordWriter(writers);
+    }
+
+    private static long toCents(double amount) {
+        // DECIMAL(10, 2) columns round-trip exactly through cents
+        return Math.round(amount * 100);
+    }
+}
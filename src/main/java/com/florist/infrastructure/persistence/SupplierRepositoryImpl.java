@@ -1,5 +1,7 @@
 package com.florist.infrastructure.persistence;
 
+import com.florist.config.TerminalIdentity;
+import com.florist.domain.repository.ChangeTrackingRepository;
 import com.florist.domain.repository.SupplierRepository;
 import com.florist.model.Supplier;
 
@@ -107,17 +109,8 @@ public class SupplierRepositoryImpl implements SupplierRepository {
 
     @Override
     public boolean delete(int id) {
-        String sql = "DELETE FROM suppliers WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return ChangeTrackingRepositoryImpl.deleteWithTombstone("suppliers",
+                ChangeTrackingRepository.ENTITY_SUPPLIER, id, TerminalIdentity.getId());
     }
 
     private Supplier extractSupplierFromResultSet(ResultSet rs) throws SQLException {
@@ -0,0 +1,167 @@
+package com.florist.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV manifest of the backup chains in a backup directory.
+ * Each line describes one backup: its file suffix, its type, the full
+ * backup that starts its chain and the change log position it was taken
+ * at. Lines are kept in the order the backups were taken.
+ */
+public class BackupManifest {
+
+    public static final String FILE_NAME = "manifest.csv";
+
+    private static final String HEADER = "Suffix,Type,Chain,WatermarkTime,WatermarkSaleID,WatermarkTombstoneID,Rows";
+
+    /**
+     * CSV table file prefixes, in the order a restore must apply them.
+     */
+    public static final String[] FILE_PREFIXES = { "suppliers_", "flowers_", "sales_", "deletions_" };
+
+    /**
+     * Prefix of binary snapshot files, used for full backups.
+     */
+    public static final String SNAPSHOT_PREFIX = "snapshot_";
+
+    public enum BackupType {
+        /** Every row of every table, starts a new chain */
+        FULL,
+        /** Rows changed since the previous backup of the chain */
+        INCREMENTAL,
+        /** Rows changed since the full backup of the chain */
+        DIFFERENTIAL
+    }
+
+    /**
+     * One backup in the manifest.
+     *
+     * @param suffix        file name suffix shared by the backup's table files
+     * @param type          backup type
+     * @param chain         suffix of the full backup the chain starts with
+     * @param watermarkTime database time read when the backup started
+     * @param saleId        highest sale ID when the backup started
+     * @param tombstoneId   highest tombstone ID when the backup started
+     * @param rows          number of rows written
+     */
+    public record Entry(String suffix, BackupType type, String chain, LocalDateTime watermarkTime,
+            long saleId, long tombstoneId, long rows) {
+
+        /**
+         * Existing files of the backup: its snapshot or CSV files, and any
+         * feed files written next to them in other formats.
+         */
+        public List<File> files(File directory) {
+            List<File> files = new ArrayList<>();
+            File snapshot = findSnapshot(directory, suffix);
+            if (snapshot != null) {
+                files.add(snapshot);
+            }
+            for (String prefix : FILE_PREFIXES) {
+                for (StandardExportFormat format : StandardExportFormat.values()) {
+                    File file = new File(directory, prefix + suffix + format.getExtension());
+                    if (file.exists()) {
+                        files.add(file);
+                    }
+                }
+            }
+            return files;
+        }
+    }
+
+    private final File directory;
+    private final File file;
+
+    public BackupManifest(File directory) {
+        this.directory = directory;
+        this.file = new File(directory, FILE_NAME);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Finds the binary snapshot of a backup, compressed or not.
+     *
+     * @return the snapshot file, or null if the backup has none
+     */
+    public static File findSnapshot(File directory, String suffix) {
+        for (String extension : new String[] { SnapshotFormat.EXTENSION, SnapshotFormat.GZIP_EXTENSION }) {
+            File file = new File(directory, SNAPSHOT_PREFIX + suffix + extension);
+            if (file.exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads all entries, oldest first. A missing manifest is empty.
+     */
+    public List<Entry> load() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!file.exists()) {
+            return entries;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // Skip header
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length >= 7) {
+                    entries.add(new Entry(parts[0], BackupType.valueOf(parts[1]), parts[2],
+                            LocalDateTime.parse(parts[3]), Long.parseLong(parts[4]), Long.parseLong(parts[5]),
+                            Long.parseLong(parts[6])));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Replaces the manifest with the given entries.
+     * Written to a temporary file first, so a crash never leaves a torn manifest.
+     */
+    public void save(List<Entry> entries) throws IOException {
+        File temp = new File(directory, FILE_NAME + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Entry entry : entries) {
+                writer.write(String.join(",",
+                        entry.suffix(),
+                        entry.type().name(),
+                        entry.chain(),
+                        entry.watermarkTime().toString(),
+                        String.valueOf(entry.saleId()),
+                        String.valueOf(entry.tombstoneId()),
+                        String.valueOf(entry.rows())));
+                writer.newLine();
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Appends an entry to the manifest.
+     */
+    public void append(Entry entry) throws IOException {
+        List<Entry> entries = load();
+        entries.add(entry);
+        save(entries);
+    }
+}
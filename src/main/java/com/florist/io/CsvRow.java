@@ -0,0 +1,275 @@
+package com.florist.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One CSV record as byte ranges over a mapped file.
+ * Numbers and ISO dates are parsed straight from the bytes; only text
+ * fields are decoded into Strings. A row object is reused for every record
+ * of a chunk, so its values must be copied out before the next record.
+ */
+public final class CsvRow {
+
+    private static final byte QUOTE = '"';
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+    // Doubles hold every integer below 2^53 exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private ByteBuffer data;
+    private long rowNumber;
+    private int recordStart;
+    private int recordEnd;
+
+    private int fieldCount = 0;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    // Quoted fields containing doubled quotes
+    private boolean[] escaped = new boolean[16];
+    private byte[] scratch = new byte[256];
+
+    CsvRow(Charset charset) {
+        this.charset = charset;
+        // Single-byte and UTF-8 text can be decoded as Latin-1 when all bytes are ASCII
+        this.asciiCompatible = charset.newEncoder().maxBytesPerChar() == 1f
+                || charset.equals(StandardCharsets.UTF_8);
+    }
+
+    void reset(ByteBuffer data, long rowNumber, int recordStart) {
+        this.data = data;
+        this.rowNumber = rowNumber;
+        this.recordStart = recordStart;
+        this.fieldCount = 0;
+    }
+
+    void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    void end(int recordEnd) {
+        this.recordEnd = recordEnd;
+    }
+
+    /**
+     * Record number in the file, the header being record 1. Equals the line
+     * number unless earlier text fields span several lines.
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Fails the record unless it has at least the given number of fields.
+     */
+    public void require(int fields) {
+        if (fieldCount < fields) {
+            throw new IllegalArgumentException("Expected " + fields + " fields, found " + fieldCount);
+        }
+    }
+
+    public boolean isEmpty(int field) {
+        return starts[field] == ends[field];
+    }
+
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Field " + (field + 1) + " out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    public long getLong(int field) {
+        int position = skipSpaces(starts[field], ends[field]);
+        int end = trimSpaces(position, ends[field]);
+        boolean negative = position < end && data.get(position) == '-';
+        if (negative || (position < end && data.get(position) == '+')) {
+            position++;
+        }
+        if (position == end) {
+            throw numberError(field);
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = data.get(position) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw numberError(field);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a plain decimal such as 12.50 without going through a String.
+     * Other notations fall back to {@link Double#parseDouble}.
+     */
+    public double getDouble(int field) {
+        int start = skipSpaces(starts[field], ends[field]);
+        int end = trimSpaces(start, ends[field]);
+        int position = start;
+        boolean negative = position < end && data.get(position) == '-';
+        if (negative || (position < end && data.get(position) == '+')) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; position < end; position++) {
+            byte b = data.get(position);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+
+        if (position == end && digits > 0 && Math.max(fractionDigits, 0) < POWERS_OF_TEN.length) {
+            // Both operands are exact, so the division rounds correctly
+            double value = mantissa / POWERS_OF_TEN[Math.max(fractionDigits, 0)];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(getString(field));
+        } catch (NumberFormatException e) {
+            throw numberError(field);
+        }
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date, or returns null for an empty field.
+     */
+    public LocalDate getDate(int field) {
+        int start = skipSpaces(starts[field], ends[field]);
+        int end = trimSpaces(start, ends[field]);
+        if (start == end) {
+            return null;
+        }
+        if (end - start == 10 && data.get(start + 4) == '-' && data.get(start + 7) == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                // Rejects impossible dates such as 2024-02-30
+                return LocalDate.of(year, month, day);
+            }
+        }
+        throw new IllegalArgumentException("Field " + (field + 1) + " is not a yyyy-MM-dd date: "
+                + getString(field));
+    }
+
+    /**
+     * Decodes a text field, unescaping doubled quotes. Empty fields give "".
+     */
+    public String getString(int field) {
+        int start = starts[field];
+        int end = ends[field];
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int count;
+        if (escaped[field]) {
+            count = 0;
+            for (int i = start; i < end; i++) {
+                byte b = data.get(i);
+                scratch[count++] = b;
+                if (b == QUOTE) {
+                    // Skip the second quote of the pair
+                    i++;
+                }
+            }
+        } else {
+            data.get(start, scratch, 0, length);
+            count = length;
+        }
+        return decode(scratch, count);
+    }
+
+    /**
+     * The raw text of the record, for error reports.
+     */
+    public String getLine() {
+        int length = recordEnd - recordStart;
+        byte[] bytes = new byte[length];
+        data.get(recordStart, bytes, 0, length);
+        return new String(bytes, charset);
+    }
+
+    private String decode(byte[] bytes, int length) {
+        if (asciiCompatible) {
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = bytes[i] >= 0;
+            }
+            if (ascii) {
+                // Latin-1 decoding of ASCII is a plain copy
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return new String(bytes, 0, length, charset);
+    }
+
+    private int digits(int position, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = data.get(position + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int skipSpaces(int position, int end) {
+        while (position < end && data.get(position) == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private int trimSpaces(int start, int end) {
+        while (end > start && data.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private NumberFormatException numberError(int field) {
+        return new NumberFormatException("Field " + (field + 1) + " is not a number: " + getString(field));
+    }
+}
@@ -0,0 +1,38 @@
+package com.florist.io;
+
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * A file format tables can be exported in. The built-in formats are
+ * listed in {@link StandardExportFormat}; other formats plug in by
+ * implementing this interface and returning their own {@link RecordWriter}.
+ */
+public interface ExportFormat {
+
+    /**
+     * Short name, used in settings and shown to the user.
+     */
+    String getName();
+
+    /**
+     * File extension including the dot, e.g. ".csv".
+     */
+    String getExtension();
+
+    /**
+     * Charset files of this format are written in.
+     */
+    default Charset getCharset() {
+        return Charset.defaultCharset();
+    }
+
+    /**
+     * Opens a writer for records of the schema.
+     *
+     * @param out        target, closed with the returned writer
+     * @param schema     fields of the exported table
+     * @param bufferSize size of the writer's char buffer
+     */
+    RecordWriter open(Writer out, RecordSchema schema, int bufferSize);
+}
@@ -7,43 +7,70 @@ import com.florist.model.Supplier;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
- * Service for exporting data to CSV files.
+ * Service for exporting data to CSV files, or any other {@link ExportFormat}.
  * Demonstrates File I/O functionality (Phase 5 requirement).
  */
 public class FileExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final String CSV_SEPARATOR = ",";
+
+    // Rough row sizes, used to size the write buffers
+    private static final int FLOWER_ROW_BYTES = 80;
+    private static final int SALE_ROW_BYTES = 48;
+    private static final int SUPPLIER_ROW_BYTES = 64;
+    private static final int MIN_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+    private static final int PROGRESS_INTERVAL = 1000;
 
     /**
      * Export flowers to CSV file.
      */
     public void exportFlowersToCsv(List<Flower> flowers, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+        exportFlowers(flowers, filePath, StandardExportFormat.CSV, rows -> {
+        });
+    }
+
+    /**
+     * Export flowers in the given format, reporting rows written as it goes.
+     */
+    public void exportFlowers(List<Flower> flowers, String filePath, ExportFormat format, IntConsumer progress)
+            throws IOException {
+        try (RecordWriter writer = openWriter(filePath, format, RecordSchema.FLOWERS, flowers.size(),
+                FLOWER_ROW_BYTES)) {
             // Write header
-            writer.write("ID,Name,Color,Category,Price,Quantity,ArrivalDate,FreshnessDays,SupplierID");
-            writer.newLine();
+            writer.writeHeader();
 
             // Write data
+            int pending = 0;
             for (Flower flower : flowers) {
-                String line = String.join(CSV_SEPARATOR,
-                        String.valueOf(flower.getId()),
-                        escapeCSV(flower.getName()),
-                        escapeCSV(flower.getColor()),
-                        escapeCSV(flower.getCategory()),
-                        String.valueOf(flower.getPrice()),
-                        String.valueOf(flower.getQuantity()),
-                        flower.getArrivalDate() != null ? flower.getArrivalDate().format(DATE_FORMATTER) : "",
-                        String.valueOf(flower.getFreshnessDays()),
-                        String.valueOf(flower.getSupplierId()));
-                writer.write(line);
-                writer.newLine();
+                writer.writeInt(flower.getId());
+                writer.writeString(flower.getName());
+                writer.writeString(flower.getColor());
+                writer.writeString(flower.getCategory());
+                writer.writeAmount(flower.getPrice());
+                writer.writeInt(flower.getQuantity());
+                writer.writeDate(flower.getArrivalDate());
+                writer.writeInt(flower.getFreshnessDays());
+                writer.writeInt(flower.getSupplierId());
+                writer.endRow();
+                if (++pending == PROGRESS_INTERVAL) {
+                    progress.accept(pending);
+                    pending = 0;
+                }
             }
+            progress.accept(pending);
         }
     }
 
@@ -51,23 +78,36 @@ public class FileExportService {
      * Export sales to CSV file.
      */
     public void exportSalesToCsv(List<Sale> sales, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+        exportSales(sales, filePath, StandardExportFormat.CSV, rows -> {
+        });
+    }
+
+    /**
+     * Export sales in the given format, reporting rows written as it goes.
+     */
+    public void exportSales(List<Sale> sales, String filePath, ExportFormat format, IntConsumer progress)
+            throws IOException {
+        try (RecordWriter writer = openWriter(filePath, format, RecordSchema.SALES, sales.size(),
+                SALE_ROW_BYTES)) {
             // Write header
-            writer.write("ID,SaleDate,FlowerID,QuantitySold,TotalPrice,CustomerName");
-            writer.newLine();
+            writer.writeHeader();
 
             // Write data
+            int pending = 0;
             for (Sale sale : sales) {
-                String line = String.join(CSV_SEPARATOR,
-                        String.valueOf(sale.getId()),
-                        sale.getSaleDate() != null ? sale.getSaleDate().format(DATE_FORMATTER) : "",
-                        String.valueOf(sale.getFlowerId()),
-                        String.valueOf(sale.getQuantitySold()),
-                        String.valueOf(sale.getTotalPrice()),
-                        escapeCSV(sale.getCustomerName()));
-                writer.write(line);
-                writer.newLine();
+                writer.writeInt(sale.getId());
+                writer.writeDate(sale.getSaleDate());
+                writer.writeInt(sale.getFlowerId());
+                writer.writeInt(sale.getQuantitySold());
+                writer.writeAmount(sale.getTotalPrice());
+                writer.writeString(sale.getCustomerName());
+                writer.endRow();
+                if (++pending == PROGRESS_INTERVAL) {
+                    progress.accept(pending);
+                    pending = 0;
+                }
             }
+            progress.accept(pending);
         }
     }
 
@@ -75,21 +115,35 @@ public class FileExportService {
      * Export suppliers to CSV file.
      */
     public void exportSuppliersToCsv(List<Supplier> suppliers, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+        exportSuppliers(suppliers, filePath, StandardExportFormat.CSV, rows -> {
+        });
+    }
+
+    /**
+     * Export suppliers in the given format, reporting rows written as it goes.
+     */
+    public void exportSuppliers(List<Supplier> suppliers, String filePath, ExportFormat format,
+            IntConsumer progress)
+            throws IOException {
+        try (RecordWriter writer = openWriter(filePath, format, RecordSchema.SUPPLIERS, suppliers.size(),
+                SUPPLIER_ROW_BYTES)) {
             // Write header
-            writer.write("ID,Name,Phone,Email");
-            writer.newLine();
+            writer.writeHeader();
 
             // Write data
+            int pending = 0;
             for (Supplier supplier : suppliers) {
-                String line = String.join(CSV_SEPARATOR,
-                        String.valueOf(supplier.getId()),
-                        escapeCSV(supplier.getName()),
-                        escapeCSV(supplier.getPhone()),
-                        escapeCSV(supplier.getEmail()));
-                writer.write(line);
-                writer.newLine();
+                writer.writeInt(supplier.getId());
+                writer.writeString(supplier.getName());
+                writer.writeString(supplier.getPhone());
+                writer.writeString(supplier.getEmail());
+                writer.endRow();
+                if (++pending == PROGRESS_INTERVAL) {
+                    progress.accept(pending);
+                    pending = 0;
+                }
             }
+            progress.accept(pending);
         }
     }
 
@@ -120,15 +174,20 @@ public class FileExportService {
     }
 
     /**
-     * Escape CSV special characters.
+     * Opens a record writer on a file channel, with buffers sized from the
+     * expected output so small exports stay small and large ones flush rarely.
      */
-    private String escapeCSV(String value) {
-        if (value == null) {
-            return "";
-        }
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    private static RecordWriter openWriter(String filePath, ExportFormat format, RecordSchema schema, int rows,
+            int bytesPerRow) throws IOException {
+        long expected = (long) rows * bytesPerRow;
+        int bufferSize = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, expected));
+
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Same replacement behaviour as FileWriter
+        CharsetEncoder encoder = format.getCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return format.open(Channels.newWriter(channel, encoder, bufferSize), schema, bufferSize);
     }
 }
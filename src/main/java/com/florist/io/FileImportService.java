@@ -4,125 +4,134 @@ import com.florist.model.Flower;
 import com.florist.model.Sale;
 import com.florist.model.Supplier;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import com.florist.io.ParallelCsvReader.ImportBatch;
+import com.florist.io.ParallelCsvReader.ImportSink;
+import com.florist.io.ParallelCsvReader.RowMapper;
+
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Service for importing data from CSV files.
  * Demonstrates File I/O functionality (Phase 5 requirement).
+ * Files are read by a {@link ParallelCsvReader}; the row mappers are public
+ * so larger imports can stream batches instead of collecting lists.
  */
 public class FileImportService {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    /** Maps ID,Name,Color,Category,Price,Quantity,ArrivalDate,FreshnessDays,SupplierID; the ID may be empty */
+    public static final RowMapper<Flower> FLOWER_MAPPER = row -> {
+        row.require(9);
+        Flower flower = new Flower();
+        flower.setId(row.isEmpty(0) ? 0 : row.getInt(0));
+        flower.setName(row.getString(1));
+        flower.setColor(row.getString(2));
+        flower.setCategory(row.getString(3));
+        flower.setPrice(row.getDouble(4));
+        flower.setQuantity(row.getInt(5));
+        flower.setArrivalDate(row.getDate(6));
+        flower.setFreshnessDays(row.getInt(7));
+        flower.setSupplierId(row.getInt(8));
+        return flower;
+    };
+
+    /** Maps ID,SaleDate,FlowerID,QuantitySold,TotalPrice,CustomerName */
+    public static final RowMapper<Sale> SALE_MAPPER = row -> {
+        row.require(6);
+        Sale sale = new Sale();
+        sale.setId(row.getInt(0));
+        sale.setSaleDate(row.getDate(1));
+        sale.setFlowerId(row.getInt(2));
+        sale.setQuantitySold(row.getInt(3));
+        sale.setTotalPrice(row.getDouble(4));
+        sale.setCustomerName(row.getString(5));
+        return sale;
+    };
+
+    /** Maps ID,Name,Phone,Email */
+    public static final RowMapper<Supplier> SUPPLIER_MAPPER = row -> {
+        row.require(4);
+        Supplier supplier = new Supplier();
+        supplier.setId(row.getInt(0));
+        supplier.setName(row.getString(1));
+        supplier.setPhone(row.getString(2));
+        supplier.setEmail(row.getString(3));
+        return supplier;
+    };
+
+    private final ParallelCsvReader reader;
+
+    public FileImportService() {
+        this(new ParallelCsvReader());
+    }
+
+    public FileImportService(ParallelCsvReader reader) {
+        this.reader = reader;
+    }
 
     /**
      * Import flowers from CSV file.
      */
     public List<Flower> importFlowersFromCsv(String filePath) throws IOException {
-        List<Flower> flowers = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            // Skip header
-            String line = reader.readLine();
-
-            // Read data
-            while ((line = reader.readLine()) != null) {
-                String[] parts = parseCSVLine(line);
-                if (parts.length >= 9) {
-                    Flower flower = new Flower();
-                    flower.setId(Integer.parseInt(parts[0]));
-                    flower.setName(parts[1]);
-                    flower.setColor(parts[2]);
-                    flower.setCategory(parts[3]);
-                    flower.setPrice(Double.parseDouble(parts[4]));
-                    flower.setQuantity(Integer.parseInt(parts[5]));
-
-                    if (!parts[6].isEmpty()) {
-                        flower.setArrivalDate(LocalDate.parse(parts[6], DATE_FORMATTER));
-                    }
-
-                    flower.setFreshnessDays(Integer.parseInt(parts[7]));
-                    flower.setSupplierId(Integer.parseInt(parts[8]));
-
-                    flowers.add(flower);
-                }
-            }
-        }
-
-        return flowers;
+        return importAll(filePath, FLOWER_MAPPER);
     }
 
     /**
      * Import sales from CSV file.
      */
     public List<Sale> importSalesFromCsv(String filePath) throws IOException {
-        List<Sale> sales = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            // Skip header
-            String line = reader.readLine();
-
-            // Read data
-            while ((line = reader.readLine()) != null) {
-                String[] parts = parseCSVLine(line);
-                if (parts.length >= 6) {
-                    Sale sale = new Sale();
-                    sale.setId(Integer.parseInt(parts[0]));
-
-                    if (!parts[1].isEmpty()) {
-                        sale.setSaleDate(LocalDate.parse(parts[1], DATE_FORMATTER));
-                    }
-
-                    sale.setFlowerId(Integer.parseInt(parts[2]));
-                    sale.setQuantitySold(Integer.parseInt(parts[3]));
-                    sale.setTotalPrice(Double.parseDouble(parts[4]));
-                    sale.setCustomerName(parts[5]);
-
-                    sales.add(sale);
-                }
-            }
-        }
-
-        return sales;
+        return importAll(filePath, SALE_MAPPER);
     }
 
     /**
      * Import suppliers from CSV file.
      */
     public List<Supplier> importSuppliersFromCsv(String filePath) throws IOException {
-        List<Supplier> suppliers = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            // Skip header
-            String line = reader.readLine();
-
-            // Read data
-            while ((line = reader.readLine()) != null) {
-                String[] parts = parseCSVLine(line);
-                if (parts.length >= 4) {
-                    Supplier supplier = new Supplier();
-                    supplier.setId(Integer.parseInt(parts[0]));
-                    supplier.setName(parts[1]);
-                    supplier.setPhone(parts[2]);
-                    supplier.setEmail(parts[3]);
-
-                    suppliers.add(supplier);
+        return importAll(filePath, SUPPLIER_MAPPER);
+    }
+
+    /**
+     * Reads a whole file into a list in file order. Rows that cannot be
+     * parsed are logged and skipped.
+     */
+    private <T> List<T> importAll(String filePath, RowMapper<T> mapper) throws IOException {
+        List<ImportBatch<T>> batches = new ArrayList<>();
+        ImportSink<T> sink = new ImportSink<>() {
+            @Override
+            public void accept(ImportBatch<T> batch) {
+                synchronized (batches) {
+                    batches.add(batch);
                 }
             }
+
+            @Override
+            public void reject(long rowNumber, String line, String reason) {
+                System.err.println("[IMPORT] Skipped row " + rowNumber + " of " + filePath + ": " + reason);
+            }
+        };
+
+        try {
+            reader.read(Paths.get(filePath), mapper, sink);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
         }
 
-        return suppliers;
+        batches.sort(Comparator.comparingLong(ImportBatch::firstRowNumber));
+        List<T> rows = new ArrayList<>();
+        for (ImportBatch<T> batch : batches) {
+            rows.addAll(batch.rows());
+        }
+        return rows;
     }
 
     /**
-     * Parse CSV line handling quoted fields.
+     * Parse CSV line handling quoted fields and doubled quotes.
      */
-    private String[] parseCSVLine(String line) {
+    public static String[] parseCSVLine(String line) {
         List<String> result = new ArrayList<>();
         boolean inQuotes = false;
         StringBuilder current = new StringBuilder();
@@ -131,7 +140,13 @@ public class FileImportService {
             char c = line.charAt(i);
 
             if (c == '\"') {
-                inQuotes = !inQuotes;
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
+                    // Escaped quote inside a quoted field
+                    current.append(c);
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
             } else if (c == ',' && !inQuotes) {
                 result.add(current.toString());
                 current = new StringBuilder();
@@ -0,0 +1,407 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads large CSV files on several cores.
+ * <p>
+ * The file is memory-mapped and cut into chunks that are parsed in
+ * parallel, each into batches of entities handed to an {@link ImportSink}.
+ * Chunk boundaries must fall on record boundaries, but a line break inside
+ * a quoted field is not one. A first parallel pass therefore counts the
+ * quotes of every chunk; the running parity of those counts tells whether
+ * a chunk starts inside a quoted field, and so which of its line breaks
+ * ends the first record. The same pass counts records, so every record
+ * gets its exact number in the file.
+ * <p>
+ * The first record is the header and is skipped. Blank lines are ignored.
+ * <p>
+ * Files smaller than one chunk are read into heap buffers instead of
+ * being mapped. A mapping lives until it is garbage collected, and on
+ * Windows a mapped file cannot be renamed or deleted meanwhile, which
+ * would keep small files such as deliveries from being archived.
+ */
+public class ParallelCsvReader {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Files smaller than this are read as one chunk, and not mapped */
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * Turns a parsed record into an entity. Throwing rejects the record.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(CsvRow row);
+    }
+
+    /**
+     * Receives the results of a read. Called from several threads at once,
+     * implementations must be thread-safe. Blocking in {@link #accept}
+     * slows the readers down, which bounds memory.
+     */
+    public interface ImportSink<T> {
+
+        void accept(ImportBatch<T> batch) throws InterruptedException;
+
+        /**
+         * Called for a record the mapper could not convert.
+         */
+        void reject(long rowNumber, String line, String reason);
+    }
+
+    /**
+     * Consecutive entities of one chunk.
+     *
+     * @param rows       the entities, in file order
+     * @param rowNumbers record number of each entity in the file
+     */
+    public record ImportBatch<T>(List<T> rows, long[] rowNumbers) {
+
+        public int size() {
+            return rows.size();
+        }
+
+        public long firstRowNumber() {
+            return rowNumbers[0];
+        }
+    }
+
+    /**
+     * Totals of a read.
+     */
+    public record ReadResult(long rows, long rejected, long bytes, long nanos) {
+
+        public double bytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+        }
+    }
+
+    private final int parallelism;
+    private final int batchSize;
+    private final Charset charset;
+
+    public ParallelCsvReader() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, Charset.defaultCharset());
+    }
+
+    /**
+     * @param parallelism number of reader threads
+     * @param batchSize   entities per batch
+     * @param charset     charset of the text fields, ASCII compatible
+     */
+    public ParallelCsvReader(int parallelism, int batchSize, Charset charset) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Parallelism and batch size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.charset = charset;
+    }
+
+    /**
+     * Reads every record of the file through the mapper into the sink.
+     * Batches of different chunks arrive in no particular order.
+     *
+     * @return row counts and timing
+     */
+    public <T> ReadResult read(Path file, RowMapper<T> mapper, ImportSink<T> sink)
+            throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.min(MAX_CHUNK_SIZE,
+                    Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD) + 1));
+            int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+            ExecutorService executor = chunkCount == 1 ? null : Executors.newFixedThreadPool(
+                    Math.min(parallelism, chunkCount), r -> {
+                        Thread thread = new Thread(r, "csv-reader");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            try {
+                // Pass 1: quote parity and record breaks of each raw chunk
+                List<Callable<ChunkScan>> scans = new ArrayList<>();
+                for (int i = 0; i < chunkCount; i++) {
+                    long start = i * chunkSize;
+                    long length = Math.min(chunkSize, size - start);
+                    scans.add(() -> scan(region(channel, size, start, length), length));
+                }
+                List<ChunkScan> results = runAll(executor, scans);
+
+                // Align every chunk on the first record break at or after its raw start
+                long[] alignedStarts = new long[chunkCount + 1];
+                long[] firstRowNumbers = new long[chunkCount];
+                alignedStarts[chunkCount] = size;
+                boolean inQuotes = false;
+                long recordsBefore = 0;
+                for (int i = 0; i < chunkCount; i++) {
+                    ChunkScan scan = results.get(i);
+                    int parity = inQuotes ? 1 : 0;
+                    alignedStarts[i] = scan.firstBreak[parity] < 0 ? -1 : i * chunkSize + scan.firstBreak[parity] + 1;
+                    // The header is record 1, the record after the first break is one more
+                    firstRowNumbers[i] = recordsBefore + 2;
+                    recordsBefore += scan.breaks[parity];
+                    inQuotes ^= scan.oddQuotes;
+                }
+                for (int i = chunkCount - 1; i >= 0; i--) {
+                    if (alignedStarts[i] < 0) {
+                        // No record ends in this chunk, it is part of the next one's first record
+                        alignedStarts[i] = alignedStarts[i + 1];
+                    }
+                }
+
+                // Pass 2: parse the records between aligned starts
+                List<Callable<long[]>> parses = new ArrayList<>();
+                for (int i = 0; i < chunkCount; i++) {
+                    long start = alignedStarts[i];
+                    long end = alignedStarts[i + 1];
+                    long firstRow = firstRowNumbers[i];
+                    if (end > start) {
+                        parses.add(() -> parse(region(channel, size, start, end - start), end - start, firstRow,
+                                mapper, sink));
+                    }
+                }
+                long rows = 0;
+                long rejected = 0;
+                for (long[] counts : runAll(executor, parses)) {
+                    rows += counts[0];
+                    rejected += counts[1];
+                }
+                return new ReadResult(rows, rejected, size, System.nanoTime() - startNanos);
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of scanning a raw chunk. Index 0 assumes the chunk starts
+     * outside quotes, index 1 inside.
+     */
+    private static final class ChunkScan {
+        boolean oddQuotes;
+        final long[] firstBreak = { -1, -1 };
+        final long[] breaks = new long[2];
+    }
+
+    /**
+     * Bytes [start, start + length) of the file: mapped for large files,
+     * copied to the heap for files that fit in one chunk.
+     */
+    private static ByteBuffer region(FileChannel channel, long fileSize, long start, long length)
+            throws IOException {
+        if (fileSize >= MIN_CHUNK_SIZE) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) length);
+        while (data.hasRemaining()) {
+            if (channel.read(data, start + data.position()) < 0) {
+                throw new IOException("File shrank while being read");
+            }
+        }
+        return data.flip();
+    }
+
+    private static ChunkScan scan(ByteBuffer data, long length) {
+        ChunkScan scan = new ChunkScan();
+        int parity = 0;
+        int limit = (int) length;
+        for (int i = 0; i < limit; i++) {
+            byte b = data.get(i);
+            if (b == QUOTE) {
+                parity ^= 1;
+            } else if (b == NEWLINE) {
+                // A break ends a record when the quotes seen so far match the starting state
+                if (scan.firstBreak[parity] < 0) {
+                    scan.firstBreak[parity] = i;
+                }
+                scan.breaks[parity]++;
+            }
+        }
+        scan.oddQuotes = parity == 1;
+        return scan;
+    }
+
+    /**
+     * Parses the records of one aligned chunk.
+     *
+     * @return rows emitted and rows rejected
+     */
+    private <T> long[] parse(ByteBuffer data, long length, long firstRowNumber,
+            RowMapper<T> mapper, ImportSink<T> sink) throws InterruptedException {
+        int limit = (int) length;
+        CsvRow row = new CsvRow(charset);
+
+        List<T> batch = new ArrayList<>(batchSize);
+        long[] rowNumbers = new long[batchSize];
+        long rows = 0;
+        long rejected = 0;
+        long rowNumber = firstRowNumber;
+
+        int position = 0;
+        while (position < limit) {
+            row.reset(data, rowNumber, position);
+            int next = tokenize(data, position, limit, row);
+            boolean blank = row.getFieldCount() == 1 && row.isEmpty(0);
+            position = next;
+            if (blank) {
+                rowNumber++;
+                continue;
+            }
+
+            T entity;
+            try {
+                entity = mapper.map(row);
+            } catch (RuntimeException e) {
+                sink.reject(rowNumber, row.getLine(),
+                        e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                rejected++;
+                rowNumber++;
+                continue;
+            }
+
+            rowNumbers[batch.size()] = rowNumber;
+            batch.add(entity);
+            rows++;
+            rowNumber++;
+            if (batch.size() == batchSize) {
+                sink.accept(new ImportBatch<>(batch, rowNumbers));
+                batch = new ArrayList<>(batchSize);
+                rowNumbers = new long[batchSize];
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(new ImportBatch<>(batch, Arrays.copyOf(rowNumbers, batch.size())));
+        }
+        return new long[] { rows, rejected };
+    }
+
+    /**
+     * Splits one record into fields.
+     *
+     * @return position after the record's line break
+     */
+    private static int tokenize(ByteBuffer data, int position, int limit, CsvRow row) {
+        while (true) {
+            int fieldStart = position;
+            boolean escaped = false;
+            int fieldEnd;
+            if (position < limit && data.get(position) == QUOTE) {
+                fieldStart = ++position;
+                while (true) {
+                    if (position >= limit) {
+                        // Unterminated quote at the end of the file
+                        fieldEnd = limit;
+                        break;
+                    }
+                    if (data.get(position) == QUOTE) {
+                        if (position + 1 < limit && data.get(position + 1) == QUOTE) {
+                            escaped = true;
+                            position += 2;
+                            continue;
+                        }
+                        fieldEnd = position++;
+                        break;
+                    }
+                    position++;
+                }
+                // Anything between the closing quote and the separator is ignored
+                while (position < limit && data.get(position) != SEPARATOR && data.get(position) != NEWLINE) {
+                    position++;
+                }
+            } else {
+                while (position < limit && data.get(position) != SEPARATOR && data.get(position) != NEWLINE) {
+                    position++;
+                }
+                fieldEnd = position;
+                if (fieldEnd > fieldStart && data.get(fieldEnd - 1) == CARRIAGE_RETURN
+                        && (position >= limit || data.get(position) == NEWLINE)) {
+                    fieldEnd--;
+                }
+            }
+            row.addField(fieldStart, fieldEnd, escaped);
+
+            if (position >= limit) {
+                row.end(limit);
+                return limit;
+            }
+            if (data.get(position) == NEWLINE) {
+                int recordEnd = position > 0 && data.get(position - 1) == CARRIAGE_RETURN ? position - 1 : position;
+                row.end(recordEnd);
+                return position + 1;
+            }
+            // Separator, next field
+            position++;
+        }
+    }
+
+    private static <R> List<R> runAll(ExecutorService executor, List<Callable<R>> tasks)
+            throws IOException, InterruptedException {
+        List<R> results = new ArrayList<>();
+        if (executor == null) {
+            for (Callable<R> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        List<Future<R>> futures = new ArrayList<>();
+        for (Callable<R> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            } else if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            } else if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("CSV reader failed", cause);
+        }
+        return results;
+    }
+
+    private static <R> R call(Callable<R> task) throws IOException, InterruptedException {
+        try {
+            return task.call();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("CSV reader failed", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.florist.io;
+
+/**
+ * Field names and fixed-width sizes of an exported table.
+ * Names are used as CSV and TSV headers and as JSON keys, widths only by
+ * fixed-width output. Widths follow the database column sizes.
+ */
+public final class RecordSchema {
+
+    public static final RecordSchema FLOWERS = new RecordSchema(
+            new Field("ID", 10),
+            new Field("Name", 100),
+            new Field("Color", 50),
+            new Field("Category", 50),
+            new Field("Price", 12),
+            new Field("Quantity", 10),
+            new Field("ArrivalDate", 10),
+            new Field("FreshnessDays", 5),
+            new Field("SupplierID", 10));
+
+    public static final RecordSchema SALES = new RecordSchema(
+            new Field("ID", 10),
+            new Field("SaleDate", 10),
+            new Field("FlowerID", 10),
+            new Field("QuantitySold", 10),
+            new Field("TotalPrice", 12),
+            new Field("CustomerName", 100));
+
+    public static final RecordSchema SUPPLIERS = new RecordSchema(
+            new Field("ID", 10),
+            new Field("Name", 100),
+            new Field("Phone", 20),
+            new Field("Email", 100));
+
+    public static final RecordSchema DELETIONS = new RecordSchema(
+            new Field("EntityType", 20),
+            new Field("EntityID", 10));
+
+    /**
+     * An exported field.
+     *
+     * @param name  header and key of the field
+     * @param width number of characters in fixed-width output
+     */
+    public record Field(String name, int width) {
+    }
+
+    private final Field[] fields;
+
+    public RecordSchema(Field... fields) {
+        this.fields = fields;
+    }
+
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    public Field getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Widest field, the most a fixed-width writer buffers for one field.
+     */
+    public int getMaxWidth() {
+        int max = 0;
+        for (Field field : fields) {
+            max = Math.max(max, field.width());
+        }
+        return max;
+    }
+
+    /**
+     * Field names joined by the separator, e.g. a CSV header.
+     */
+    public String header(char separator) {
+        StringBuilder header = new StringBuilder();
+        for (Field field : fields) {
+            if (header.length() > 0) {
+                header.append(separator);
+            }
+            header.append(field.name());
+        }
+        return header.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.florist.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes records field by field in some export format.
+ * Fields are written in {@link RecordSchema} order, then {@link #endRow}
+ * ends the record. Null strings and dates are written as the format's
+ * empty value.
+ *
+ * @see ExportFormat
+ */
+public interface RecordWriter extends Closeable {
+
+    /**
+     * Writes the format's header for the schema, if it has one.
+     */
+    void writeHeader() throws IOException;
+
+    void writeInt(int value) throws IOException;
+
+    void writeLong(long value) throws IOException;
+
+    /**
+     * Writes an amount held in cents as a decimal with two places, e.g. 350 as 3.50.
+     */
+    void writeCents(long cents) throws IOException;
+
+    /**
+     * Writes a money amount rounded to cents, e.g. 3.5 as 3.50.
+     */
+    default void writeAmount(double amount) throws IOException {
+        writeCents(Math.round(amount * 100));
+    }
+
+    void writeDate(LocalDate date) throws IOException;
+
+    void writeString(CharSequence value) throws IOException;
+
+    void endRow() throws IOException;
+
+    void flush() throws IOException;
+}
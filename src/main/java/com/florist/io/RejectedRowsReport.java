@@ -0,0 +1,79 @@
+package com.florist.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * CSV report of the rows an import did not load, with the stage that
+ * rejected them and why. The file is only created once a row is rejected.
+ * Safe to use from several threads.
+ */
+public class RejectedRowsReport implements Closeable {
+
+    public static final String HEADER = "Row,Stage,Reason,Line";
+
+    private final File file;
+    private StreamingCsvWriter writer;
+    private long count = 0;
+
+    public RejectedRowsReport(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Report file for an imported file, next to it: sales.csv gives sales.rejected.csv.
+     */
+    public static File besides(File imported) {
+        String name = imported.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return new File(imported.getAbsoluteFile().getParentFile(), base + ".rejected.csv");
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param rowNumber record number in the imported file
+     * @param stage     stage that rejected the row, e.g. "validate"
+     * @param reason    why the row was rejected
+     * @param line      raw text of the row, or null when no longer known
+     */
+    public synchronized void reject(long rowNumber, String stage, String reason, String line) {
+        count++;
+        try {
+            if (writer == null) {
+                writer = new StreamingCsvWriter(new BufferedWriter(new FileWriter(file)));
+                writer.writeHeader(HEADER);
+            }
+            writer.writeLong(rowNumber);
+            writer.writeString(stage);
+            writer.writeString(reason);
+            writer.writeString(line);
+            writer.endRow();
+        } catch (IOException e) {
+            // The import goes on, the count is still reported
+            System.err.println("[IMPORT] Cannot write rejected rows report: " + e.getMessage());
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * The report file, or null if no row was rejected.
+     */
+    public synchronized File getFile() {
+        return writer != null ? file : null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
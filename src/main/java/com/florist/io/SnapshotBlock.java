@@ -0,0 +1,39 @@
+package com.florist.io;
+
+import com.florist.io.SnapshotFormat.Table;
+
+/**
+ * One decoded block of a snapshot: up to {@link SnapshotFormat#BLOCK_ROWS}
+ * rows of a single table, held column by column.
+ * Blocks are reused by {@link SnapshotReader}, a block is only valid until
+ * the next call to {@link SnapshotReader#nextBlock}.
+ */
+public class SnapshotBlock {
+
+    Table table;
+    int rowCount;
+    long[][] numbers;
+    int[][] codes;
+    String[][] dictionaries;
+
+    public Table getTable() {
+        return table;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getLong(int column, int row) {
+        return numbers[column][row];
+    }
+
+    public int getInt(int column, int row) {
+        return (int) numbers[column][row];
+    }
+
+    public String getString(int column, int row) {
+        int code = codes[column][row];
+        return code == 0 ? null : dictionaries[column][code - 1];
+    }
+}
@@ -0,0 +1,159 @@
+package com.florist.io;
+
+/**
+ * Layout of binary table snapshots.
+ * <p>
+ * A snapshot starts with a 6 byte header: the magic "PSNP", a version byte
+ * and a flags byte. When {@link #FLAG_GZIP} is set everything after the
+ * header is one GZIP stream. The body is a sequence of blocks, each holding
+ * up to {@link #BLOCK_ROWS} rows of one table:
+ * <pre>
+ *   table id (1 byte) | row count (int) | payload length (int) | CRC32C of payload (int) | payload
+ * </pre>
+ * Blocks of different tables may be interleaved, tables are written in
+ * parallel. A table id of 0 ends the snapshot, so truncated files are detected.
+ * The payload stores the block column by column. IDs and dates (as epoch
+ * days) are delta encoded, every number is written as a zigzag varint and
+ * text columns are dictionary encoded per block: the distinct values
+ * followed by one varint code per row, 0 meaning null.
+ */
+public final class SnapshotFormat {
+
+    static final byte[] MAGIC = { 'P', 'S', 'N', 'P' };
+    static final byte VERSION = 1;
+    static final byte FLAG_GZIP = 1;
+    static final int HEADER_SIZE = 6;
+    static final int BLOCK_HEADER_SIZE = 13;
+    static final byte END_OF_SNAPSHOT = 0;
+
+    public static final int BLOCK_ROWS = 16 * 1024;
+
+    public static final String EXTENSION = ".psnap";
+    public static final String GZIP_EXTENSION = ".psnap.gz";
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * Column value types. All but TEXT are held as longs.
+     */
+    public enum ColumnType {
+        /** Ascending row ID, delta encoded */
+        ID,
+        /** Plain integer */
+        INT,
+        /** Foreign key, 0 stands for null */
+        REF,
+        /** DECIMAL(10, 2) amount in cents */
+        CENTS,
+        /** Date as epoch day, delta encoded */
+        DATE,
+        /** Boolean as 0 or 1 */
+        FLAG,
+        /** Dictionary encoded string */
+        TEXT;
+
+        boolean isDeltaEncoded() {
+            return this == ID || this == DATE;
+        }
+    }
+
+    /**
+     * A snapshot column, named after the database column it holds.
+     */
+    public record Column(String name, ColumnType type) {
+    }
+
+    /**
+     * Tables stored in a snapshot.
+     */
+    public enum Table {
+        SUPPLIERS(1, "suppliers",
+                new Column("id", ColumnType.ID),
+                new Column("name", ColumnType.TEXT),
+                new Column("phone", ColumnType.TEXT),
+                new Column("email", ColumnType.TEXT)),
+        FLOWERS(2, "flowers",
+                new Column("id", ColumnType.ID),
+                new Column("name", ColumnType.TEXT),
+                new Column("color", ColumnType.TEXT),
+                new Column("category", ColumnType.TEXT),
+                new Column("price", ColumnType.CENTS),
+                new Column("quantity", ColumnType.INT),
+                new Column("arrival_date", ColumnType.DATE),
+                new Column("freshness_days", ColumnType.INT),
+                new Column("supplier_id", ColumnType.REF)),
+        SALES(3, "sales",
+                new Column("id", ColumnType.ID),
+                new Column("sale_date", ColumnType.DATE),
+                new Column("flower_id", ColumnType.INT),
+                new Column("quantity_sold", ColumnType.INT),
+                new Column("total_price", ColumnType.CENTS),
+                new Column("customer_name", ColumnType.TEXT)),
+        STOCK_ALERTS(4, "stock_alerts",
+                new Column("id", ColumnType.ID),
+                new Column("flower_id", ColumnType.INT),
+                new Column("alert_type", ColumnType.TEXT),
+                new Column("severity", ColumnType.TEXT),
+                new Column("message", ColumnType.TEXT),
+                new Column("generated_date", ColumnType.DATE),
+                new Column("resolved", ColumnType.FLAG));
+
+        private final byte id;
+        private final String tableName;
+        private final Column[] columns;
+
+        Table(int id, String tableName, Column... columns) {
+            this.id = (byte) id;
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        public Column getColumn(int index) {
+            return columns[index];
+        }
+
+        /**
+         * Comma separated column names, for SELECT and INSERT statements.
+         */
+        public String columnList() {
+            StringBuilder list = new StringBuilder();
+            for (Column column : columns) {
+                if (list.length() > 0) {
+                    list.append(", ");
+                }
+                list.append(column.name());
+            }
+            return list.toString();
+        }
+
+        byte getId() {
+            return id;
+        }
+
+        static Table byId(byte id) {
+            for (Table table : values()) {
+                if (table.id == id) {
+                    return table;
+                }
+            }
+            return null;
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,200 @@
+package com.florist.io;
+
+import com.florist.io.SnapshotFormat.Table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The rows of one table of a snapshot as MySQL {@code LOAD DATA} text:
+ * UTF-8, tab-separated fields, one row per line, backslash escapes and
+ * {@code \N} for null. Rows are produced a block at a time while the
+ * server reads, so the table never exists as a file or in memory.
+ * Columns follow {@link Table#columnList()}.
+ */
+public class SnapshotLoadStream extends InputStream {
+
+    private final SnapshotReader reader;
+    private final Table table;
+
+    private byte[] buffer = new byte[256 * 1024];
+    private int position = 0;
+    private int limit = 0;
+    private long rows = 0;
+    private boolean exhausted = false;
+
+    public SnapshotLoadStream(Path snapshot, Table table) throws IOException {
+        this.reader = new SnapshotReader(snapshot);
+        this.table = table;
+    }
+
+    /**
+     * @return rows handed out so far
+     */
+    public long getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        int count = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Encodes the next block of the table into the buffer.
+     */
+    private boolean fill() throws IOException {
+        if (exhausted) {
+            return false;
+        }
+        SnapshotBlock block = reader.nextBlock(table);
+        if (block == null) {
+            exhausted = true;
+            return false;
+        }
+
+        position = 0;
+        limit = 0;
+        int columns = table.getColumnCount();
+        for (int row = 0; row < block.getRowCount(); row++) {
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    put((byte) '\t');
+                }
+                switch (table.getColumn(column).type()) {
+                    case TEXT -> putText(block.getString(column, row));
+                    case CENTS -> putCents(block.getLong(column, row));
+                    case DATE -> putAscii(LocalDate.ofEpochDay(block.getLong(column, row)).toString());
+                    case FLAG -> put(block.getLong(column, row) != 0 ? (byte) '1' : (byte) '0');
+                    case REF -> {
+                        long id = block.getLong(column, row);
+                        if (id > 0) {
+                            putLong(id);
+                        } else {
+                            putNull();
+                        }
+                    }
+                    default -> putLong(block.getLong(column, row));
+                }
+            }
+            put((byte) '\n');
+        }
+        rows += block.getRowCount();
+        return true;
+    }
+
+    private void putNull() {
+        put((byte) '\\');
+        put((byte) 'N');
+    }
+
+    private void putText(String value) {
+        if (value == null) {
+            putNull();
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Rare outside names, encode the whole value
+                putEscaped(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < value.length(); i++) {
+            putEscaped((byte) value.charAt(i));
+        }
+    }
+
+    private void putEscaped(byte[] bytes) {
+        for (byte b : bytes) {
+            putEscaped(b);
+        }
+    }
+
+    private void putEscaped(byte b) {
+        switch (b) {
+            case '\t' -> {
+                put((byte) '\\');
+                put((byte) 't');
+            }
+            case '\n' -> {
+                put((byte) '\\');
+                put((byte) 'n');
+            }
+            case '\r' -> {
+                put((byte) '\\');
+                put((byte) 'r');
+            }
+            case '\\' -> {
+                put((byte) '\\');
+                put((byte) '\\');
+            }
+            case 0 -> {
+                put((byte) '\\');
+                put((byte) '0');
+            }
+            default -> put(b);
+        }
+    }
+
+    private void putCents(long cents) {
+        if (cents < 0) {
+            put((byte) '-');
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        put((byte) '.');
+        long fraction = cents % 100;
+        put((byte) ('0' + fraction / 10));
+        put((byte) ('0' + fraction % 10));
+    }
+
+    private void putLong(long value) {
+        putAscii(Long.toString(value));
+    }
+
+    private void putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+    }
+
+    private void put(byte b) {
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[limit++] = b;
+    }
+}
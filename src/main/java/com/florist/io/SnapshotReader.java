@@ -0,0 +1,294 @@
+package com.florist.io;
+
+import com.florist.io.SnapshotFormat.ColumnType;
+import com.florist.io.SnapshotFormat.Table;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads binary snapshots written by {@link SnapshotWriter}.
+ * The file is memory-mapped. Uncompressed blocks are decoded straight from
+ * the mapping, compressed ones are inflated from it into a reusable buffer.
+ * Every block is checked against its CRC32C before it is decoded.
+ */
+public class SnapshotReader implements Closeable {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final InputStream compressed;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    private final SnapshotBlock block = new SnapshotBlock();
+
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private byte[] stringBytes = new byte[256];
+    private int blockNumber = 0;
+    private boolean finished = false;
+
+    public SnapshotReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + file);
+            }
+            this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (size < SnapshotFormat.HEADER_SIZE) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            for (byte magic : SnapshotFormat.MAGIC) {
+                if (mapped.get() != magic) {
+                    throw new IOException("Not a snapshot: " + file);
+                }
+            }
+            byte version = mapped.get();
+            if (version != SnapshotFormat.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            boolean gzip = (mapped.get() & SnapshotFormat.FLAG_GZIP) != 0;
+
+            this.compressed = gzip
+                    ? new GZIPInputStream(new MappedInputStream(mapped.slice()), GZIP_BUFFER_SIZE)
+                    : null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and decodes the next block.
+     *
+     * @return the block, reused between calls, or null after the last block
+     */
+    public SnapshotBlock nextBlock() throws IOException {
+        return nextBlock(null);
+    }
+
+    /**
+     * Reads and decodes the next block of one table. Blocks of other tables
+     * are checked but not decoded.
+     *
+     * @param only table to return blocks of, or null for all tables
+     * @return the block, reused between calls, or null after the last block
+     */
+    public SnapshotBlock nextBlock(Table only) throws IOException {
+        while (!finished) {
+            blockHeader.clear();
+            byte tableId = read(blockHeader, 1).get();
+            if (tableId == SnapshotFormat.END_OF_SNAPSHOT) {
+                finished = true;
+                return null;
+            }
+            blockNumber++;
+
+            ByteBuffer header = read(blockHeader, SnapshotFormat.BLOCK_HEADER_SIZE - 1);
+            int rowCount = header.getInt();
+            int length = header.getInt();
+            int checksum = header.getInt();
+
+            Table table = Table.byId(tableId);
+            if (table == null || rowCount <= 0 || rowCount > SnapshotFormat.BLOCK_ROWS || length < 0) {
+                throw new IOException("Snapshot block " + blockNumber + " has an invalid header");
+            }
+
+            ByteBuffer payload = readPayload(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Snapshot block " + blockNumber + " is corrupt (checksum mismatch)");
+            }
+
+            if (only == null || table == only) {
+                decode(table, rowCount, payload);
+                return block;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void decode(Table table, int rowCount, ByteBuffer payload) throws IOException {
+        if (block.table != table) {
+            block.table = table;
+            block.numbers = new long[table.getColumnCount()][];
+            block.codes = new int[table.getColumnCount()][];
+            block.dictionaries = new String[table.getColumnCount()][];
+        }
+        block.rowCount = rowCount;
+
+        try {
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                ColumnType type = table.getColumn(i).type();
+                if (type == ColumnType.TEXT) {
+                    decodeText(i, rowCount, payload);
+                } else {
+                    decodeNumbers(i, rowCount, payload, type.isDeltaEncoded());
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot block " + blockNumber + " cannot be decoded", e);
+        }
+    }
+
+    private void decodeNumbers(int column, int rowCount, ByteBuffer payload, boolean delta) {
+        long[] values = block.numbers[column];
+        if (values == null) {
+            values = block.numbers[column] = new long[SnapshotFormat.BLOCK_ROWS];
+        }
+        long previous = 0;
+        for (int row = 0; row < rowCount; row++) {
+            long value = SnapshotFormat.unzigzag(readVarLong(payload));
+            if (delta) {
+                value += previous;
+            }
+            values[row] = value;
+            previous = value;
+        }
+    }
+
+    private void decodeText(int column, int rowCount, ByteBuffer payload) {
+        int size = (int) readVarLong(payload);
+        String[] dictionary = new String[size];
+        for (int i = 0; i < size; i++) {
+            int length = (int) readVarLong(payload);
+            if (stringBytes.length < length) {
+                stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+            }
+            payload.get(stringBytes, 0, length);
+            dictionary[i] = new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+        }
+        block.dictionaries[column] = dictionary;
+
+        int[] codes = block.codes[column];
+        if (codes == null) {
+            codes = block.codes[column] = new int[SnapshotFormat.BLOCK_ROWS];
+        }
+        for (int row = 0; row < rowCount; row++) {
+            int code = (int) readVarLong(payload);
+            if (code < 0 || code > size) {
+                throw new IllegalStateException("Dictionary code out of range: " + code);
+            }
+            codes[row] = code;
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varint");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads header bytes into the given buffer and flips it for reading.
+     */
+    private ByteBuffer read(ByteBuffer target, int length) throws IOException {
+        target.clear();
+        target.limit(length);
+        if (compressed != null) {
+            readFully(target.array(), 0, length);
+            target.position(length);
+        } else {
+            if (mapped.remaining() < length) {
+                throw new EOFException("Snapshot is truncated after block " + blockNumber);
+            }
+            ByteBuffer slice = mapped.slice();
+            slice.limit(length);
+            target.put(slice);
+            mapped.position(mapped.position() + length);
+        }
+        target.flip();
+        return target;
+    }
+
+    private ByteBuffer readPayload(int length) throws IOException {
+        if (compressed == null) {
+            if (mapped.remaining() < length) {
+                throw new EOFException("Snapshot is truncated in block " + blockNumber);
+            }
+            // Zero-copy view of the mapping
+            ByteBuffer payload = mapped.slice();
+            payload.limit(length);
+            mapped.position(mapped.position() + length);
+            return payload;
+        }
+
+        if (scratch.capacity() < length) {
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+        }
+        readFully(scratch.array(), 0, length);
+        scratch.clear();
+        scratch.limit(length);
+        return scratch;
+    }
+
+    private void readFully(byte[] target, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = compressed.read(target, offset, length);
+            if (read < 0) {
+                throw new EOFException("Snapshot is truncated after block " + blockNumber);
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    /**
+     * InputStream over a mapped buffer, feeding the GZIP decoder.
+     */
+    private static final class MappedInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.florist.io;
+
+import com.florist.io.SnapshotFormat.ColumnType;
+import com.florist.io.SnapshotFormat.Table;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes binary snapshots in the {@link SnapshotFormat} layout.
+ * Each table is written through its own {@link TableWriter}, which collects
+ * rows column by column into reusable arrays and encodes one block at a
+ * time, so memory is bounded by the block size. Table writers may run on
+ * different threads; their blocks are appended to the file under a lock.
+ * <p>
+ * Usage: {@link #table}, then for each row the setters followed by
+ * {@link TableWriter#endRow}, then {@link TableWriter#finish}. Once every
+ * table is finished, {@link #close}.
+ */
+public class SnapshotWriter implements Closeable {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final OutputStream compressed;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_SIZE);
+    private long totalRows = 0;
+
+    public SnapshotWriter(Path file, boolean compress) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE);
+        header.put(SnapshotFormat.MAGIC);
+        header.put(SnapshotFormat.VERSION);
+        header.put(compress ? SnapshotFormat.FLAG_GZIP : 0);
+        header.flip();
+        writeToChannel(header);
+
+        this.compressed = compress
+                ? new GZIPOutputStream(Channels.newOutputStream(channel), GZIP_BUFFER_SIZE)
+                : null;
+    }
+
+    /**
+     * Creates a writer for the rows of a table. A table writer is not
+     * thread-safe itself, but writers of different tables may be used
+     * concurrently.
+     */
+    public TableWriter table(Table table) {
+        return new TableWriter(table);
+    }
+
+    public synchronized long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Writes the end marker and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            blockHeader.clear();
+            blockHeader.put(SnapshotFormat.END_OF_SNAPSHOT);
+            blockHeader.flip();
+            write(blockHeader);
+            if (compressed != null) {
+                compressed.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private synchronized void writeBlock(Table table, int rows, ByteSink payload, int checksum) throws IOException {
+        blockHeader.clear();
+        blockHeader.put(table.getId());
+        blockHeader.putInt(rows);
+        blockHeader.putInt(payload.length);
+        blockHeader.putInt(checksum);
+        blockHeader.flip();
+        write(blockHeader);
+        write(ByteBuffer.wrap(payload.bytes, 0, payload.length));
+        totalRows += rows;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (compressed != null) {
+            compressed.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            writeToChannel(buffer);
+        }
+    }
+
+    private void writeToChannel(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Collects and encodes the rows of one table.
+     */
+    public final class TableWriter {
+
+        private final Table table;
+        private final long[][] numbers;
+        private final String[][] texts;
+        private final ByteSink payload = new ByteSink();
+        private final CRC32C crc = new CRC32C();
+        private int rows = 0;
+
+        // Per-block string dictionary, reused across blocks
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> dictionaryValues = new ArrayList<>();
+
+        private TableWriter(Table table) {
+            this.table = table;
+            this.numbers = new long[table.getColumnCount()][];
+            this.texts = new String[table.getColumnCount()][];
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                if (table.getColumn(i).type() == ColumnType.TEXT) {
+                    texts[i] = new String[SnapshotFormat.BLOCK_ROWS];
+                } else {
+                    numbers[i] = new long[SnapshotFormat.BLOCK_ROWS];
+                }
+            }
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public void setLong(int column, long value) {
+            numbers[column][rows] = value;
+        }
+
+        public void setString(int column, String value) {
+            texts[column][rows] = value;
+        }
+
+        public void endRow() throws IOException {
+            rows++;
+            if (rows == SnapshotFormat.BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Writes the last, partial block of the table.
+         */
+        public void finish() throws IOException {
+            flushBlock();
+        }
+
+        private void flushBlock() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+
+            payload.reset();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                ColumnType type = table.getColumn(i).type();
+                if (type == ColumnType.TEXT) {
+                    encodeText(texts[i]);
+                } else {
+                    encodeNumbers(numbers[i], type.isDeltaEncoded());
+                }
+            }
+
+            crc.reset();
+            crc.update(payload.bytes, 0, payload.length);
+            writeBlock(table, rows, payload, (int) crc.getValue());
+            rows = 0;
+        }
+
+        private void encodeNumbers(long[] values, boolean delta) {
+            long previous = 0;
+            for (int row = 0; row < rows; row++) {
+                long value = values[row];
+                payload.writeVarLong(SnapshotFormat.zigzag(delta ? value - previous : value));
+                previous = value;
+            }
+        }
+
+        private void encodeText(String[] values) {
+            dictionary.clear();
+            dictionaryValues.clear();
+            for (int row = 0; row < rows; row++) {
+                String value = values[row];
+                if (value != null && !dictionary.containsKey(value)) {
+                    dictionary.put(value, dictionaryValues.size() + 1);
+                    dictionaryValues.add(value);
+                }
+            }
+
+            payload.writeVarLong(dictionaryValues.size());
+            for (String value : dictionaryValues) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                payload.writeVarLong(bytes.length);
+                payload.write(bytes);
+            }
+            for (int row = 0; row < rows; row++) {
+                String value = values[row];
+                payload.writeVarLong(value == null ? 0 : dictionary.get(value));
+                // Drop the reference, the array outlives the block
+                values[row] = null;
+            }
+        }
+    }
+
+    /**
+     * Growable byte array a block payload is encoded into.
+     */
+    private static final class ByteSink {
+
+        private byte[] bytes = new byte[64 * 1024];
+        private int length = 0;
+
+        void reset() {
+            length = 0;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void write(byte[] data) {
+            ensureCapacity(data.length);
+            System.arraycopy(data, 0, bytes, length, data.length);
+            length += data.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
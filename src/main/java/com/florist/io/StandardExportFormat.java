@@ -0,0 +1,97 @@
+package com.florist.io;
+
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export formats shipped with the application.
+ */
+public enum StandardExportFormat implements ExportFormat {
+
+    CSV("CSV", ".csv") {
+        @Override
+        public RecordWriter open(Writer out, RecordSchema schema, int bufferSize) {
+            return new StreamingCsvWriter(out, schema, bufferSize);
+        }
+    },
+    TSV("TSV", ".tsv") {
+        @Override
+        public RecordWriter open(Writer out, RecordSchema schema, int bufferSize) {
+            return new StreamingTsvWriter(out, schema, bufferSize);
+        }
+    },
+    JSON_LINES("JSON Lines", ".jsonl") {
+        @Override
+        public Charset getCharset() {
+            // JSON text exchanged between systems must be UTF-8
+            return StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public RecordWriter open(Writer out, RecordSchema schema, int bufferSize) {
+            return new StreamingJsonLinesWriter(out, schema, bufferSize);
+        }
+    },
+    FIXED_WIDTH("Fixed width", ".txt") {
+        @Override
+        public RecordWriter open(Writer out, RecordSchema schema, int bufferSize) {
+            return new StreamingFixedWidthWriter(out, schema, bufferSize);
+        }
+    };
+
+    private final String name;
+    private final String extension;
+
+    StandardExportFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Looks a format up by constant or display name, ignoring case.
+     *
+     * @throws IllegalArgumentException if no format matches
+     */
+    public static StandardExportFormat fromName(String name) {
+        String wanted = name.trim();
+        for (StandardExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(wanted.replace(' ', '_')) || format.name.equalsIgnoreCase(wanted)
+                    || format.extension.substring(1).equalsIgnoreCase(wanted)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name);
+    }
+
+    /**
+     * Parses a comma separated list of format names, e.g. "jsonl, fixed width".
+     * An empty string gives an empty list.
+     */
+    public static List<ExportFormat> parseList(String names) {
+        List<ExportFormat> formats = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                formats.add(fromName(name));
+            }
+        }
+        return formats;
+    }
+}
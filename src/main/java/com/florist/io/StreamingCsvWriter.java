@@ -0,0 +1,122 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * CSV writer that formats values straight into a reusable char buffer.
+ * Numbers, dates and escaped strings are written digit by digit and char
+ * by char, so writing a row allocates no intermediate Strings.
+ * Output matches {@link FileExportService} and is readable by
+ * {@link FileImportService}.
+ */
+public class StreamingCsvWriter extends StreamingRecordWriter {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private boolean rowStart = true;
+
+    public StreamingCsvWriter(Writer out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingCsvWriter(Writer out, int bufferSize) {
+        this(out, null, bufferSize);
+    }
+
+    public StreamingCsvWriter(Writer out, RecordSchema schema, int bufferSize) {
+        super(out, schema, bufferSize);
+    }
+
+    /**
+     * Writes the field names of the schema as the header line.
+     */
+    @Override
+    public void writeHeader() throws IOException {
+        writeHeader(schema.header(SEPARATOR));
+    }
+
+    /**
+     * Writes a pre-formatted header line.
+     */
+    public void writeHeader(String header) throws IOException {
+        append(header);
+        endRow();
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        separator();
+        appendLong(value);
+    }
+
+    @Override
+    public void writeCents(long cents) throws IOException {
+        separator();
+        appendCents(cents);
+    }
+
+    /**
+     * Writes a date as yyyy-MM-dd, or an empty field for null.
+     */
+    @Override
+    public void writeDate(LocalDate date) throws IOException {
+        separator();
+        if (date != null) {
+            appendDate(date);
+        }
+    }
+
+    /**
+     * Writes a text field, quoting it only when it contains a separator,
+     * quote or line break. Null is written as an empty field.
+     */
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return;
+        }
+
+        int length = value.length();
+        boolean quoted = false;
+        for (int i = 0; i < length && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r';
+        }
+
+        if (!quoted) {
+            for (int i = 0; i < length; i++) {
+                append(value.charAt(i));
+            }
+            return;
+        }
+
+        append(QUOTE);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                append(QUOTE);
+            }
+            append(c);
+        }
+        append(QUOTE);
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        append(LINE_SEPARATOR);
+        rowStart = true;
+    }
+
+    private void separator() throws IOException {
+        if (rowStart) {
+            rowStart = false;
+        } else {
+            append(SEPARATOR);
+        }
+    }
+}
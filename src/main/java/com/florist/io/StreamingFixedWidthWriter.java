@@ -0,0 +1,83 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Fixed-width text: every field takes exactly the width given by the
+ * schema. Text and dates are left-aligned and padded with spaces, longer
+ * text is cut. Numbers and amounts are right-aligned; a number too wide
+ * for its field is written as asterisks. Null is written as blanks and
+ * there is no header.
+ */
+public class StreamingFixedWidthWriter extends StreamingRecordWriter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    public StreamingFixedWidthWriter(Writer out, RecordSchema schema, int bufferSize) {
+        // A whole field must fit in the buffer to be padded in place
+        super(out, schema, Math.max(bufferSize, schema.getMaxWidth() + MAX_VALUE_CHARS));
+    }
+
+    @Override
+    public void writeHeader() {
+        // Layout is agreed with the receiver, no header line
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        int width = beginField();
+        int mark = mark();
+        appendLong(value);
+        pad(mark, width, true);
+    }
+
+    @Override
+    public void writeCents(long cents) throws IOException {
+        int width = beginField();
+        int mark = mark();
+        appendCents(cents);
+        pad(mark, width, true);
+    }
+
+    @Override
+    public void writeDate(LocalDate date) throws IOException {
+        int width = beginField();
+        int mark = mark();
+        if (date != null) {
+            appendDate(date);
+        }
+        pad(mark, width, false);
+    }
+
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        int width = beginField();
+        int mark = mark();
+        if (value != null) {
+            int length = Math.min(value.length(), width);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                // Line breaks and tabs would shift every following field
+                append(c < ' ' ? ' ' : c);
+            }
+        }
+        pad(mark, width, false);
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        append(LINE_SEPARATOR);
+        resetColumn();
+    }
+
+    /**
+     * Reserves room for the next field so it is padded without a flush in between.
+     */
+    private int beginField() throws IOException {
+        int width = schema.getField(nextColumn()).width();
+        ensureCapacity(Math.max(width, MAX_VALUE_CHARS));
+        return width;
+    }
+}
@@ -0,0 +1,118 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * JSON Lines: one JSON object per line, keyed by the schema's field names.
+ * Numbers and amounts are JSON numbers, dates are "yyyy-MM-dd" strings and
+ * null values are JSON null. There is no header.
+ */
+public class StreamingJsonLinesWriter extends StreamingRecordWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // "name": prefixes, escaped once
+    private final String[] keys;
+
+    public StreamingJsonLinesWriter(Writer out, RecordSchema schema, int bufferSize) {
+        super(out, schema, bufferSize);
+        this.keys = new String[schema.getFieldCount()];
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            key.setLength(0);
+            key.append('"');
+            escape(schema.getField(i).name(), key);
+            key.append("\":");
+            keys[i] = key.toString();
+        }
+    }
+
+    @Override
+    public void writeHeader() {
+        // Every line names its fields
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        key();
+        appendLong(value);
+    }
+
+    @Override
+    public void writeCents(long cents) throws IOException {
+        key();
+        appendCents(cents);
+    }
+
+    @Override
+    public void writeDate(LocalDate date) throws IOException {
+        key();
+        if (date == null) {
+            append("null");
+            return;
+        }
+        append('"');
+        appendDate(date);
+        append('"');
+    }
+
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        key();
+        if (value == null) {
+            append("null");
+            return;
+        }
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> append("\\\"");
+                case '\\' -> append("\\\\");
+                case '\n' -> append("\\n");
+                case '\r' -> append("\\r");
+                case '\t' -> append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        append("\\u00");
+                        append(HEX[c >> 4]);
+                        append(HEX[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+                }
+            }
+        }
+        append('"');
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        // An empty row is still a valid object
+        if (nextColumn() == 0) {
+            append('{');
+        }
+        append('}');
+        // JSON Lines mandates \n whatever the platform
+        append('\n');
+        resetColumn();
+    }
+
+    private void key() throws IOException {
+        int column = nextColumn();
+        append(column == 0 ? '{' : ',');
+        append(keys[column]);
+    }
+
+    private static void escape(String text, StringBuilder out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Base of the streaming {@link RecordWriter}s. Values are formatted straight
+ * into one reusable char buffer, numbers and dates digit by digit, so writing
+ * a record allocates no intermediate Strings. Subclasses add the separators,
+ * quoting and padding of their format.
+ */
+public abstract class StreamingRecordWriter implements RecordWriter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** Longest number or date a single append can produce */
+    protected static final int MAX_VALUE_CHARS = 24;
+
+    protected final RecordSchema schema;
+
+    private final Writer out;
+    private final char[] buffer;
+    private int position = 0;
+    private int column = 0;
+
+    protected StreamingRecordWriter(Writer out, RecordSchema schema, int bufferSize) {
+        this.out = out;
+        this.schema = schema;
+        // Room for at least one full number or date
+        this.buffer = new char[Math.max(bufferSize, 64)];
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Index of the field being written, advancing to the next one.
+     */
+    protected int nextColumn() {
+        return column++;
+    }
+
+    /**
+     * Starts counting fields from the first one again.
+     */
+    protected void resetColumn() {
+        column = 0;
+    }
+
+    protected void append(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    protected void append(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    protected void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            // Cannot be negated, not expected in practice
+            append(Long.toString(value));
+            return;
+        }
+
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        // Write digits backwards, then advance past them
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int index = position + digits;
+        do {
+            buffer[--index] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        position += digits;
+    }
+
+    protected void appendCents(long cents) throws IOException {
+        if (cents < 0) {
+            append('-');
+            cents = -cents;
+        }
+        appendLong(cents / 100);
+        append('.');
+        int fraction = (int) (cents % 100);
+        append((char) ('0' + fraction / 10));
+        append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Appends a date as yyyy-MM-dd.
+     */
+    protected void appendDate(LocalDate date) throws IOException {
+        ensureCapacity(10);
+        int year = date.getYear();
+        buffer[position++] = (char) ('0' + year / 1000 % 10);
+        buffer[position++] = (char) ('0' + year / 100 % 10);
+        buffer[position++] = (char) ('0' + year / 10 % 10);
+        buffer[position++] = (char) ('0' + year % 10);
+        buffer[position++] = '-';
+        appendTwoDigits(date.getMonthValue());
+        buffer[position++] = '-';
+        appendTwoDigits(date.getDayOfMonth());
+    }
+
+    /**
+     * Makes room for the given number of chars without flushing in between.
+     */
+    protected void ensureCapacity(int chars) throws IOException {
+        if (position + chars > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Current write position, to be passed to {@link #pad} once a field is written.
+     */
+    protected int mark() {
+        return position;
+    }
+
+    /**
+     * Pads or cuts the chars written since the mark to exactly the width.
+     * Values that do not fit are cut when left-aligned and replaced by
+     * asterisks when right-aligned, so a number is never shown wrong.
+     * The caller must have reserved the width with {@link #ensureCapacity}.
+     */
+    protected void pad(int mark, int width, boolean rightAlign) {
+        int written = position - mark;
+        if (written > width) {
+            if (rightAlign) {
+                Arrays.fill(buffer, mark, mark + width, '*');
+            }
+            position = mark + width;
+        } else if (written < width) {
+            int padding = width - written;
+            if (rightAlign) {
+                System.arraycopy(buffer, mark, buffer, mark + padding, written);
+                Arrays.fill(buffer, mark, mark + padding, ' ');
+            } else {
+                Arrays.fill(buffer, position, position + padding, ' ');
+            }
+            position = mark + width;
+        }
+    }
+
+    private void appendTwoDigits(int value) {
+        buffer[position++] = (char) ('0' + value / 10);
+        buffer[position++] = (char) ('0' + value % 10);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Tab separated values. Fields are never quoted; tabs, line breaks and
+ * backslashes inside text are escaped as \t, \n, \r and \\ instead, the
+ * convention of MySQL and PostgreSQL text dumps. Null is an empty field.
+ */
+public class StreamingTsvWriter extends StreamingRecordWriter {
+
+    private static final char SEPARATOR = '\t';
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private boolean rowStart = true;
+
+    public StreamingTsvWriter(Writer out, RecordSchema schema, int bufferSize) {
+        super(out, schema, bufferSize);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        append(schema.header(SEPARATOR));
+        endRow();
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        separator();
+        appendLong(value);
+    }
+
+    @Override
+    public void writeCents(long cents) throws IOException {
+        separator();
+        appendCents(cents);
+    }
+
+    @Override
+    public void writeDate(LocalDate date) throws IOException {
+        separator();
+        if (date != null) {
+            appendDate(date);
+        }
+    }
+
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t' -> append("\\t");
+                case '\n' -> append("\\n");
+                case '\r' -> append("\\r");
+                case '\\' -> append("\\\\");
+                default -> append(c);
+            }
+        }
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        append(LINE_SEPARATOR);
+        rowStart = true;
+    }
+
+    private void separator() throws IOException {
+        if (rowStart) {
+            rowStart = false;
+        } else {
+            append(SEPARATOR);
+        }
+    }
+}
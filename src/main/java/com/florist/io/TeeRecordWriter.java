@@ -0,0 +1,96 @@
+package com.florist.io;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes every field to several record writers, so one pass over the data
+ * produces a file per format.
+ */
+public class TeeRecordWriter implements RecordWriter {
+
+    private final RecordWriter[] writers;
+
+    public TeeRecordWriter(List<RecordWriter> writers) {
+        this.writers = writers.toArray(new RecordWriter[0]);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeHeader();
+        }
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeInt(value);
+        }
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeLong(value);
+        }
+    }
+
+    @Override
+    public void writeCents(long cents) throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeCents(cents);
+        }
+    }
+
+    @Override
+    public void writeDate(LocalDate date) throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeDate(date);
+        }
+    }
+
+    @Override
+    public void writeString(CharSequence value) throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.writeString(value);
+        }
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.endRow();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (RecordWriter writer : writers) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Closes every writer, even when closing one of them fails.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RecordWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
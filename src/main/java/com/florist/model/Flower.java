@@ -1,14 +1,14 @@
 package com.florist.model;
 
 import java.time.LocalDate;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
 import com.florist.application.service.FreshnessService;
 
 /**
  * Flower entity representing a flower in the inventory.
  * Contains details such as name, color, quantity, price, and calculated
  * freshness.
+ * Plain value type: UI state such as delete-mode selection is kept by the
+ * controllers, not on the entity.
  */
 public class Flower {
     private int id;
@@ -21,9 +21,6 @@ public class Flower {
     private int freshnessDays;
     private int supplierId;
 
-    // UI State
-    private final BooleanProperty selected = new SimpleBooleanProperty(false);
-
     // For display purposes when joining with supplier
     private String supplierName;
 
@@ -43,19 +40,6 @@ public class Flower {
         this.supplierId = supplierId;
     }
 
-    // UI Selection Property
-    public BooleanProperty selectedProperty() {
-        return selected;
-    }
-
-    public boolean isSelected() {
-        return selected.get();
-    }
-
-    public void setSelected(boolean selected) {
-        this.selected.set(selected);
-    }
-
     /**
      * Calculates the expiry date based on arrival date and freshness days.
      * 
@@ -0,0 +1,99 @@
+package com.florist.test;
+
+import com.florist.io.ExportFormat;
+import com.florist.io.RecordSchema;
+import com.florist.io.RecordWriter;
+import com.florist.io.StandardExportFormat;
+import com.florist.io.StreamingRecordWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Measures the throughput of each export format on generated sales rows,
+ * without a database. Formatting alone is timed against a writer that
+ * discards its output, then one run writes a real file.
+ * <p>
+ * Usage: ExportFormatBenchmark [rows]
+ */
+public class ExportFormatBenchmark {
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+    private static final String[] CUSTOMERS = { "Walk-in", "Amina El Idrissi", "Hotel \"Atlas\"",
+            "Dupont, Marie", null };
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("Export format benchmark, " + rows + " sales rows");
+
+        for (StandardExportFormat format : StandardExportFormat.values()) {
+            CountingWriter counter = new CountingWriter();
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                writeSales(format, new CountingWriter(), rows);
+            }
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                counter = new CountingWriter();
+                long start = System.nanoTime();
+                writeSales(format, counter, rows);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            File file = File.createTempFile("export-benchmark", format.getExtension());
+            file.deleteOnExit();
+            long fileStart = System.nanoTime();
+            writeSales(format, new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024),
+                    format.getCharset()), rows);
+            long fileNanos = System.nanoTime() - fileStart;
+
+            double seconds = best / 1e9;
+            System.out.printf("%-12s format: %7.0f k rows/s, %6.1f M chars/s | to file: %7.0f k rows/s, %6.1f MB%n",
+                    format.getName(), rows / seconds / 1000, counter.chars / seconds / 1e6,
+                    rows / (fileNanos / 1e9) / 1000, file.length() / 1e6);
+            file.delete();
+        }
+    }
+
+    private static void writeSales(ExportFormat format, Writer out, int rows) throws IOException {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        try (RecordWriter writer = format.open(out, RecordSchema.SALES, StreamingRecordWriter.DEFAULT_BUFFER_SIZE)) {
+            writer.writeHeader();
+            for (int i = 1; i <= rows; i++) {
+                writer.writeInt(i);
+                writer.writeDate(start.plusDays(i % 730));
+                writer.writeInt(i % 500 + 1);
+                writer.writeInt(i % 12 + 1);
+                writer.writeCents(350L * (i % 12 + 1));
+                writer.writeString(CUSTOMERS[i % CUSTOMERS.length]);
+                writer.endRow();
+            }
+        }
+    }
+
+    /**
+     * Discards output, keeping only the number of chars written.
+     */
+    private static class CountingWriter extends Writer {
+        private long chars;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            chars += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
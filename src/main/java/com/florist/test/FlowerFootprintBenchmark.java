@@ -0,0 +1,59 @@
+package com.florist.test;
+
+import com.florist.model.Flower;
+
+import java.time.LocalDate;
+
+/**
+ * Measures the heap retained per {@link Flower}, as loaded for the flower
+ * table: the instances share their name, color and category strings and
+ * their arrival date, so only the Flower objects and their array slots are
+ * counted. No database is needed.
+ * <p>
+ * Run with a fixed heap and the serial collector for stable numbers, e.g.
+ * {@code java -Xms1g -Xmx1g -XX:+UseSerialGC}.
+ * <p>
+ * Usage: FlowerFootprintBenchmark [instances]
+ */
+public class FlowerFootprintBenchmark {
+
+    private static final int MEASURED_RUNS = 3;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        System.out.println("Flower footprint, " + count + " instances");
+
+        String name = "Rose Baccara";
+        String color = "Rouge";
+        String category = "Rose";
+        String supplierName = "Supplier 1";
+        LocalDate arrivalDate = LocalDate.now();
+
+        double best = Double.MAX_VALUE;
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long before = usedHeap();
+            Flower[] flowers = new Flower[count];
+            for (int i = 0; i < count; i++) {
+                Flower flower = new Flower(i, name, color, category, 2.5, i % 150, arrivalDate, 7, 1);
+                flower.setSupplierName(supplierName);
+                flowers[i] = flower;
+            }
+            long after = usedHeap();
+            best = Math.min(best, (double) (after - before) / count);
+            // Keeps the array reachable until after the second measurement
+            if (flowers[count - 1].getId() != count - 1) {
+                System.out.println();
+            }
+        }
+
+        System.out.printf("Retained per Flower, array slot included: %.1f bytes%n", best);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
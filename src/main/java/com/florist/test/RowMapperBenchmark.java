@@ -0,0 +1,145 @@
+package com.florist.test;
+
+import com.florist.infrastructure.persistence.DatabaseConnection;
+import com.florist.infrastructure.persistence.FlowerRowMapper;
+import com.florist.model.Flower;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Compares mapping flower rows by column name, as the repositories used
+ * to, with {@link FlowerRowMapper}, which resolves column indexes once per
+ * result set. The rows are generated by the server, no table is touched.
+ * <p>
+ * The result set is read into memory once, then each mapper walks it
+ * repeatedly, so only mapping is timed. A last run times a full scan,
+ * fetching included.
+ * <p>
+ * Usage: RowMapperBenchmark [rows]
+ */
+public class RowMapperBenchmark {
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    // Same columns and types as the flowers table
+    private static final String ROWS_SQL = "WITH RECURSIVE seq (n) AS " +
+            "(SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < ?) " +
+            "SELECT f.id, f.name, f.color, f.category, f.price, f.quantity, f.arrival_date, f.freshness_days, " +
+            "f.supplier_id, f.supplier_name FROM (SELECT n AS id, CONCAT('Flower ', n) AS name, " +
+            "ELT(n % 4 + 1, 'Rouge', 'Blanc', 'Jaune', NULL) AS color, " +
+            "ELT(n % 3 + 1, 'Rose', 'Tulipe', 'Lys') AS category, " +
+            "CAST(n % 2000 / 100 AS DECIMAL(10, 2)) AS price, n % 150 AS quantity, " +
+            "CURDATE() - INTERVAL n % 30 DAY AS arrival_date, n % 14 + 1 AS freshness_days, " +
+            "n % 20 + 1 AS supplier_id, CONCAT('Supplier ', n % 20 + 1) AS supplier_name FROM seq) f";
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("Row mapper benchmark, " + rows + " flower rows");
+
+        try (Connection conn = DatabaseConnection.openDedicatedConnection()) {
+            allowRecursion(conn, rows + 1);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(ROWS_SQL, ResultSet.TYPE_SCROLL_INSENSITIVE,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setInt(1, rows);
+                long fetchStart = System.nanoTime();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    System.out.printf("Fetched in %.2f s%n", (System.nanoTime() - fetchStart) / 1e9);
+                    report("By name", rows, measure(rs, false));
+                    report("By index", rows, measure(rs, true));
+                }
+            }
+
+            // Fetching and mapping together, as a repository reads its rows
+            try (PreparedStatement pstmt = conn.prepareStatement(ROWS_SQL)) {
+                pstmt.setInt(1, rows);
+                long start = System.nanoTime();
+                long checksum = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    FlowerRowMapper mapper = new FlowerRowMapper(rs);
+                    while (rs.next()) {
+                        checksum += mapper.map(rs).getQuantity();
+                    }
+                }
+                report("Full scan", rows, System.nanoTime() - start);
+                System.out.println("(checksum " + checksum + ")");
+            }
+        }
+    }
+
+    /**
+     * Raises the recursion limit of the generating query, 1000 by default.
+     * MariaDB names the variable differently.
+     */
+    private static void allowRecursion(Connection conn, int depth) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try {
+                stmt.execute("SET SESSION cte_max_recursion_depth = " + depth);
+            } catch (SQLException e) {
+                stmt.execute("SET SESSION max_recursive_iterations = " + depth);
+            }
+        }
+    }
+
+    /**
+     * Best time of the measured runs over the whole result set.
+     */
+    private static long measure(ResultSet rs, boolean byIndex) throws SQLException {
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            rs.beforeFirst();
+            long start = System.nanoTime();
+            if (byIndex) {
+                FlowerRowMapper mapper = new FlowerRowMapper(rs);
+                while (rs.next()) {
+                    checksum += mapper.map(rs).getQuantity();
+                }
+            } else {
+                while (rs.next()) {
+                    checksum += mapByName(rs).getQuantity();
+                }
+            }
+            if (run >= WARMUP_RUNS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        // Keeps the mapped rows from being optimized away
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    /**
+     * The name-based mapping the repositories used before FlowerRowMapper.
+     */
+    private static Flower mapByName(ResultSet rs) throws SQLException {
+        Flower flower = new Flower();
+        flower.setId(rs.getInt("id"));
+        flower.setName(rs.getString("name"));
+        flower.setColor(rs.getString("color"));
+        flower.setCategory(rs.getString("category"));
+        flower.setPrice(rs.getDouble("price"));
+        flower.setQuantity(rs.getInt("quantity"));
+        Date arrivalDate = rs.getDate("arrival_date");
+        if (arrivalDate != null) {
+            flower.setArrivalDate(arrivalDate.toLocalDate());
+        }
+        flower.setFreshnessDays(rs.getInt("freshness_days"));
+        flower.setSupplierId(rs.getInt("supplier_id"));
+        flower.setSupplierName(rs.getString("supplier_name"));
+        return flower;
+    }
+
+    private static void report(String label, int rows, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-10s %7.0f k rows/s (%.2f s)%n", label, rows / seconds / 1000, seconds);
+    }
+}
@@ -0,0 +1,67 @@
+package com.florist.test;
+
+import com.florist.infrastructure.network.Invalidation;
+import com.florist.infrastructure.network.InvalidationChannel;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs several invalidation channels on the loopback interface and checks
+ * that every instance receives its peers' notices but not its own.
+ * Usage: TestLanInvalidation [instances]
+ */
+public class TestLanInvalidation {
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        System.out.println("Starting " + instances + " instances on " + loopback.getName() + "...");
+
+        List<InvalidationChannel> channels = new ArrayList<>();
+        List<List<Invalidation>> received = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            List<Invalidation> inbox = new CopyOnWriteArrayList<>();
+            received.add(inbox);
+            channels.add(new InvalidationChannel(UUID.randomUUID(), InvalidationChannel.DEFAULT_GROUP,
+                    InvalidationChannel.DEFAULT_PORT, loopback, inbox::add));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < instances; i++) {
+            channels.get(i).send(List.of(
+                    new Invalidation(Invalidation.EntityType.FLOWER, Invalidation.Operation.UPDATED, i + 1,
+                            System.currentTimeMillis()),
+                    new Invalidation(Invalidation.EntityType.SALE, Invalidation.Operation.CREATED, 100 + i,
+                            System.currentTimeMillis())));
+        }
+
+        int expected = 2 * (instances - 1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() < deadline && received.stream().anyMatch(inbox -> inbox.size() < expected)) {
+            Thread.sleep(1);
+        }
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        boolean ok = true;
+        for (int i = 0; i < instances; i++) {
+            int own = i + 1;
+            List<Invalidation> inbox = received.get(i);
+            boolean echoed = inbox.stream().anyMatch(inv -> inv.entityType() == Invalidation.EntityType.FLOWER
+                    && inv.entityId() == own);
+            System.out.println("Instance " + i + ": received " + inbox.size() + "/" + expected
+                    + (echoed ? " (own notice echoed!)" : ""));
+            ok &= inbox.size() == expected && !echoed;
+        }
+        System.out.println((ok ? "PASS" : "FAIL") + " in " + elapsedMicros + " us");
+
+        channels.forEach(InvalidationChannel::close);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,140 +1,151 @@
 package com.florist.threads;
 
+import com.florist.config.AppConfig;
 import com.florist.config.ServiceFactory;
+import com.florist.domain.repository.ChangeTrackingRepository;
 import com.florist.domain.repository.FlowerRepository;
-import com.florist.domain.repository.SaleRepository;
-import com.florist.domain.repository.SupplierRepository;
-import com.florist.io.FileExportService;
+import com.florist.application.service.BackupService;
 import com.florist.application.service.InventoryService;
-
-import java.io.File;
+import com.florist.infrastructure.metrics.MetricsFileReporter;
+import com.florist.io.BackupManifest;
+import com.florist.threads.JobDefinition.MissedRunPolicy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Background task manager for automated operations.
  * REFACTORED: Now uses Repositories/Services via ServiceFactory.
+ * Every terminal schedules the jobs, but they only do work on the terminal
+ * currently elected leader, so the shop runs each job once.
+ * Jobs run on a {@link JobScheduler}; intervals come from {@link AppConfig}
+ * and a job whose interval is edited is rescheduled.
  */
 public class BackgroundTaskManager {
 
-    private final ScheduledExecutorService scheduler;
-    private final FileExportService exportService;
-    private final FlowerRepository flowerRepository;
-    private final SaleRepository saleRepository;
-    private final SupplierRepository supplierRepository;
+    public static final String AUTO_BACKUP_JOB = "auto-backup";
+    public static final String ALERT_MONITOR_JOB = "alert-monitor";
+    public static final String METRICS_REPORT_JOB = "metrics-report";
+    public static final String TOMBSTONE_PRUNING_JOB = "tombstone-pruning";
 
-    private static final String BACKUP_DIR = "backups";
-    private static final DateTimeFormatter BACKUP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private final JobScheduler scheduler;
+    private final BackupService backupService;
+    private final FlowerRepository flowerRepository;
+    private final ChangeTrackingRepository changeTrackingRepository;
+    private final LeaderElection leaderElection;
+    private final InventoryService inventoryService;
+    private MetricsFileReporter metricsReporter;
 
-    public BackgroundTaskManager() {
-        this.scheduler = Executors.newScheduledThreadPool(2);
-        this.exportService = new FileExportService();
+    public BackgroundTaskManager(LeaderElection leaderElection) {
+        this.leaderElection = leaderElection;
+        this.scheduler = new JobScheduler();
 
         ServiceFactory factory = ServiceFactory.getInstance();
+        this.backupService = factory.getBackupService();
         this.flowerRepository = factory.getFlowerRepository();
-        this.saleRepository = factory.getSaleRepository();
-        this.supplierRepository = factory.getSupplierRepository();
+        this.changeTrackingRepository = factory.getChangeTrackingRepository();
+        this.inventoryService = factory.getInventoryService();
 
-        new File(BACKUP_DIR).mkdirs();
+        AppConfig.getInstance().addReloadListener(scheduler::refreshIntervals);
     }
 
     public void startAutoBackup() {
-        Runnable backupTask = () -> {
-            try {
-                cleanOldBackups();
-                String timestamp = LocalDateTime.now().format(BACKUP_DATE_FORMAT);
-
-                exportService.exportFlowersToCsv(
-                        flowerRepository.findAll(),
-                        BACKUP_DIR + "/flowers_" + timestamp + ".csv");
-
-                exportService.exportSalesToCsv(
-                        saleRepository.findAll(),
-                        BACKUP_DIR + "/sales_" + timestamp + ".csv");
-
-                exportService.exportSuppliersToCsv(
-                        supplierRepository.findAll(),
-                        BACKUP_DIR + "/suppliers_" + timestamp + ".csv");
+        // A backup missed while the last one was still writing is taken right after it
+        scheduler.schedule(new JobDefinition(AUTO_BACKUP_JOB, () -> {
+            // Only rows changed since the previous backup, except at the start of a chain
+            BackupManifest.Entry backup = backupService.runScheduledBackup();
+
+            System.out.println("[AUTO-BACKUP] " + backup.type() + " backup completed at " + backup.suffix()
+                    + " (" + backup.rows() + " rows)");
+        })
+                .every(() -> Duration.ofMinutes(AppConfig.BACKUP_INTERVAL_MINUTES.get()))
+                .startAfter(Duration.ofMinutes(1))
+                .jitter(Duration.ofSeconds(30))
+                .onMissedRuns(MissedRunPolicy.CATCH_UP)
+                .runWhen(leaderElection::isLeader));
+    }
 
-                System.out.println("[AUTO-BACKUP] Backup completed at " + timestamp);
-            } catch (Exception e) {
-                System.err.println("[AUTO-BACKUP] Failed: " + e.getMessage());
+    public void startAlertMonitoring() {
+        // Only the current state matters, a missed check is not worth making up
+        scheduler.schedule(new JobDefinition(ALERT_MONITOR_JOB, () -> {
+            int threshold = inventoryService.getLowStockThreshold();
+            long lowStockCount = flowerRepository.findAll().stream()
+                    .filter(f -> f.getQuantity() < threshold)
+                    .count();
+
+            // Already expired or expiring within the configured days
+            long expiringCount = flowerRepository
+                    .findExpiredAsOf(LocalDate.now().plusDays(AppConfig.EXPIRING_DAYS.get())).size();
+
+            if (lowStockCount > 0 || expiringCount > 0) {
+                System.out.println("[ALERT-MONITOR] Low stock: " + lowStockCount +
+                        ", Expiring soon: " + expiringCount);
             }
-        };
-
-        scheduler.scheduleAtFixedRate(backupTask, 1, 30, TimeUnit.MINUTES);
-        System.out.println("[BackgroundTaskManager] Auto-backup started (every 30 minutes)");
+        })
+                .every(() -> Duration.ofSeconds(AppConfig.MONITOR_INTERVAL_SECONDS.get()))
+                .startAfter(Duration.ofSeconds(30))
+                .jitter(Duration.ofSeconds(10))
+                .onMissedRuns(MissedRunPolicy.SKIP)
+                .runWhen(leaderElection::isLeader));
     }
 
-    private void cleanOldBackups() {
-        try {
-            File backupFolder = new File(BACKUP_DIR);
-            if (!backupFolder.exists())
-                return;
-
-            File[] files = backupFolder.listFiles((dir, name) -> name.endsWith(".csv") && !name.startsWith("manual_"));
-            if (files == null || files.length <= 30)
-                return;
-
-            java.util.Arrays.sort(files, java.util.Comparator.comparingLong(File::lastModified));
-
-            int filesToDelete = files.length - 30;
-            for (int i = 0; i < filesToDelete; i++) {
-                if (files[i].delete()) {
-                    System.out.println("[AUTO-BACKUP] Deleted old backup: " + files[i].getName());
-                }
+    public void startTombstonePruning() {
+        // Deletions older than the retention have been picked up by every terminal still running
+        scheduler.schedule(new JobDefinition(TOMBSTONE_PRUNING_JOB, () -> {
+            LocalDateTime before = LocalDateTime.now().minusDays(AppConfig.TOMBSTONE_RETENTION_DAYS.get());
+            int pruned = changeTrackingRepository.pruneTombstones(before);
+            if (pruned > 0) {
+                System.out.println("[TOMBSTONES] Pruned " + pruned + " tombstone(s) older than " + before);
             }
-        } catch (Exception e) {
-            System.err.println("[AUTO-BACKUP] Cleanup failed: " + e.getMessage());
-        }
+        })
+                .every(() -> Duration.ofHours(24))
+                .startAfter(Duration.ofMinutes(5))
+                .jitter(Duration.ofMinutes(1))
+                .onMissedRuns(MissedRunPolicy.SKIP)
+                .runWhen(leaderElection::isLeader));
     }
 
-    public void startAlertMonitoring() {
-        Runnable monitorTask = () -> {
-            try {
-                long lowStockCount = flowerRepository.findAll().stream()
-                        .filter(f -> f.getQuantity() < InventoryService.DEFAULT_LOW_STOCK_THRESHOLD)
-                        .count();
-
-                long expiringCount = flowerRepository.findAll().stream()
-                        .filter(f -> {
-                            var expiryDate = f.getExpiryDate();
-                            return expiryDate != null &&
-                                    !expiryDate.isAfter(LocalDateTime.now().toLocalDate().plusDays(3));
-                        })
-                        .count();
-
-                if (lowStockCount > 0 || expiringCount > 0) {
-                    System.out.println("[ALERT-MONITOR] Low stock: " + lowStockCount +
-                            ", Expiring soon: " + expiringCount);
-                }
-            } catch (Exception e) {
-                System.err.println("[ALERT-MONITOR] Failed: " + e.getMessage());
-            }
-        };
+    /**
+     * Writes this terminal's metrics to the rolling metrics file, on every
+     * terminal as each one measures its own calls.
+     */
+    public void startMetricsReport() {
+        if (!AppConfig.METRICS_ENABLED.get()) {
+            return;
+        }
+        metricsReporter = new MetricsFileReporter(ServiceFactory.getInstance().getMetrics(),
+                Paths.get(AppConfig.METRICS_DIRECTORY.get()));
+        scheduler.schedule(new JobDefinition(METRICS_REPORT_JOB, metricsReporter::report)
+                .every(() -> Duration.ofSeconds(AppConfig.METRICS_REPORT_INTERVAL_SECONDS.get()))
+                .startAfter(Duration.ofSeconds(AppConfig.METRICS_REPORT_INTERVAL_SECONDS.get()))
+                .onMissedRuns(MissedRunPolicy.SKIP));
+    }
 
-        scheduler.scheduleAtFixedRate(monitorTask, 30, 300, TimeUnit.SECONDS);
-        System.out.println("[BackgroundTaskManager] Alert monitoring started (every 5 minutes)");
+    /**
+     * Gets the scheduler, for the run history of the jobs.
+     */
+    public JobScheduler getScheduler() {
+        return scheduler;
     }
 
     public void shutdown() {
-        try {
-            System.out.println("[BackgroundTaskManager] Shutting down...");
-            scheduler.shutdown();
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+        System.out.println("[BackgroundTaskManager] Shutting down...");
+        scheduler.shutdown();
+        if (metricsReporter != null) {
+            // The last partial interval
+            try {
+                metricsReporter.report();
+            } catch (IOException e) {
+                System.err.println("[METRICS] Final report failed: " + e.getMessage());
             }
-            System.out.println("[BackgroundTaskManager] Shutdown complete");
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+        System.out.println("[BackgroundTaskManager] Shutdown complete");
     }
 
     public boolean isRunning() {
-        return !scheduler.isShutdown();
+        return scheduler.isRunning();
     }
 }
@@ -0,0 +1,125 @@
+package com.florist.threads;
+
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.event.SaleCompletedEvent;
+import com.florist.config.TerminalIdentity;
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.domain.repository.ChangeTrackingRepository.FlowerChange;
+import com.florist.domain.repository.ChangeTrackingRepository.Tombstone;
+import com.florist.domain.repository.ChangeTrackingRepository.Watermark;
+import com.florist.model.Sale;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the database for changes made by other terminals and republishes
+ * them on the {@link DomainEventBus} as remote events.
+ * Each poll reads the rows changed since the previous one, plus those
+ * within {@link ChangeTrackingRepository#COMMIT_MARGIN} of it, which may
+ * have committed late. Rows read again are published only once.
+ */
+public class ChangeSyncService {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    private final ScheduledExecutorService scheduler;
+    private final ChangeTrackingRepository changeRepository;
+    private final DomainEventBus eventBus;
+    private final RemoteChangeFilter changeFilter;
+    private final long intervalMillis;
+
+    // Upper bounds of the last applied poll, only touched by the scheduler thread
+    private Watermark watermark;
+    // updated_at of each flower change published in the overlap, only touched by the scheduler thread
+    private final Map<Integer, LocalDateTime> publishedFlowerChanges = new HashMap<>();
+
+    public ChangeSyncService(ChangeTrackingRepository changeRepository, DomainEventBus eventBus,
+            RemoteChangeFilter changeFilter, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive: " + intervalMillis);
+        }
+        this.changeRepository = changeRepository;
+        this.eventBus = eventBus;
+        this.changeFilter = changeFilter;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.execute(() -> poll(false));
+        scheduler.scheduleWithFixedDelay(() -> poll(true), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        System.out.println("[ChangeSyncService] Sync started (every " + intervalMillis + " ms)");
+    }
+
+    /**
+     * Reads the changes since the last poll.
+     *
+     * @param publish false for the first read, which only records the changes
+     *                inside the overlap as seen: the views loaded at startup
+     *                already show them
+     */
+    private void poll(boolean publish) {
+        try {
+            Watermark upper = changeRepository.currentWatermark();
+            if (watermark == null) {
+                watermark = upper;
+                publish = false;
+            }
+            String terminalId = TerminalIdentity.getId();
+
+            LocalDateTime from = watermark.time().minus(ChangeTrackingRepository.COMMIT_MARGIN);
+            for (FlowerChange change : changeRepository.findFlowerChanges(from, upper.time(), terminalId)) {
+                int flowerId = change.flower().getId();
+                if (change.updatedAt().equals(publishedFlowerChanges.get(flowerId))) {
+                    continue;
+                }
+                // A creation already delivered by LAN broadcast is replayed as a plain update
+                FlowerUpdatedEvent.ChangeType type = change.created()
+                        && changeFilter.firstSeen(ChangeTrackingRepository.ENTITY_FLOWER, "CREATED", flowerId)
+                                ? FlowerUpdatedEvent.ChangeType.CREATED
+                                : FlowerUpdatedEvent.ChangeType.UPDATED;
+                if (publish) {
+                    eventBus.publish(new FlowerUpdatedEvent(flowerId, change.flower(), type, true));
+                }
+                publishedFlowerChanges.put(flowerId, change.updatedAt());
+            }
+
+            for (Sale sale : changeRepository.findNewSales(watermark.saleId(), terminalId)) {
+                if (changeFilter.firstSeen("SALE", "CREATED", sale.getId()) && publish) {
+                    eventBus.publish(new SaleCompletedEvent(sale, true));
+                }
+            }
+
+            for (Tombstone tombstone : changeRepository.findTombstones(watermark.tombstoneId(), terminalId)) {
+                if (ChangeTrackingRepository.ENTITY_FLOWER.equals(tombstone.entityType())
+                        && changeFilter.firstSeen(tombstone.entityType(), "DELETED", tombstone.entityId())
+                        && publish) {
+                    eventBus.publish(new FlowerUpdatedEvent(tombstone.entityId(), null,
+                            FlowerUpdatedEvent.ChangeType.DELETED, true));
+                }
+            }
+
+            watermark = upper;
+            // Changes older than the next window cannot be read again
+            LocalDateTime nextFrom = upper.time().minus(ChangeTrackingRepository.COMMIT_MARGIN);
+            publishedFlowerChanges.values().removeIf(updatedAt -> updatedAt.isBefore(nextFrom));
+        } catch (Exception e) {
+            // Watermark is kept, the same window is retried on the next poll
+            System.err.println("[CHANGE-SYNC] Failed: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
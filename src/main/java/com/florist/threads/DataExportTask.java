@@ -0,0 +1,147 @@
+package com.florist.threads;
+
+import com.florist.application.service.FlowerService;
+import com.florist.application.service.SaleService;
+import com.florist.application.service.SupplierService;
+import com.florist.infrastructure.persistence.DatabaseConnection;
+import com.florist.io.ExportFormat;
+import com.florist.io.FileExportService;
+import com.florist.model.Flower;
+import com.florist.model.Sale;
+import com.florist.model.Supplier;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports flowers, sales and suppliers to files, one table per worker
+ * thread, so the export takes about as long as the largest table.
+ * Progress is indeterminate while the tables load, then counts rows written.
+ */
+public class DataExportTask extends Task<File> {
+
+    private static final int TABLE_COUNT = 3;
+
+    private final FlowerService flowerService;
+    private final SaleService saleService;
+    private final SupplierService supplierService;
+    private final FileExportService exportService;
+    private final ExportFormat format;
+    private final File directory;
+    private final String timestamp;
+
+    // Shared by the table workers
+    private final CountDownLatch loaded = new CountDownLatch(TABLE_COUNT);
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicInteger finishedTables = new AtomicInteger();
+
+    public DataExportTask(FlowerService flowerService, SaleService saleService, SupplierService supplierService,
+            FileExportService exportService, ExportFormat format, File directory, String timestamp) {
+        this.flowerService = flowerService;
+        this.saleService = saleService;
+        this.supplierService = supplierService;
+        this.exportService = exportService;
+        this.format = format;
+        this.directory = directory;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    protected File call() throws Exception {
+        directory.mkdirs();
+        updateMessage("Loading data...");
+
+        ExecutorService workers = Executors.newFixedThreadPool(TABLE_COUNT, r -> {
+            Thread thread = new Thread(r, "export-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(workers.submit(() -> {
+                List<Flower> flowers = load(flowerService::getAllFlowers);
+                exportService.exportFlowers(flowers, file("flowers").getPath(), format, this::rowsWritten);
+                return tableDone();
+            }));
+            futures.add(workers.submit(() -> {
+                List<Sale> sales = load(saleService::getAllSales);
+                exportService.exportSales(sales, file("sales").getPath(), format, this::rowsWritten);
+                return tableDone();
+            }));
+            futures.add(workers.submit(() -> {
+                List<Supplier> suppliers = load(supplierService::getAllSuppliers);
+                exportService.exportSuppliers(suppliers, file("suppliers").getPath(), format,
+                        this::rowsWritten);
+                return tableDone();
+            }));
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    for (Future<?> other : futures) {
+                        other.cancel(true);
+                    }
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        updateProgress(1, 1);
+        updateMessage("Export complete");
+        return directory;
+    }
+
+    private File file(String table) {
+        return new File(directory, table + "_" + timestamp + format.getExtension());
+    }
+
+    /**
+     * Loads a table on the worker's own connection, then waits for the
+     * others so the row total is known before writing starts.
+     */
+    private <T> List<T> load(Loader<T> loader) throws InterruptedException {
+        List<T> rows;
+        try {
+            rows = loader.load();
+            totalRows.addAndGet(rows.size());
+        } finally {
+            loaded.countDown();
+            // Workers get a connection of their own, release it with the thread's work
+            DatabaseConnection.closeConnection();
+        }
+        loaded.await();
+        updateMessage("Writing " + totalRows.get() + " rows...");
+        return rows;
+    }
+
+    private void rowsWritten(int rows) {
+        long total = totalRows.get();
+        if (total > 0) {
+            updateProgress(writtenRows.addAndGet(rows), total);
+        }
+    }
+
+    private Void tableDone() {
+        updateMessage("Exported " + finishedTables.incrementAndGet() + " of " + TABLE_COUNT + " tables");
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Loader<T> {
+        List<T> load();
+    }
+}
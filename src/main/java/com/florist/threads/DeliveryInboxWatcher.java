@@ -0,0 +1,213 @@
+package com.florist.threads;
+
+import com.florist.application.service.DeliveryService;
+import com.florist.application.service.DeliveryService.DeliveryResult;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches an inbox directory for supplier delivery CSV files and receives
+ * each one into stock with the {@link DeliveryService}.
+ * <p>
+ * A file is picked up once its size has stopped changing for the settle
+ * delay, so files still being copied are left alone. It is then moved to
+ * the processing directory before it is read: when several terminals watch
+ * a shared inbox, only the one whose move succeeds receives it. Received
+ * files end up in the archive directory, files that failed in the failed
+ * directory, both with a timestamp prefix.
+ * <p>
+ * The watch loop only notices files; receiving runs on a separate worker
+ * thread, never on the JavaFX thread.
+ */
+public class DeliveryInboxWatcher {
+
+    public static final String DEFAULT_INBOX = "deliveries";
+    public static final long DEFAULT_SETTLE_MILLIS = 1000;
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_");
+
+    private final DeliveryService deliveryService;
+    private final Path inbox;
+    private final Path processing;
+    private final Path archive;
+    private final Path failed;
+    private final long settleMillis;
+    private final ScheduledExecutorService worker;
+
+    // Last seen size of each pending file, only touched by the worker thread
+    private final Map<Path, Long> pending = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public DeliveryInboxWatcher(DeliveryService deliveryService, Path inbox, long settleMillis) {
+        if (settleMillis <= 0) {
+            throw new IllegalArgumentException("Settle delay must be positive: " + settleMillis);
+        }
+        this.deliveryService = deliveryService;
+        this.inbox = inbox.toAbsolutePath();
+        this.processing = this.inbox.resolve("processing");
+        this.archive = this.inbox.resolve("archive");
+        this.failed = this.inbox.resolve("failed");
+        this.settleMillis = settleMillis;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "delivery-receiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the directories, picks up files already waiting and starts watching.
+     */
+    public void start() throws IOException {
+        Files.createDirectories(processing);
+        Files.createDirectories(archive);
+        Files.createDirectories(failed);
+        try (DirectoryStream<Path> interrupted = Files.newDirectoryStream(processing)) {
+            for (Path file : interrupted) {
+                // May have been committed already, receiving it again could count the stock twice
+                System.err.println("[DELIVERY] " + file.getFileName() + " was being received when the application"
+                        + " stopped, check its stock and move it to the inbox or the archive");
+            }
+        }
+
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchThread = new Thread(this::watch, "delivery-inbox");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        worker.execute(this::scanInbox);
+        System.out.println("[DeliveryInboxWatcher] Watching " + inbox);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, look at the whole directory
+                        worker.execute(this::scanInbox);
+                    } else {
+                        Path file = inbox.resolve((Path) event.context());
+                        worker.execute(() -> schedule(file));
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("[DELIVERY] Inbox is no longer accessible: " + inbox);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void scanInbox() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, "*.{csv,CSV}")) {
+            for (Path file : files) {
+                schedule(file);
+            }
+        } catch (IOException e) {
+            System.err.println("[DELIVERY] Cannot list inbox: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts waiting for a file to settle, unless it is already waited for.
+     */
+    private void schedule(Path file) {
+        if (!isDeliveryFile(file) || pending.containsKey(file)) {
+            return;
+        }
+        pending.put(file, -1L);
+        worker.schedule(() -> checkSettled(file), settleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkSettled(Path file) {
+        try {
+            long size = Files.size(file);
+            if (size != pending.get(file)) {
+                // Still growing, look again later
+                pending.put(file, size);
+                worker.schedule(() -> checkSettled(file), settleMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+        } catch (IOException e) {
+            // Gone, taken by another terminal or removed by hand
+            pending.remove(file);
+            return;
+        }
+        pending.remove(file);
+        receive(file);
+    }
+
+    private void receive(Path file) {
+        String stamped = LocalDateTime.now().format(STAMP) + file.getFileName();
+        Path claimed = processing.resolve(stamped);
+        try {
+            Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (Files.exists(file)) {
+                // Still locked by the program writing it
+                schedule(file);
+            }
+            // Otherwise another terminal claimed it first
+            return;
+        }
+
+        Path target;
+        try {
+            DeliveryResult result = deliveryService.receiveDelivery(claimed.toFile());
+            System.out.println("[DELIVERY] Received " + result);
+            target = archive.resolve(stamped);
+        } catch (Exception e) {
+            System.err.println("[DELIVERY] Failed to receive " + file.getFileName() + ": " + e.getMessage());
+            target = failed.resolve(stamped);
+        }
+
+        try {
+            Files.move(claimed, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[DELIVERY] Could not move " + claimed.getFileName() + " to "
+                    + target.getParent().getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isDeliveryFile(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv") && Files.isRegularFile(file);
+    }
+
+    public void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,132 @@
+package com.florist.threads;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Declares a recurring job for the {@link JobScheduler}: what it runs, how
+ * often, and what happens to runs it misses.
+ * <p>
+ * The interval is read again after every run, so it can follow a setting
+ * changed at runtime.
+ */
+public final class JobDefinition {
+
+    /**
+     * Body of a job. A thrown exception is recorded as a failed run.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * What to do with runs that were due while the job was still running,
+     * or while the application could not run it at all (e.g. a suspended laptop).
+     */
+    public enum MissedRunPolicy {
+        /** Drop them and wait for the next slot */
+        SKIP,
+        /** Run once as soon as possible, however many were missed */
+        CATCH_UP
+    }
+
+    private final String name;
+    private final Task task;
+    private Supplier<Duration> interval;
+    private Duration initialDelay = Duration.ZERO;
+    private Duration jitter = Duration.ZERO;
+    private MissedRunPolicy missedRunPolicy = MissedRunPolicy.SKIP;
+    private BooleanSupplier condition = () -> true;
+
+    public JobDefinition(String name, Task task) {
+        this.name = name;
+        this.task = task;
+    }
+
+    public JobDefinition every(Duration interval) {
+        return every(() -> interval);
+    }
+
+    public JobDefinition every(Supplier<Duration> interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    public JobDefinition startAfter(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+        return this;
+    }
+
+    /**
+     * Delays each run by a random time up to the given one, so terminals
+     * started together do not all hit the database at the same moment.
+     */
+    public JobDefinition jitter(Duration jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    public JobDefinition onMissedRuns(MissedRunPolicy missedRunPolicy) {
+        this.missedRunPolicy = missedRunPolicy;
+        return this;
+    }
+
+    /**
+     * Runs the job only while the condition holds, e.g. on the elected
+     * terminal. Runs passed over this way are not recorded.
+     */
+    public JobDefinition runWhen(BooleanSupplier condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Gets the current interval, which must be positive.
+     */
+    public Duration getInterval() {
+        Duration current = interval.get();
+        if (current.isNegative() || current.isZero()) {
+            throw new IllegalStateException("Interval of job " + name + " must be positive: " + current);
+        }
+        return current;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public Duration getJitter() {
+        return jitter;
+    }
+
+    public MissedRunPolicy getMissedRunPolicy() {
+        return missedRunPolicy;
+    }
+
+    public BooleanSupplier getCondition() {
+        return condition;
+    }
+
+    void validate() {
+        if (name == null || name.isBlank() || task == null) {
+            throw new IllegalArgumentException("A job needs a name and a task");
+        }
+        if (interval == null) {
+            throw new IllegalArgumentException("Job " + name + " has no interval");
+        }
+        getInterval();
+        if (initialDelay.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("Delays of job " + name + " must not be negative");
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.florist.threads;
+
+import com.florist.infrastructure.persistence.DatabaseConnection;
+import com.florist.threads.JobDefinition.MissedRunPolicy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs named recurring jobs declared with {@link JobDefinition}.
+ * <p>
+ * A job's runs are due at slots one interval apart. A timer thread only
+ * notices due slots; each run starts on a worker thread of its own, so a
+ * slow job never holds up another one. A job never overlaps itself: a slot
+ * that comes while the previous run is still going is missed, like the
+ * slots that passed while nothing could run at all. The job's
+ * {@link MissedRunPolicy} then drops them or makes up for them with a
+ * single run, so missed runs never pile up.
+ * <p>
+ * The last {@link #HISTORY_SIZE} runs of each job are kept with their start,
+ * duration and outcome.
+ */
+public class JobScheduler {
+
+    public static final int HISTORY_SIZE = 50;
+
+    public enum Outcome {
+        SUCCEEDED, FAILED, MISSED
+    }
+
+    /**
+     * One run of a job, or a missed slot.
+     *
+     * @param error what went wrong, null if the run succeeded
+     */
+    public record JobRun(String job, LocalDateTime started, Duration duration, Outcome outcome, String error) {
+    }
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+
+    public JobScheduler() {
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "job-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "job-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts running a job.
+     *
+     * @throws IllegalArgumentException if the definition is incomplete or
+     *                                  a job of the same name is scheduled
+     */
+    public void schedule(JobDefinition definition) {
+        definition.validate();
+        ScheduledJob job = new ScheduledJob(definition);
+        if (jobs.putIfAbsent(definition.getName(), job) != null) {
+            throw new IllegalArgumentException("Job already scheduled: " + definition.getName());
+        }
+        job.start();
+        System.out.println("[JobScheduler] " + definition.getName() + " scheduled every "
+                + describe(definition.getInterval()));
+    }
+
+    /**
+     * Reschedules the jobs whose interval changed, their next run one new
+     * interval from now.
+     */
+    public void refreshIntervals() {
+        for (ScheduledJob job : jobs.values()) {
+            job.refreshInterval();
+        }
+    }
+
+    public Set<String> getJobNames() {
+        return Set.copyOf(jobs.keySet());
+    }
+
+    /**
+     * Gets the recent runs of a job, oldest first.
+     *
+     * @return the runs, empty for an unknown job
+     */
+    public List<JobRun> getHistory(String name) {
+        ScheduledJob job = jobs.get(name);
+        return job == null ? List.of() : job.history();
+    }
+
+    /**
+     * Stops the timer and waits a few seconds for running jobs to finish.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return !timer.isShutdown();
+    }
+
+    private static String describe(Duration interval) {
+        long millis = interval.toMillis();
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + " minutes";
+        }
+        if (millis % 1000 == 0) {
+            return millis / 1000 + " seconds";
+        }
+        return millis + " ms";
+    }
+
+    /**
+     * State of one scheduled job, guarded by its own lock.
+     */
+    private final class ScheduledJob {
+
+        private final JobDefinition definition;
+        private final String name;
+        private final Deque<JobRun> history = new ArrayDeque<>();
+
+        // Wall clock, so slots passed while the computer slept are noticed
+        private long nextSlotMillis;
+        private long intervalMillis;
+        private ScheduledFuture<?> nextFiring;
+        private boolean running;
+        private boolean catchUpPending;
+
+        ScheduledJob(JobDefinition definition) {
+            this.definition = definition;
+            this.name = definition.getName();
+        }
+
+        synchronized void start() {
+            intervalMillis = definition.getInterval().toMillis();
+            nextSlotMillis = System.currentTimeMillis() + definition.getInitialDelay().toMillis();
+            arm();
+        }
+
+        synchronized void refreshInterval() {
+            long interval = definition.getInterval().toMillis();
+            if (interval == intervalMillis || timer.isShutdown()) {
+                return;
+            }
+            nextFiring.cancel(false);
+            intervalMillis = interval;
+            nextSlotMillis = System.currentTimeMillis() + interval;
+            arm();
+            System.out.println("[JobScheduler] " + name + " now every " + describe(Duration.ofMillis(interval)));
+        }
+
+        synchronized List<JobRun> history() {
+            return new ArrayList<>(history);
+        }
+
+        private void arm() {
+            // Never more than half an interval, so a jittered slot is not taken for a missed one
+            long jitter = Math.min(definition.getJitter().toMillis(), intervalMillis / 2);
+            long delay = Math.max(0, nextSlotMillis - System.currentTimeMillis())
+                    + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+            try {
+                nextFiring = timer.schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+
+        /**
+         * Called by the timer at a due slot: starts a run, or records the
+         * slot as missed, then waits for the next slot.
+         */
+        private synchronized void fire() {
+            long now = System.currentTimeMillis();
+            long missed = Math.max(0, (now - nextSlotMillis) / intervalMillis);
+            nextSlotMillis += (missed + 1) * intervalMillis;
+
+            long interval = definition.getInterval().toMillis();
+            if (interval != intervalMillis) {
+                intervalMillis = interval;
+                nextSlotMillis = now + interval;
+            }
+
+            boolean wanted;
+            try {
+                wanted = definition.getCondition().getAsBoolean();
+            } catch (RuntimeException e) {
+                System.err.println("[SCHEDULER] " + name + " condition failed: " + e.getMessage());
+                wanted = false;
+            }
+
+            boolean catchUp = definition.getMissedRunPolicy() == MissedRunPolicy.CATCH_UP;
+            if (!wanted) {
+                // Not this terminal's turn, nothing to record
+            } else if (running) {
+                record(new JobRun(name, LocalDateTime.now(), Duration.ZERO, Outcome.MISSED,
+                        "previous run still going"));
+                catchUpPending = catchUp;
+                System.out.println("[SCHEDULER] " + name + " is still running, "
+                        + (catchUp ? "next run starts when it ends" : "run skipped"));
+            } else if (missed > 0 && !catchUp) {
+                record(new JobRun(name, LocalDateTime.now(), Duration.ZERO, Outcome.MISSED, missed + " runs missed"));
+                System.out.println("[SCHEDULER] " + name + " missed " + missed + " runs, skipped");
+            } else {
+                if (missed > 0) {
+                    System.out.println("[SCHEDULER] " + name + " missed " + missed + " runs, catching up once");
+                }
+                launch();
+            }
+            arm();
+        }
+
+        private void launch() {
+            running = true;
+            try {
+                workers.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                running = false;
+            }
+        }
+
+        private void run() {
+            Thread thread = Thread.currentThread();
+            String threadName = thread.getName();
+            thread.setName("job-" + name);
+
+            LocalDateTime started = LocalDateTime.now();
+            long start = System.nanoTime();
+            Outcome outcome = Outcome.FAILED;
+            String error = null;
+            try {
+                definition.getTask().run();
+                outcome = Outcome.SUCCEEDED;
+            } catch (Exception e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                System.err.println("[SCHEDULER] " + name + " failed: " + error);
+                e.printStackTrace();
+            } finally {
+                // Pooled worker threads die when idle, release this thread's connection with the run
+                DatabaseConnection.closeConnection();
+                thread.setName(threadName);
+                finish(new JobRun(name, started, Duration.ofNanos(System.nanoTime() - start), outcome, error));
+            }
+        }
+
+        private synchronized void finish(JobRun run) {
+            record(run);
+            running = false;
+            if (catchUpPending && !timer.isShutdown()) {
+                catchUpPending = false;
+                launch();
+            }
+        }
+
+        private void record(JobRun run) {
+            if (history.size() == HISTORY_SIZE) {
+                history.removeFirst();
+            }
+            history.addLast(run);
+        }
+    }
+}
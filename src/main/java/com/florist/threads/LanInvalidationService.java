@@ -0,0 +1,123 @@
+package com.florist.threads;
+
+import com.florist.application.event.DomainEvent;
+import com.florist.application.event.DomainEventBus;
+import com.florist.application.event.FlowerUpdatedEvent;
+import com.florist.application.event.SaleCompletedEvent;
+import com.florist.application.event.StockChangedEvent;
+import com.florist.domain.repository.ChangeTrackingRepository;
+import com.florist.infrastructure.network.Invalidation;
+import com.florist.infrastructure.network.InvalidationChannel;
+
+import java.io.IOException;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bridges the {@link DomainEventBus} and the LAN {@link InvalidationChannel}.
+ * Local writes are broadcast as compact invalidations; invalidations from
+ * peers are resolved to the changed rows and republished as remote events.
+ * The database poll of {@link ChangeSyncService} remains the safety net for
+ * lost datagrams.
+ */
+public class LanInvalidationService {
+
+    private final DomainEventBus eventBus;
+    private final ChangeTrackingRepository changeRepository;
+    private final RemoteChangeFilter changeFilter;
+    private final UUID terminalId;
+
+    private InvalidationChannel channel;
+    private DomainEventBus.Subscription subscription;
+
+    public LanInvalidationService(DomainEventBus eventBus, ChangeTrackingRepository changeRepository,
+            RemoteChangeFilter changeFilter, UUID terminalId) {
+        this.eventBus = eventBus;
+        this.changeRepository = changeRepository;
+        this.changeFilter = changeFilter;
+        this.terminalId = terminalId;
+    }
+
+    /**
+     * Joins the multicast group and starts relaying changes.
+     *
+     * @param groupAddress     multicast group address
+     * @param port             UDP port
+     * @param networkInterface interface to use, null for the system default
+     * @throws IOException if the group cannot be joined
+     */
+    public void start(String groupAddress, int port, NetworkInterface networkInterface) throws IOException {
+        channel = new InvalidationChannel(terminalId, groupAddress, port, networkInterface, this::onInvalidation);
+        subscription = eventBus.subscribe("lan-invalidation", event -> !event.remote(), this::broadcast);
+        System.out.println("[LanInvalidationService] Broadcasting on " + groupAddress + ":" + port);
+    }
+
+    private void broadcast(List<DomainEvent> events) {
+        long version = System.currentTimeMillis();
+        Set<Invalidation> invalidations = new LinkedHashSet<>();
+
+        for (DomainEvent event : events) {
+            if (event instanceof FlowerUpdatedEvent flowerEvent) {
+                invalidations.add(new Invalidation(Invalidation.EntityType.FLOWER,
+                        Invalidation.Operation.valueOf(flowerEvent.changeType().name()),
+                        flowerEvent.flowerId(), version));
+            } else if (event instanceof StockChangedEvent stockEvent) {
+                invalidations.add(new Invalidation(Invalidation.EntityType.FLOWER,
+                        Invalidation.Operation.UPDATED, stockEvent.flowerId(), version));
+            } else if (event instanceof SaleCompletedEvent saleEvent) {
+                invalidations.add(new Invalidation(Invalidation.EntityType.SALE,
+                        Invalidation.Operation.CREATED, saleEvent.sale().getId(), version));
+            }
+        }
+
+        if (!invalidations.isEmpty()) {
+            try {
+                channel.send(new ArrayList<>(invalidations));
+            } catch (IOException e) {
+                System.err.println("[LAN-INVALIDATION] Broadcast failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        String entity = invalidation.entityType().name();
+        String operation = invalidation.operation().name();
+        int id = invalidation.entityId();
+
+        switch (invalidation.entityType()) {
+            case FLOWER -> {
+                if (invalidation.operation() == Invalidation.Operation.DELETED) {
+                    if (changeFilter.firstSeen(entity, operation, id)) {
+                        eventBus.publish(new FlowerUpdatedEvent(id, null, FlowerUpdatedEvent.ChangeType.DELETED, true));
+                    }
+                    return;
+                }
+                FlowerUpdatedEvent.ChangeType type = invalidation.operation() == Invalidation.Operation.CREATED
+                        && changeFilter.firstSeen(entity, operation, id)
+                                ? FlowerUpdatedEvent.ChangeType.CREATED
+                                : FlowerUpdatedEvent.ChangeType.UPDATED;
+                changeRepository.findFlower(id)
+                        .ifPresent(flower -> eventBus.publish(new FlowerUpdatedEvent(id, flower, type, true)));
+            }
+            case SALE -> {
+                if (changeFilter.firstSeen(entity, operation, id)) {
+                    changeRepository.findSale(id)
+                            .ifPresent(sale -> eventBus.publish(new SaleCompletedEvent(sale, true)));
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
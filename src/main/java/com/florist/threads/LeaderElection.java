@@ -0,0 +1,137 @@
+package com.florist.threads;
+
+import com.florist.infrastructure.persistence.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects one terminal among all instances sharing the database, using a
+ * MySQL named lock (GET_LOCK) held on a dedicated connection.
+ * 
+ * Failover bounds:
+ * - leader exits or crashes: the server releases the lock with the
+ *   session, a follower takes over within one heartbeat interval;
+ * - leader host or network disappears: the server drops the idle session
+ *   after the lease (session wait_timeout), then one heartbeat later.
+ */
+public class LeaderElection {
+
+    public static final long DEFAULT_HEARTBEAT_SECONDS = 5;
+    public static final int DEFAULT_LEASE_SECONDS = 15;
+
+    private final String lockName;
+    private final long heartbeatSeconds;
+    private final int leaseSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    // Only touched by the scheduler thread
+    private Connection connection;
+    private volatile boolean leader = false;
+
+    public LeaderElection(String lockName) {
+        this(lockName, DEFAULT_HEARTBEAT_SECONDS, DEFAULT_LEASE_SECONDS);
+    }
+
+    public LeaderElection(String lockName, long heartbeatSeconds, int leaseSeconds) {
+        if (heartbeatSeconds <= 0 || leaseSeconds <= heartbeatSeconds) {
+            throw new IllegalArgumentException("Lease must be longer than the heartbeat interval");
+        }
+        this.lockName = lockName;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leader-election");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tells whether this terminal currently holds leadership.
+     * 
+     * @return true if jobs reserved to the leader should run here
+     */
+    public boolean isLeader() {
+        return leader;
+    }
+
+    private void heartbeat() {
+        try {
+            if (connection == null || !connection.isValid(2)) {
+                closeQuietly();
+                connection = DatabaseConnection.openDedicatedConnection();
+                try (Statement stmt = connection.createStatement()) {
+                    // Lease: an unreachable leader's session, and its lock, expire after this idle time
+                    stmt.execute("SET SESSION wait_timeout = " + leaseSeconds);
+                }
+            }
+
+            boolean holding = leader ? stillHoldsLock() : tryAcquireLock();
+            if (holding != leader) {
+                leader = holding;
+                System.out.println("[LeaderElection] " + (holding ? "Acquired" : "Lost")
+                        + " leadership for '" + lockName + "'");
+            }
+        } catch (SQLException e) {
+            if (leader) {
+                System.err.println("[LeaderElection] Stepping down: " + e.getMessage());
+            }
+            leader = false;
+            closeQuietly();
+        }
+    }
+
+    private boolean tryAcquireLock() throws SQLException {
+        return queryFlag("SELECT GET_LOCK(CONCAT(DATABASE(), ':', ?), 0)");
+    }
+
+    private boolean stillHoldsLock() throws SQLException {
+        return queryFlag("SELECT IS_USED_LOCK(CONCAT(DATABASE(), ':', ?)) = CONNECTION_ID()");
+    }
+
+    private boolean queryFlag(String sql) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, lockName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Ignore
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Releases leadership so a follower can take over at its next heartbeat.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        leader = false;
+        // Closing the session releases the named lock
+        closeQuietly();
+    }
+}
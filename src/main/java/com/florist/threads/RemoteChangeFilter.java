@@ -0,0 +1,33 @@
+package com.florist.threads;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers recently applied remote creations, deletions and sales.
+ * The same change can arrive through both the LAN broadcast and the
+ * database poll; non-idempotent changes must only be published once.
+ */
+public class RemoteChangeFilter {
+
+    private static final int CAPACITY = 4096;
+
+    private final Map<String, Boolean> seen = new LinkedHashMap<>(CAPACITY, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * Records a change and tells whether it is new.
+     * 
+     * @param entityType entity kind, e.g. "SALE"
+     * @param operation  change kind, e.g. "CREATED"
+     * @param entityId   row ID
+     * @return true the first time a change is offered
+     */
+    public synchronized boolean firstSeen(String entityType, String operation, int entityId) {
+        return seen.put(entityType + ':' + operation + ':' + entityId, Boolean.TRUE) == null;
+    }
+}
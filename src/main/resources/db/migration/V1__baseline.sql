@@ -1,10 +1,10 @@
 -- Florist Management System Database Schema
 -- Database: florist_db
 -- DBMS: MySQL 8.0+
-
--- Create database if not exists
-CREATE DATABASE IF NOT EXISTS florist_db CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
-USE florist_db;
+--
+-- Baseline: the schema as DatabaseInitializer last created it. Every table
+-- is created IF NOT EXISTS so databases from before versioned migrations
+-- can run it too. Never edit an applied migration, add a new one.
 
 -- Table: suppliers
 -- Stores supplier/vendor information
@@ -14,7 +14,9 @@ CREATE TABLE IF NOT EXISTS suppliers (
     phone VARCHAR(20),
     email VARCHAR(100),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_supplier_name (name)
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_supplier_name (name),
+    INDEX idx_supplier_updated_at (updated_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Table: flowers
@@ -29,12 +31,14 @@ CREATE TABLE IF NOT EXISTS flowers (
     arrival_date DATE NOT NULL,
     freshness_days INT NOT NULL COMMENT 'Number of days flower stays fresh',
     supplier_id INT,
+    terminal_id VARCHAR(36) COMMENT 'Instance that last wrote the row',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON DELETE SET NULL,
     INDEX idx_flower_name (name),
     INDEX idx_flower_category (category),
-    INDEX idx_arrival_date (arrival_date)
+    INDEX idx_arrival_date (arrival_date),
+    INDEX idx_flower_updated_at (updated_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Table: sales
@@ -46,6 +50,7 @@ CREATE TABLE IF NOT EXISTS sales (
     quantity_sold INT NOT NULL,
     total_price DECIMAL(10, 2) NOT NULL,
     customer_name VARCHAR(100),
+    terminal_id VARCHAR(36) COMMENT 'Instance that recorded the sale',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (flower_id) REFERENCES flowers(id) ON DELETE CASCADE,
     INDEX idx_sale_date (sale_date),
@@ -70,21 +75,24 @@ CREATE TABLE IF NOT EXISTS stock_alerts (
     INDEX idx_flower_alert (flower_id, alert_type, resolved)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
--- Insert sample data for testing
-
--- Sample suppliers
--- INSERT INTO suppliers (name, phone, email) VALUES
--- ('Fleurs de Paris', '01-23-45-67-89', 'contact@fleursdeparts.fr'),
--- ('Garden Wholesale', '01-98-76-54-32', 'sales@gardenwholesale.fr'),
--- ('Tropical Imports', '01-55-44-33-22', 'info@tropicalimports.fr')
--- ON DUPLICATE KEY UPDATE name=name;
+-- Table: tombstones
+-- Deleted rows, so other terminals can drop them from their views
+CREATE TABLE IF NOT EXISTS tombstones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL COMMENT 'FLOWER or SUPPLIER',
+    entity_id INT NOT NULL,
+    terminal_id VARCHAR(36),
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_tombstone_deleted_at (deleted_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
--- Sample flowers
--- INSERT INTO flowers (name, color, category, price, quantity, arrival_date, freshness_days, supplier_id) VALUES
--- ('Rose Rouge', 'Rouge', 'Rose', 3.50, 100, CURDATE(), 7, 1),
--- ('Tulipe Jaune', 'Jaune', 'Tulipe', 2.80, 75, CURDATE(), 5, 1),
--- ('Orchidée Blanche', 'Blanc', 'Orchidée', 15.00, 25, CURDATE(), 14, 3),
--- ('Lys Rose', 'Rose', 'Lys', 6.50, 50, CURDATE(), 10, 2),
--- ('Marguerite', 'Blanc', 'Marguerite', 1.50, 120, CURDATE(), 6, 2),
--- ('Tournesol', 'Jaune', 'Tournesol', 4.00, 60, DATE_SUB(CURDATE(), INTERVAL 5 DAY), 7, 1)
--- ON DUPLICATE KEY UPDATE name=name;
+-- Table: import_id_map
+-- Rows each merged import source became, so merging it again updates them
+CREATE TABLE IF NOT EXISTS import_id_map (
+    source VARCHAR(100) NOT NULL COMMENT 'Name of the imported data set',
+    entity_type VARCHAR(20) NOT NULL COMMENT 'SUPPLIER, FLOWER or SALE',
+    file_id INT NOT NULL COMMENT 'ID of the row in the imported file',
+    row_id INT NOT NULL COMMENT 'ID the row got in this database',
+    row_hash INT NOT NULL COMMENT 'Hash of the values last imported',
+    PRIMARY KEY (source, entity_type, file_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,15 @@
+-- Covering indexes for the busiest reads.
+-- Each index is built online: ALGORITHM=INPLACE, LOCK=NONE makes MySQL
+-- refuse the statement rather than block writes while it runs.
+
+-- Unresolved alerts newest first, without a filesort
+ALTER TABLE stock_alerts
+    ADD INDEX idx_alert_open_date (resolved, generated_date),
+    DROP INDEX idx_resolved,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Daily sales figures read from the index alone; still serves lookups by date
+ALTER TABLE sales
+    ADD INDEX idx_sale_day_totals (sale_date, flower_id, quantity_sold, total_price),
+    DROP INDEX idx_sale_date,
+    ALGORITHM=INPLACE, LOCK=NONE;
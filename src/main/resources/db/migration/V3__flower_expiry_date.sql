@@ -0,0 +1,9 @@
+-- Expiry date stored with each flower, so freshness queries run in MySQL.
+-- Same rule as Flower.getExpiryDate: a flower is expired on this date.
+-- A stored generated column rebuilds the table; LOCK=SHARED lets reads
+-- go on while it is copied.
+ALTER TABLE flowers
+    ADD COLUMN expiry_date DATE GENERATED ALWAYS AS (DATE_ADD(arrival_date, INTERVAL freshness_days DAY)) STORED
+        COMMENT 'arrival_date + freshness_days' AFTER freshness_days,
+    ADD INDEX idx_flower_expiry_date (expiry_date),
+    ALGORITHM=COPY, LOCK=SHARED;